@@ -1,7 +1,9 @@
 package me.cnm.impl.client;
 
 import me.cnm.impl.shared.bootstrap.Bootstrap;
+import me.cnm.impl.shared.module.ModuleHandler;
 import me.cnm.shared.cli.command.ICommandHandler;
+import me.cnm.shared.module.IModuleHandler;
 
 public class Client {
 
@@ -17,6 +19,17 @@ public class Client {
         this.bootstrap.getHandlerLibrary().getHandler(ICommandHandler.class).register(new Test());
     }
 
+    /**
+     * Boot with all modules, including the deferred ones, and stop again, so all classes of the boot are loaded once
+     * while the class data sharing archive is recorded
+     */
+    public void generateArchive() {
+        this.start();
+        ((ModuleHandler) this.bootstrap.getHandlerLibrary().getHandler(IModuleHandler.class))
+                .activateDeferred("class data sharing archive");
+        this.stop();
+    }
+
     public void stop() {
         this.bootstrap.stop();
     }
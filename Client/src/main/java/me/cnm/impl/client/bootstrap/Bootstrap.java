@@ -2,12 +2,27 @@ package me.cnm.impl.client.bootstrap;
 
 import me.cnm.impl.client.Client;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+
 public class Bootstrap {
 
     public static void main(String[] args) {
+        List<String> arguments = Arrays.asList(args);
+        if (arguments.contains(ClassDataSharing.DUMP_ARGUMENT)) {
+            new Client().generateArchive();
+            System.exit(0);
+        }
+
+        if (arguments.contains(ClassDataSharing.GENERATE_ARGUMENT)) System.exit(ClassDataSharing.generate(args));
+
+        OptionalInt exitCode = ClassDataSharing.launch(args);
+        if (exitCode.isPresent()) System.exit(exitCode.getAsInt());
+
         Client client = new Client();
 
-        Runtime.getRuntime().addShutdownHook(new Thread(client::stop));
+        Runtime.getRuntime().addShutdownHook(new Thread(client::stop, "shutdown"));
 
         client.start();
     }
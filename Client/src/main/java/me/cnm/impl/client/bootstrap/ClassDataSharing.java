@@ -0,0 +1,244 @@
+package me.cnm.impl.client.bootstrap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Generates and uses a dynamic class data sharing (AppCDS) archive of the client<br>
+ * The archive is dumped by a boot with all modules, witch is started with {@code --generate-cds}. Next to the archive
+ * an argument file is written, so the start script uses the archive with {@code java @cds/client.args ...}<br>
+ * A relaunch of the JVM with the archive can be enabled with {@code -Dcnm.cds=relaunch} instead, for setups where
+ * the start script can't be changed. It's only done, as long as the fingerprint of the JVM, the class path, the
+ * modules and the libraries didn't change since the archive was dumped<br>
+ * Only plain java classes are used here, because everything loaded before the relaunch slows down the boot
+ */
+public final class ClassDataSharing {
+
+    public static final String GENERATE_ARGUMENT = "--generate-cds";
+    static final String DUMP_ARGUMENT = "--dump-cds";
+
+    // Set to relaunch to start the client in a second JVM with the archive, if it wasn't passed by the start script
+    private static final String PROPERTY = "cnm.cds";
+    private static final String RELAUNCH = "relaunch";
+
+    private static final File DIRECTORY = new File("cds");
+    private static final String ARCHIVE = "client.jsa";
+    private static final String FINGERPRINT = "client.fingerprint";
+    private static final String ARGUMENTS = "client.args";
+
+    private ClassDataSharing() {
+    }
+
+    /**
+     * Boot the client in a new JVM, witch records all loaded classes and dumps them into the archive when it exits
+     *
+     * @param args The arguments of the client
+     * @return The exit code of the new JVM
+     */
+    public static int generate(String[] args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        arguments.remove(GENERATE_ARGUMENT);
+        arguments.add(DUMP_ARGUMENT);
+
+        // The fingerprint is taken before the boot, so changes during the boot invalidate the archive
+        String fingerprint = fingerprint();
+
+        File archive = new File(DIRECTORY, ARCHIVE);
+        //noinspection ResultOfMethodCallIgnored
+        DIRECTORY.mkdirs();
+        try {
+            Files.deleteIfExists(new File(DIRECTORY, FINGERPRINT).toPath());
+            Files.deleteIfExists(new File(DIRECTORY, ARGUMENTS).toPath());
+            Files.deleteIfExists(archive.toPath());
+        } catch (IOException e) {
+            System.err.println("The old class data sharing archive couldn't be deleted: " + e);
+            return 1;
+        }
+
+        OptionalInt exitCode = relaunch(List.of("-XX:ArchiveClassesAtExit=" + archive.getPath()), args,
+                arguments);
+        if (exitCode.isEmpty()) {
+            System.err.println("The JVM couldn't be relaunched to dump the class data sharing archive.");
+            return 1;
+        }
+
+        if (exitCode.getAsInt() != 0 || !archive.isFile()) {
+            System.err.println("The class data sharing archive couldn't be dumped (exit code " +
+                    exitCode.getAsInt() + ").");
+            return exitCode.getAsInt() == 0 ? 1 : exitCode.getAsInt();
+        }
+
+        File argumentFile;
+        try {
+            argumentFile = writeArguments(DIRECTORY, fingerprint);
+        } catch (IOException e) {
+            System.err.println("The fingerprint or the argument file of the class data sharing archive couldn't be " +
+                    "written: " + e);
+            return 1;
+        }
+
+        System.out.println("Dumped the class data sharing archive to " + archive.getPath() + " (" +
+                archive.length() / 1024 + " KiB).");
+        System.out.println("Add @" + argumentFile.getPath() + " to the options of the JVM in the start script to use " +
+                "it, or start the client with -D" + PROPERTY + "=" + RELAUNCH + ".");
+        return 0;
+    }
+
+    /**
+     * Relaunch the client with the archive, if the relaunch is enabled with {@code -Dcnm.cds=relaunch}, the archive
+     * is valid and this JVM doesn't use it already<br>
+     * Without the relaunch the client always boots in this JVM, witch uses the archive only if the start script
+     * passes it
+     *
+     * @param args The arguments of the client
+     * @return The exit code of the relaunched JVM, or empty if the client has to boot in this JVM
+     */
+    public static OptionalInt launch(String[] args) {
+        String[] jvmArguments = ProcessHandle.current().info().arguments().orElse(new String[0]);
+        if (!shouldRelaunch(DIRECTORY, jvmArguments)) return OptionalInt.empty();
+
+        return relaunch(List.of("-XX:SharedArchiveFile=" + new File(DIRECTORY, ARCHIVE).getPath()), args,
+                Arrays.asList(args));
+    }
+
+    /**
+     * Check whether the client should be relaunched with the archive in a directory<br>
+     * The relaunch has to be enabled with {@code -Dcnm.cds=relaunch}, the archive has to match the current
+     * fingerprint and the JVM must not be started with class data sharing options already
+     *
+     * @param directory    The directory of the archive
+     * @param jvmArguments The arguments of this JVM
+     * @return Whether the client should be relaunched
+     */
+    public static boolean shouldRelaunch(File directory, String[] jvmArguments) {
+        if (!RELAUNCH.equalsIgnoreCase(System.getProperty(PROPERTY))) return false;
+
+        File fingerprintFile = new File(directory, FINGERPRINT);
+        if (!new File(directory, ARCHIVE).isFile() || !fingerprintFile.isFile()) return false;
+
+        for (String argument : jvmArguments) {
+            if (argument.startsWith("-XX:SharedArchiveFile") || argument.startsWith("-XX:ArchiveClassesAtExit") ||
+                    argument.startsWith("-Xshare")) return false;
+        }
+
+        try {
+            return fingerprint().equals(Files.readString(fingerprintFile.toPath(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write the fingerprint and the argument file of a dumped archive<br>
+     * The argument file contains the options to use the archive, so the start script can pass it with
+     * {@code java @<file>}
+     *
+     * @param directory   The directory of the archive
+     * @param fingerprint The fingerprint taken before the archive was dumped
+     * @return The argument file
+     * @throws IOException If a file can't be written
+     */
+    public static File writeArguments(File directory, String fingerprint) throws IOException {
+        File argumentFile = new File(directory, ARGUMENTS);
+        Files.writeString(new File(directory, FINGERPRINT).toPath(), fingerprint, StandardCharsets.UTF_8);
+        Files.writeString(argumentFile.toPath(), "-XX:SharedArchiveFile=" + new File(directory, ARCHIVE).getPath() +
+                System.lineSeparator(), StandardCharsets.UTF_8);
+        return argumentFile;
+    }
+
+    private static OptionalInt relaunch(List<String> options, String[] currentArgs, List<String> args) {
+        ProcessHandle.Info info = ProcessHandle.current().info();
+        Optional<String> command = info.command();
+        Optional<String[]> arguments = info.arguments();
+        if (command.isEmpty() || arguments.isEmpty()) return OptionalInt.empty();
+
+        // The arguments of the client are the last arguments of the command line, everything before is kept
+        String[] current = arguments.get();
+        int jvmArguments = current.length - currentArgs.length;
+        if (jvmArguments < 0 || !Arrays.equals(current, jvmArguments, current.length, currentArgs, 0,
+                currentArgs.length)) return OptionalInt.empty();
+
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add(command.get());
+        commandLine.addAll(options);
+        commandLine.addAll(Arrays.asList(current).subList(0, jvmArguments));
+        // Added after the options of this JVM, so it overrides an enabled relaunch
+        commandLine.add("-D" + PROPERTY + "=false");
+        commandLine.addAll(args);
+
+        Process process;
+        try {
+            process = new ProcessBuilder(commandLine).inheritIO().start();
+        } catch (IOException e) {
+            return OptionalInt.empty();
+        }
+
+        // The relaunched client is stopped cleanly, if this JVM is stopped
+        Thread shutdownHook = new Thread(() -> {
+            process.destroy();
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "cds-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        try {
+            int exitCode = process.waitFor();
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            return OptionalInt.of(exitCode);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            return OptionalInt.of(1);
+        } catch (IllegalStateException e) {
+            // This JVM is already shutting down, the shutdown hook waits for the relaunched client
+            return OptionalInt.of(1);
+        }
+    }
+
+    /**
+     * The fingerprint of everything, witch decides about the content of the archive: the JVM, the class path and the
+     * size and modification time of all modules, bundles and libraries
+     *
+     * @return The fingerprint
+     */
+    public static String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder()
+                .append("java.vm.version=").append(System.getProperty("java.vm.version")).append('\n')
+                .append("java.class.path=").append(System.getProperty("java.class.path")).append('\n');
+
+        appendFiles(fingerprint, new File("modules"), 2);
+        appendFiles(fingerprint, new File("libraries"), 1);
+        return fingerprint.toString();
+    }
+
+    private static void appendFiles(StringBuilder fingerprint, File directory, int depth) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (File file : files) {
+            if (file.isDirectory()) {
+                if (depth > 1) appendFiles(fingerprint, file, depth - 1);
+                continue;
+            }
+
+            String name = file.getName();
+            if (!name.endsWith(".jar") && !name.endsWith(".bundle") && !name.equals("module.json")) continue;
+
+            fingerprint.append(file.getPath()).append(' ').append(file.length()).append(' ')
+                    .append(file.lastModified()).append('\n');
+        }
+    }
+
+}
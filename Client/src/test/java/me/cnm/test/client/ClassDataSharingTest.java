@@ -0,0 +1,78 @@
+package me.cnm.test.client;
+
+import me.cnm.impl.client.bootstrap.ClassDataSharing;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ClassDataSharingTest {
+
+    private static final String[] NO_ARGUMENTS = new String[0];
+
+    @TempDir
+    static File directory;
+
+    @AfterAll
+    static void cleanup() {
+        System.clearProperty("cnm.cds");
+    }
+
+    @Test
+    @Order(1)
+    void testArguments() throws IOException {
+        File archive = new File(directory, "client.jsa");
+        Files.writeString(archive.toPath(), "archive");
+
+        // The start script passes the argument file to the JVM, so it only contains the option to use the archive
+        File argumentFile = ClassDataSharing.writeArguments(directory, ClassDataSharing.fingerprint());
+        assertEquals(new File(directory, "client.args"), argumentFile);
+        assertEquals("-XX:SharedArchiveFile=" + archive.getPath(),
+                Files.readString(argumentFile.toPath(), StandardCharsets.UTF_8).strip());
+        assertEquals(ClassDataSharing.fingerprint(), Files.readString(new File(directory, "client.fingerprint")
+                .toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @Order(2)
+    void testOptIn() {
+        // Without the property the client always boots in this JVM, even with a valid archive
+        System.clearProperty("cnm.cds");
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+        System.setProperty("cnm.cds", "false");
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+
+        System.setProperty("cnm.cds", "relaunch");
+        assertTrue(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+
+        // A JVM, witch already got class data sharing options from the start script, isn't relaunched
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, new String[]{ "-Xmx64m",
+                "-XX:SharedArchiveFile=client.jsa" }));
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, new String[]{ "-Xshare:off" }));
+    }
+
+    @Test
+    @Order(3)
+    void testInvalid() throws IOException {
+        System.setProperty("cnm.cds", "relaunch");
+
+        // The archive was dumped for other modules or another JVM
+        File fingerprint = new File(directory, "client.fingerprint");
+        Files.writeString(fingerprint.toPath(), ClassDataSharing.fingerprint() + "modules/alpha/java.jar 1 1\n");
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+
+        ClassDataSharing.writeArguments(directory, ClassDataSharing.fingerprint());
+        assertTrue(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+
+        // The archive is missing
+        Files.delete(new File(directory, "client.jsa").toPath());
+        assertFalse(ClassDataSharing.shouldRelaunch(directory, NO_ARGUMENTS));
+    }
+
+}
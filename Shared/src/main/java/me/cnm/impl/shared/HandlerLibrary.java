@@ -1,27 +1,188 @@
 package me.cnm.impl.shared;
 
 import lombok.NonNull;
+import lombok.Setter;
 import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.IHandlerListener;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 public class HandlerLibrary implements IHandlerLibrary {
 
-    private final Map<Class<?>, Object> handlers = new HashMap<>();
+    /**
+     * Immutable snapshot of all handlers, replaced on every registration<br>
+     * Handlers are read far more often than they are registered, so reads only need a volatile read and no lock
+     */
+    private volatile Map<Class<?>, Object> handlers = Map.of();
+
+    private final Map<Class<?>, List<IHandlerListener<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * The changes of each type, witch weren't delivered to the listeners yet, guarded by this library<br>
+     * The changes are queued while the snapshot is replaced, so the listeners receive them in registration order,
+     * without holding a lock while they are called
+     */
+    private final Map<Class<?>, Notifications> notifications = new HashMap<>();
+    private final Map<Class<?>, Runnable> initializers = new ConcurrentHashMap<>();
+
+    /**
+     * Called with the type of a missing handler, returns whether something was activated, that might register it
+     */
+    @Setter
+    private Predicate<Class<?>> activator;
 
     @Override
     public <T> void registerHandler(@NonNull Class<T> type, @NonNull T instance) {
-        handlers.put(type, instance);
+        Object previous;
+        synchronized (this) {
+            Map<Class<?>, Object> copy = new HashMap<>(this.handlers);
+            previous = copy.put(type, instance);
+            this.handlers = Map.copyOf(copy);
+            this.queue(type, previous, instance);
+        }
+
+        this.notifyListeners(type);
+    }
+
+    @Override
+    public void unregisterHandlers(@NonNull Map<Class<?>, Object> handlers) {
+        Map<Class<?>, Object> removed = new HashMap<>();
+        synchronized (this) {
+            Map<Class<?>, Object> copy = new HashMap<>(this.handlers);
+            for (Map.Entry<Class<?>, Object> entry : handlers.entrySet()) {
+                if (copy.remove(entry.getKey(), entry.getValue())) removed.put(entry.getKey(), entry.getValue());
+            }
+            if (removed.isEmpty()) return;
+
+            this.handlers = Map.copyOf(copy);
+            for (Map.Entry<Class<?>, Object> entry : removed.entrySet())
+                this.queue(entry.getKey(), entry.getValue(), null);
+        }
+
+        for (Class<?> type : removed.keySet()) this.notifyListeners(type);
+    }
+
+    private void queue(Class<?> type, Object previous, Object instance) {
+        if (!this.listeners.containsKey(type)) return;
+        this.notifications.computeIfAbsent(type, key -> new Notifications()).pending.add(new Change(previous,
+                instance));
+    }
+
+    /**
+     * Deliver the queued changes of a type<br>
+     * Only one thread delivers the changes of a type at a time, concurrent callers leave their changes to it. So a
+     * listener never receives a change before the changes registered earlier
+     */
+    private <T> void notifyListeners(Class<T> type) {
+        Notifications typeNotifications;
+        synchronized (this) {
+            typeNotifications = this.notifications.get(type);
+            if (typeNotifications == null || typeNotifications.delivering) return;
+            typeNotifications.delivering = true;
+        }
+
+        // All listeners are notified, even if one of them fails
+        RuntimeException exception = null;
+        while (true) {
+            Change change;
+            synchronized (this) {
+                change = typeNotifications.pending.poll();
+                if (change == null) {
+                    typeNotifications.delivering = false;
+                    this.notifications.remove(type);
+                    break;
+                }
+            }
+
+            List<IHandlerListener<?>> typeListeners = this.listeners.get(type);
+            if (typeListeners == null) continue;
+
+            for (IHandlerListener<?> listener : typeListeners) {
+                try {
+                    //noinspection unchecked
+                    ((IHandlerListener<T>) listener).handlerChanged(type.cast(change.previous()),
+                            type.cast(change.instance()));
+                } catch (RuntimeException e) {
+                    if (exception == null) exception = e;
+                    else exception.addSuppressed(e);
+                }
+            }
+        }
+
+        if (exception != null) throw exception;
     }
 
     @Override
     @NotNull
     public <T> T getHandler(@NonNull Class<T> type) {
-        if (!handlers.containsKey(type)) throw new IllegalArgumentException("No handler with this type is registered");
+        Object handler = this.handlers.get(type);
+        if (handler == null) handler = this.initialize(type);
+        if (handler == null) throw new IllegalArgumentException("No handler with this type is registered");
 
         //noinspection unchecked
-        return (T) handlers.get(type);
+        return (T) handler;
     }
+
+    private Object initialize(Class<?> type) {
+        Runnable initializer = this.initializers.get(type);
+        if (initializer != null) {
+            initializer.run();
+
+            Object handler = this.handlers.get(type);
+            if (handler != null) return handler;
+        }
+
+        return this.activator != null && this.activator.test(type) ? this.handlers.get(type) : null;
+    }
+
+    /**
+     * Register an initializer, witch is run when a handler of the type is requested before it's registered<br>
+     * The initializer has to register the handler and must be safe to be run multiple times and from multiple threads
+     *
+     * @param type        The class of type of the handler
+     * @param initializer The initializer of the handler
+     */
+    public void registerInitializer(@NonNull Class<?> type, @NonNull Runnable initializer) {
+        this.initializers.put(type, initializer);
+    }
+
+    @Override
+    public <T> void addListener(@NonNull Class<T> type, @NonNull IHandlerListener<? super T> listener) {
+        this.listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public <T> void removeListener(@NonNull Class<T> type, @NonNull IHandlerListener<? super T> listener) {
+        this.listeners.computeIfPresent(type, (key, typeListeners) -> {
+            typeListeners.remove(listener);
+            return typeListeners.isEmpty() ? null : typeListeners;
+        });
+    }
+
+    /**
+     * @return All registered handlers by their type
+     */
+    @NotNull
+    public Map<Class<?>, Object> getHandlers() {
+        return this.handlers;
+    }
+
+    private record Change(Object previous, Object instance) {
+    }
+
+    private static final class Notifications {
+
+        private final Queue<Change> pending = new ArrayDeque<>();
+        private boolean delivering;
+
+    }
+
 }
@@ -14,36 +14,68 @@ import me.cnm.shared.utility.IUtilityHandler;
 import me.cnm.shared.utility.configuration.IConfigurationHandler;
 import me.cnm.shared.utility.format.IFormatHandler;
 
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
 public class Bootstrap {
 
+    private final HandlerLibrary library = new HandlerLibrary();
+    private final HandlerInitializer handlerInitializer = new HandlerInitializer(this.library);
+
     @Getter
-    private final IHandlerLibrary handlerLibrary = new HandlerLibrary();
+    private final IHandlerLibrary handlerLibrary = this.library;
 
     public void registerHandlers() {
         // Register utility handlers
-        IUtilityHandler utilityHandler = new UtilityHandler();
-        this.handlerLibrary.registerHandler(IUtilityHandler.class, utilityHandler);
-        this.handlerLibrary.registerHandler(IConfigurationHandler.class, utilityHandler.getConfigurationHandler());
-        this.handlerLibrary.registerHandler(IFormatHandler.class, utilityHandler.getFormatHandler());
+        this.handlerInitializer.register("utility", List.of(),
+                List.of(IUtilityHandler.class, IConfigurationHandler.class, IFormatHandler.class), () -> {
+                    IUtilityHandler utilityHandler = new UtilityHandler();
+                    this.handlerLibrary.registerHandler(IUtilityHandler.class, utilityHandler);
+                    this.handlerLibrary.registerHandler(IConfigurationHandler.class,
+                            utilityHandler.getConfigurationHandler());
+                    this.handlerLibrary.registerHandler(IFormatHandler.class, utilityHandler.getFormatHandler());
+                });
 
         // Register CLI handlers
-        ICLIHandler cliHandler = new CLIHandler(this.handlerLibrary);
-        this.handlerLibrary.registerHandler(ICLIHandler.class, cliHandler);
-        this.handlerLibrary.registerHandler(ICommandHandler.class, cliHandler.getCommandHandler());
-        this.handlerLibrary.registerHandler(ILogHandler.class, cliHandler.getLogHandler());
+        // The configuration is requested after the terminal is built, so both are built in parallel
+        this.handlerInitializer.register("cli", List.of(),
+                List.of(ICLIHandler.class, ICommandHandler.class, ILogHandler.class), () -> {
+                    ICLIHandler cliHandler = new CLIHandler(this.handlerLibrary);
+                    this.handlerLibrary.registerHandler(ICLIHandler.class, cliHandler);
+                    this.handlerLibrary.registerHandler(ICommandHandler.class, cliHandler.getCommandHandler());
+                    this.handlerLibrary.registerHandler(ILogHandler.class, cliHandler.getLogHandler());
+                });
 
         // Register module handler
-        this.handlerLibrary.registerHandler(IModuleHandler.class, new ModuleHandler(this.handlerLibrary));
+        this.handlerInitializer.register("modules", List.of("utility", "cli"), List.of(IModuleHandler.class),
+                () -> this.handlerLibrary.registerHandler(IModuleHandler.class,
+                        new ModuleHandler(this.handlerLibrary)));
     }
 
     public void start() {
+        long start = System.nanoTime();
+        this.handlerInitializer.initialize(ICLIHandler.class, IModuleHandler.class);
+        long time = System.nanoTime() - start;
+
         ((CLIHandler) this.handlerLibrary.getHandler(ICLIHandler.class)).start();
+
+        StringJoiner times = new StringJoiner(", ");
+        for (Map.Entry<String, Long> entry : this.handlerInitializer.getTimes().entrySet())
+            times.add(entry.getKey() + " " + TimeUnit.NANOSECONDS.toMillis(entry.getValue()) + " ms");
+        this.handlerLibrary.getHandler(ILogHandler.class).info("Initialized the handlers in " +
+                TimeUnit.NANOSECONDS.toMillis(time) + " ms (" + times + ")");
+
         ((ModuleHandler) this.handlerLibrary.getHandler(IModuleHandler.class)).start();
     }
 
     public void stop() {
-        ((ModuleHandler) this.handlerLibrary.getHandler(IModuleHandler.class)).stop();
-        ((CLIHandler) this.handlerLibrary.getHandler(ICLIHandler.class)).getConsoleHandler().stop();
+        // Handlers, witch were never initialized, don't need to be built just to be stopped
+        if (this.handlerInitializer.isInitialized("modules"))
+            ((ModuleHandler) this.handlerLibrary.getHandler(IModuleHandler.class)).stop();
+        if (this.handlerInitializer.isInitialized("cli"))
+            ((CLIHandler) this.handlerLibrary.getHandler(ICLIHandler.class)).getConsoleHandler().stop();
     }
 
 }
@@ -0,0 +1,184 @@
+package me.cnm.impl.shared.bootstrap;
+
+import lombok.NonNull;
+import me.cnm.impl.shared.HandlerLibrary;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the handlers of a {@link HandlerLibrary} lazily<br>
+ * Each initializer registers one or more handlers and declares the initializers it depends on. It's run once, either
+ * when one of its handlers is requested for the first time, or by {@link #initialize(Class[])}, witch runs independent
+ * initializers in parallel. Initializers of handlers nobody requests are never run
+ */
+public class HandlerInitializer {
+
+    private final HandlerLibrary handlerLibrary;
+
+    private final Map<String, Initializer> initializers = new LinkedHashMap<>();
+    private final Map<Class<?>, Initializer> types = new HashMap<>();
+
+    public HandlerInitializer(@NonNull HandlerLibrary handlerLibrary) {
+        this.handlerLibrary = handlerLibrary;
+    }
+
+    /**
+     * Register an initializer
+     *
+     * @param name         The name of the initializer
+     * @param dependencies The names of the initializers, witch have to be run before
+     * @param types        The types of the handlers, the initializer registers
+     * @param initializer  Builds and registers the handlers
+     */
+    public synchronized void register(@NonNull String name, @NonNull List<String> dependencies,
+                                      @NonNull List<Class<?>> types, @NonNull Runnable initializer) {
+        Initializer target = new Initializer(name, List.copyOf(dependencies), initializer);
+        this.initializers.put(name, target);
+
+        for (Class<?> type : types) {
+            this.types.put(type, target);
+            this.handlerLibrary.registerInitializer(type, target::initialize);
+        }
+    }
+
+    /**
+     * Run the initializers of the handlers and all their dependencies<br>
+     * Initializers are run in parallel as soon as all of their dependencies are done
+     *
+     * @param types The types of the handlers to initialize
+     * @throws RuntimeException If an initializer failed
+     */
+    public void initialize(@NonNull Class<?>... types) {
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "handler-initializer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<CompletableFuture<Void>> targets = new ArrayList<>();
+            synchronized (this) {
+                for (Class<?> type : types) {
+                    Initializer initializer = this.types.get(type);
+                    if (initializer == null)
+                        throw new IllegalArgumentException("No initializer for " + type.getName() + " is registered");
+
+                    targets.add(this.schedule(initializer, futures, new HashSet<>(), executorService));
+                }
+            }
+
+            CompletableFuture.allOf(targets.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException exception) throw exception;
+            if (e.getCause() instanceof Error error) throw error;
+            throw e;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private CompletableFuture<Void> schedule(Initializer initializer, Map<String, CompletableFuture<Void>> futures,
+                                             Set<String> path, Executor executor) {
+        CompletableFuture<Void> future = futures.get(initializer.name);
+        if (future != null) return future;
+
+        if (!path.add(initializer.name))
+            throw new IllegalStateException("The dependencies of the initializer " + initializer.name +
+                    " contain a cycle");
+
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String dependency : initializer.dependencies)
+            dependencies.add(this.schedule(this.getInitializer(dependency), futures, path, executor));
+        path.remove(initializer.name);
+
+        future = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                .thenRunAsync(initializer::initialize, executor);
+        futures.put(initializer.name, future);
+        return future;
+    }
+
+    private synchronized Initializer getInitializer(String name) {
+        Initializer initializer = this.initializers.get(name);
+        if (initializer == null) throw new IllegalArgumentException("The initializer " + name + " doesn't exist");
+        return initializer;
+    }
+
+    /**
+     * Check whether an initializer was run successfully
+     *
+     * @param name The name of the initializer
+     * @return Whether the handlers of the initializer are registered
+     */
+    public boolean isInitialized(@NonNull String name) {
+        Initializer initializer = this.getInitializer(name);
+        return initializer.task.isDone() && initializer.nanos >= 0;
+    }
+
+    /**
+     * Get the time each initializer took, in the order they were registered<br>
+     * The time includes waiting for handlers of other initializers, witch were requested while initializing
+     *
+     * @return The names of all run initializers with their time in nanoseconds
+     */
+    @NotNull
+    public synchronized Map<String, Long> getTimes() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (Initializer initializer : this.initializers.values())
+            if (initializer.nanos >= 0) times.put(initializer.name, initializer.nanos);
+
+        return times;
+    }
+
+    private final class Initializer {
+
+        private final String name;
+        private final List<String> dependencies;
+        private final FutureTask<Void> task;
+        private volatile long nanos = -1;
+
+        private Initializer(String name, List<String> dependencies, Runnable initializer) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.task = new FutureTask<>(() -> {
+                long start = System.nanoTime();
+                initializer.run();
+                this.nanos = System.nanoTime() - start;
+                return null;
+            });
+        }
+
+        private void initialize() {
+            if (this.task.isDone()) {
+                this.rethrow();
+                return;
+            }
+
+            for (String dependency : this.dependencies) getInitializer(dependency).initialize();
+
+            // The task is only run once, other threads wait for the thread running it
+            this.task.run();
+            this.rethrow();
+        }
+
+        private void rethrow() {
+            try {
+                this.task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the initializer " + this.name, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException exception) throw exception;
+                if (e.getCause() instanceof Error error) throw error;
+                throw new IllegalStateException("The initializer " + this.name + " failed", e.getCause());
+            }
+        }
+
+    }
+
+}
@@ -1,25 +1,35 @@
 package me.cnm.impl.shared.cli.command;
 
 import lombok.NonNull;
+import lombok.Setter;
 import me.cnm.impl.shared.cli.command.system.HelpCommand;
 import me.cnm.impl.shared.cli.command.system.ShutdownCommand;
 import me.cnm.shared.IHandlerLibrary;
 import me.cnm.shared.cli.command.Command;
 import me.cnm.shared.cli.command.CommandRegistrationException;
 import me.cnm.shared.cli.command.ICommandHandler;
-import me.cnm.shared.utility.helper.ArrayHelper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 public class CommandHandler implements ICommandHandler {
 
     private final IHandlerLibrary handlerLibrary;
 
-    private final List<Command> commands = new ArrayList<>();
+    private final List<Command> commands = new CopyOnWriteArrayList<>();
+
+    // Lower case name or alias -> command, so commands are found without scanning all of them
+    private final Map<String, Command> index = new ConcurrentHashMap<>();
+
+    /**
+     * Called with the name of an unknown command, returns whether something was activated, that might provide it
+     */
+    @Setter
+    private Predicate<String> activator;
 
     public CommandHandler(IHandlerLibrary handlerLibrary) {
         this.handlerLibrary = handlerLibrary;
@@ -30,45 +40,59 @@ public class CommandHandler implements ICommandHandler {
     }
 
     @Override
-    public void register(@NonNull Command command) {
-        for (Command target : commands) {
-            if (target.getName().equals(command.getName())
-                    || ArrayHelper.containsIgnoreCase(target.getAliases(), command.getName())
-                    || ArrayHelper.containsIgnoreCase(command.getAliases(), target.getName())
-                    || ArrayHelper.containsIgnoreCase(command.getAliases(), target.getAliases()))
+    public synchronized void register(@NonNull Command command) {
+        List<String> keys = this.getKeys(command);
+        for (String key : keys) {
+            if (this.index.containsKey(key))
                 throw new CommandRegistrationException("A command with the same name or alias is already registered");
         }
 
         command.setHandlerLibrary(this.handlerLibrary);
         this.commands.add(command);
+        for (String key : keys) this.index.put(key, command);
     }
 
     @Override
-    public void remove(@NonNull Command command) {
-        this.commands.remove(command);
+    public synchronized void remove(@NonNull Command command) {
+        if (!this.commands.remove(command)) return;
+        for (String key : this.getKeys(command)) this.index.remove(key, command);
     }
 
     @Override
-    public void remove(@NonNull String command) {
-        Command found = null;
+    public synchronized void remove(@NonNull String command) {
+        Command found = this.index.get(command.toLowerCase());
+        if (found != null && found.getName().equals(command)) this.remove(found);
+    }
 
-        for (Command target : commands) {
-            if (target.getName().equals(command)) found = target;
-        }
+    @Override
+    public synchronized void removeAll(@NonNull Collection<Command> commands) {
+        Set<Command> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        toRemove.addAll(commands);
 
-        if (found != null) this.commands.remove(found);
+        // The list is copied once for all commands, instead of once per command
+        if (!this.commands.removeIf(toRemove::contains)) return;
+        this.index.values().removeIf(toRemove::contains);
+    }
+
+    private List<String> getKeys(Command command) {
+        List<String> keys = new ArrayList<>();
+        keys.add(command.getName().toLowerCase());
+        for (String alias : command.getAliases()) keys.add(alias.toLowerCase());
+        return keys;
     }
 
     @Override
     @Nullable
     public Command get(@NonNull String commandOrAlias) {
-        for (Command command : this.commands) {
-            if (command.getName().equalsIgnoreCase(commandOrAlias) ||
-                    ArrayHelper.containsIgnoreCase(command.getAliases(), commandOrAlias))
-                return command;
-        }
+        Command command = this.find(commandOrAlias);
+        if (command == null && this.activator != null && this.activator.test(commandOrAlias))
+            command = this.find(commandOrAlias);
+
+        return command;
+    }
 
-        return null;
+    private Command find(String commandOrAlias) {
+        return this.index.get(commandOrAlias.toLowerCase());
     }
 
     @Override
@@ -0,0 +1,116 @@
+package me.cnm.impl.shared.module;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32C;
+
+/**
+ * Names and class file sizes of all classes and packages of a jar file, together with the size, modification time
+ * and hash of the jar they were read from
+ */
+@Getter
+public class JarIndex {
+
+    private final long size;
+    private final long lastModified;
+    private final long hash;
+
+    private final Map<String, Integer> classSizes;
+    private final Set<String> classes;
+    private final Set<String> packages;
+
+    public JarIndex(long size, long lastModified, long hash, @NonNull Map<String, Integer> classSizes) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+
+        this.classSizes = Collections.unmodifiableMap(classSizes);
+        this.classes = this.classSizes.keySet();
+
+        Set<String> packageNames = new LinkedHashSet<>();
+        for (String name : classes) {
+            int index = name.lastIndexOf('.');
+            packageNames.add(index == -1 ? "" : name.substring(0, index));
+        }
+        this.packages = Collections.unmodifiableSet(packageNames);
+    }
+
+    /**
+     * Read the index of a jar file by scanning all of its entries
+     *
+     * @param jarFile The jar file
+     * @return The index of the jar file
+     * @throws IOException If the jar file can't be read
+     */
+    @NotNull
+    public static JarIndex read(@NonNull File jarFile) throws IOException {
+        Map<String, Integer> classes = new LinkedHashMap<>();
+
+        try (JarFile jar = new JarFile(jarFile)) {
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!name.endsWith(".class") || name.endsWith("module-info.class")) continue;
+
+                classes.put(name.substring(0, name.length() - ".class".length()).replace('/', '.'),
+                        (int) Math.max(0, entry.getSize()));
+            }
+        }
+
+        return new JarIndex(jarFile.length(), jarFile.lastModified(), hash(jarFile), classes);
+    }
+
+    /**
+     * Calculate the hash of a file, which is used to detect changes if only the modification time changed
+     *
+     * @param file The file
+     * @return The hash of the file
+     * @throws IOException If the file can't be read
+     */
+    public static long hash(@NonNull File file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) crc.update(buffer, 0, read);
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Check whether the jar contains a class
+     *
+     * @param name The binary name of the class
+     * @return Whether the jar contains the class
+     */
+    public boolean containsClass(@NonNull String name) {
+        return this.classSizes.containsKey(name);
+    }
+
+    /**
+     * Get the size of the class file of a class
+     *
+     * @param name The binary name of the class
+     * @return The uncompressed size of the class file, or 0 if the jar doesn't contain the class
+     */
+    public int getClassSize(@NonNull String name) {
+        return this.classSizes.getOrDefault(name, 0);
+    }
+
+}
@@ -0,0 +1,256 @@
+package me.cnm.impl.shared.module;
+
+import lombok.NonNull;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.IModuleDescription;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary cache of the module descriptions and jar indices of all modules, stored in the working directory<br>
+ * An entry is only used, if the file it was created from still has the same size and modification time, so changed
+ * modules are read again automatically. Entries of files that weren't requested since the cache was read are dropped
+ * on save
+ */
+public class ModuleCache {
+
+    private static final int MAGIC = 0x434E4D43;
+    private static final int VERSION = 4;
+
+    private final ILogHandler logHandler;
+    private final File file;
+
+    // Only written by read, before the modules are loaded
+    private final Map<String, DescriptionEntry> cachedDescriptions = new HashMap<>();
+    private final Map<String, JarIndex> cachedJars = new HashMap<>();
+
+    private final Map<String, DescriptionEntry> descriptions = new ConcurrentHashMap<>();
+    private final Map<String, JarIndex> jars = new ConcurrentHashMap<>();
+
+    public ModuleCache(@NonNull ILogHandler logHandler, @NonNull File file) {
+        this.logHandler = logHandler;
+        this.file = file;
+    }
+
+    /**
+     * Read the cache file, if it exists<br>
+     * A cache file of an unknown version or a damaged cache file is ignored
+     */
+    public void read() {
+        if (!this.file.isFile()) return;
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(this.file)))) {
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) return;
+
+            int descriptionCount = inputStream.readInt();
+            for (int i = 0; i < descriptionCount; i++) {
+                String path = inputStream.readUTF();
+                this.cachedDescriptions.put(path, DescriptionEntry.read(inputStream));
+            }
+
+            int jarCount = inputStream.readInt();
+            for (int i = 0; i < jarCount; i++) {
+                String path = inputStream.readUTF();
+                long size = inputStream.readLong();
+                long lastModified = inputStream.readLong();
+                long hash = inputStream.readLong();
+
+                int classCount = inputStream.readInt();
+                Map<String, Integer> classes = new LinkedHashMap<>();
+                for (int j = 0; j < classCount; j++) classes.put(inputStream.readUTF(), inputStream.readInt());
+
+                this.cachedJars.put(path, new JarIndex(size, lastModified, hash, classes));
+            }
+        } catch (IOException e) {
+            this.cachedDescriptions.clear();
+            this.cachedJars.clear();
+            this.logHandler.warn("The module cache couldn't be read and will be recreated.");
+        }
+    }
+
+    /**
+     * Write all entries, which were requested since the cache was read, to the cache file
+     */
+    public void save() {
+        File temporary = new File(this.file.getAbsoluteFile().getParentFile(), this.file.getName() + ".tmp");
+
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporary)))) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+
+            outputStream.writeInt(this.descriptions.size());
+            for (Map.Entry<String, DescriptionEntry> entry : this.descriptions.entrySet()) {
+                outputStream.writeUTF(entry.getKey());
+                entry.getValue().write(outputStream);
+            }
+
+            outputStream.writeInt(this.jars.size());
+            for (Map.Entry<String, JarIndex> entry : this.jars.entrySet()) {
+                JarIndex jarIndex = entry.getValue();
+                outputStream.writeUTF(entry.getKey());
+                outputStream.writeLong(jarIndex.getSize());
+                outputStream.writeLong(jarIndex.getLastModified());
+                outputStream.writeLong(jarIndex.getHash());
+
+                outputStream.writeInt(jarIndex.getClassSizes().size());
+                for (Map.Entry<String, Integer> classEntry : jarIndex.getClassSizes().entrySet()) {
+                    outputStream.writeUTF(classEntry.getKey());
+                    outputStream.writeInt(classEntry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            this.logHandler.error("An error occurred while trying to write the module cache", e);
+            return;
+        }
+
+        try {
+            Files.move(temporary.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.logHandler.error("An error occurred while trying to write the module cache", e);
+        }
+    }
+
+    /**
+     * Get the description of a module.json<br>
+     * If the module.json didn't change since it was cached, it isn't read again
+     *
+     * @param moduleJson The module.json
+     * @return The description of the module
+     */
+    @NotNull
+    public IModuleDescription getDescription(@NonNull File moduleJson) {
+        String path = moduleJson.getAbsolutePath();
+        long size = moduleJson.length();
+        long lastModified = moduleJson.lastModified();
+
+        DescriptionEntry entry = this.cachedDescriptions.get(path);
+        if (entry != null && entry.size() == size && entry.lastModified() == lastModified) {
+            this.descriptions.put(path, entry);
+            return entry.toDescription();
+        }
+
+        ModuleDescription description = new ModuleDescription(moduleJson);
+        this.descriptions.put(path, new DescriptionEntry(size, lastModified, description.getName(),
+                description.getVersion(), description.getLanguage(), description.getDescription(),
+                description.getDependencies(), description.getSoftDependencies(), description.getAuthors(),
+                description.getLibraries(), description.getCommandTriggers(), description.getHandlerTriggers(),
+                description.getAdditional().toJson(),
+                description.asJsonDocument().toJson()));
+        return description;
+    }
+
+    /**
+     * Get the index of a jar file<br>
+     * If the size and modification time of the jar didn't change since it was cached, the jar isn't opened. If only
+     * the modification time changed, the hash of the jar decides whether it has to be scanned again
+     *
+     * @param jarFile The jar file
+     * @return The index of the jar file
+     * @throws IOException If the jar file can't be read
+     */
+    @NotNull
+    public JarIndex getJarIndex(@NonNull File jarFile) throws IOException {
+        String path = jarFile.getAbsolutePath();
+        long size = jarFile.length();
+        long lastModified = jarFile.lastModified();
+
+        JarIndex jarIndex = this.cachedJars.get(path);
+        if (jarIndex != null && jarIndex.getSize() != size) jarIndex = null;
+
+        if (jarIndex != null && jarIndex.getLastModified() != lastModified) {
+            long hash = JarIndex.hash(jarFile);
+            jarIndex = jarIndex.getHash() == hash ?
+                    new JarIndex(size, lastModified, hash, jarIndex.getClassSizes()) : null;
+        }
+
+        if (jarIndex == null) jarIndex = JarIndex.read(jarFile);
+
+        this.jars.put(path, jarIndex);
+        return jarIndex;
+    }
+
+    private static void writeStrings(DataOutputStream outputStream, Collection<String> strings) throws IOException {
+        outputStream.writeInt(strings.size());
+        for (String string : strings) outputStream.writeUTF(string);
+    }
+
+    private static <T extends Collection<String>> T readStrings(DataInputStream inputStream, T strings)
+            throws IOException {
+        int size = inputStream.readInt();
+        for (int i = 0; i < size; i++) strings.add(inputStream.readUTF());
+        return strings;
+    }
+
+    private record DescriptionEntry(long size, long lastModified, String name, String version, String language,
+                                    String description, List<String> dependencies, List<String> softDependencies,
+                                    List<String> authors, List<String> libraries, List<String> commandTriggers,
+                                    List<String> handlerTriggers, String additional, String json) {
+
+        private static DescriptionEntry read(DataInputStream inputStream) throws IOException {
+            long size = inputStream.readLong();
+            long lastModified = inputStream.readLong();
+            String name = inputStream.readUTF();
+            String version = inputStream.readUTF();
+            String language = inputStream.readUTF();
+            String description = inputStream.readBoolean() ? inputStream.readUTF() : null;
+            List<String> dependencies = readStrings(inputStream, new ArrayList<>());
+            List<String> softDependencies = readStrings(inputStream, new ArrayList<>());
+            List<String> authors = readStrings(inputStream, new ArrayList<>());
+            List<String> libraries = readStrings(inputStream, new ArrayList<>());
+            List<String> commandTriggers = readStrings(inputStream, new ArrayList<>());
+            List<String> handlerTriggers = readStrings(inputStream, new ArrayList<>());
+
+            return new DescriptionEntry(size, lastModified, name, version, language, description, dependencies,
+                    softDependencies, authors, libraries, commandTriggers, handlerTriggers,
+                    readLongString(inputStream), readLongString(inputStream));
+        }
+
+        private void write(DataOutputStream outputStream) throws IOException {
+            outputStream.writeLong(this.size);
+            outputStream.writeLong(this.lastModified);
+            outputStream.writeUTF(this.name);
+            outputStream.writeUTF(this.version);
+            outputStream.writeUTF(this.language);
+            outputStream.writeBoolean(this.description != null);
+            if (this.description != null) outputStream.writeUTF(this.description);
+            writeStrings(outputStream, this.dependencies);
+            writeStrings(outputStream, this.softDependencies);
+            writeStrings(outputStream, this.authors);
+            writeStrings(outputStream, this.libraries);
+            writeStrings(outputStream, this.commandTriggers);
+            writeStrings(outputStream, this.handlerTriggers);
+            writeLongString(outputStream, this.additional);
+            writeLongString(outputStream, this.json);
+        }
+
+        private IModuleDescription toDescription() {
+            return new ModuleDescription(this.name, this.version, this.language, this.description, this.dependencies,
+                    this.softDependencies, this.authors, this.libraries, this.commandTriggers, this.handlerTriggers,
+                    this.additional, this.json);
+        }
+
+        // writeUTF is limited to 65535 bytes, which a module.json can exceed
+        private static void writeLongString(DataOutputStream outputStream, String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(bytes.length);
+            outputStream.write(bytes);
+        }
+
+        private static String readLongString(DataInputStream inputStream) throws IOException {
+            byte[] bytes = new byte[inputStream.readInt()];
+            inputStream.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
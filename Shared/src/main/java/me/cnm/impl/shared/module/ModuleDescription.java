@@ -3,6 +3,7 @@ package me.cnm.impl.shared.module;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
+import lombok.AccessLevel;
 import lombok.Getter;
 import me.cnm.shared.module.IModuleDescription;
 import me.cnm.shared.module.exception.IllegalModuleDescriptionException;
@@ -10,6 +11,7 @@ import me.cnm.shared.utility.json.JsonDocument;
 import me.cnm.shared.utility.scope.Scopes;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -18,7 +20,10 @@ import java.util.List;
 @Getter
 public class ModuleDescription implements IModuleDescription {
 
-    private final JsonDocument jsonDocument;
+    @Getter(AccessLevel.NONE)
+    private final String json;
+    @Getter(AccessLevel.NONE)
+    private volatile JsonDocument jsonDocument;
 
     private final String name;
     private final String version;
@@ -28,13 +33,31 @@ public class ModuleDescription implements IModuleDescription {
     private final List<String> dependencies;
     private final List<String> softDependencies;
     private final List<String> authors;
+    private final List<String> libraries;
 
-    private final JsonDocument additional;
+    private final List<String> commandTriggers;
+    private final List<String> handlerTriggers;
+
+    @Getter(AccessLevel.NONE)
+    private final String additionalJson;
+    @Getter(AccessLevel.NONE)
+    private volatile JsonDocument additional;
 
     public ModuleDescription(File moduleJson) {
-        this.jsonDocument = Scopes.throwRuntime(() -> new JsonDocument(moduleJson));
+        this(Scopes.throwRuntime(() -> new JsonDocument(moduleJson)), moduleJson.getAbsolutePath());
+    }
 
-        this.name = this.getString("name", true, moduleJson.getAbsolutePath());
+    /**
+     * Create a module description from an already parsed module.json, for example from a module bundle
+     *
+     * @param jsonDocument The module.json
+     * @param source       The location of the module.json, used in errors before the name of the module is known
+     */
+    public ModuleDescription(@NotNull JsonDocument jsonDocument, @NotNull String source) {
+        this.jsonDocument = jsonDocument;
+        this.json = null;
+
+        this.name = this.getString("name", true, source);
         this.version = this.getString("version", true, this.name);
         this.language = this.getString("language", true, this.name);
         this.description = this.getString("description", false, this.name);
@@ -42,13 +65,89 @@ public class ModuleDescription implements IModuleDescription {
         this.dependencies = this.getArray("dependencies", this.name);
         this.softDependencies = this.getArray("softDependencies", this.name);
         this.authors = this.getArray("authors", this.name);
+        this.libraries = this.getArray("libraries", this.name);
+
+        JsonDocument triggers = this.jsonDocument.getDocument("triggers", new JsonDocument());
+        this.commandTriggers = this.getArray(triggers, "commands", this.name);
+        this.handlerTriggers = this.getArray(triggers, "handlers", this.name);
 
         this.additional = this.jsonDocument.getDocument("additional", new JsonDocument());
+        this.additionalJson = null;
+    }
+
+    /**
+     * Create a module description from already validated values, for example from the {@link ModuleCache}<br>
+     * The module.json and the additional entry are only parsed, when they are requested
+     *
+     * @param name             The name of the module
+     * @param version          The version of the module
+     * @param language         The language of the module
+     * @param description      The description of the module
+     * @param dependencies     The dependencies of the module
+     * @param softDependencies The soft dependencies of the module
+     * @param authors          The authors of the module
+     * @param libraries        The libraries of the module
+     * @param commandTriggers  The command triggers of the module
+     * @param handlerTriggers  The handler triggers of the module
+     * @param additional       The additional entry as json
+     * @param json             The whole module.json as json
+     */
+    public ModuleDescription(@NotNull String name, @NotNull String version, @NotNull String language,
+                             @Nullable String description, @NotNull List<String> dependencies,
+                             @NotNull List<String> softDependencies, @NotNull List<String> authors,
+                             @NotNull List<String> libraries, @NotNull List<String> commandTriggers,
+                             @NotNull List<String> handlerTriggers, @NotNull String additional,
+                             @NotNull String json) {
+        this.name = name;
+        this.version = version;
+        this.language = language;
+        this.description = description;
+
+        this.dependencies = new ArrayList<>(dependencies);
+        this.softDependencies = new ArrayList<>(softDependencies);
+        this.authors = new ArrayList<>(authors);
+        this.libraries = new ArrayList<>(libraries);
+
+        this.commandTriggers = new ArrayList<>(commandTriggers);
+        this.handlerTriggers = new ArrayList<>(handlerTriggers);
+
+        this.additionalJson = additional;
+        this.json = json;
     }
 
     @Override
     public @NotNull JsonDocument asJsonDocument() {
-        return this.jsonDocument;
+        JsonDocument document = this.jsonDocument;
+        if (document == null) {
+            synchronized (this) {
+                if (this.jsonDocument == null) this.jsonDocument = new JsonDocument(this.json);
+                document = this.jsonDocument;
+            }
+        }
+
+        return document;
+    }
+
+    /**
+     * @return The whole module.json as {@code JsonDocument}
+     * @see #asJsonDocument()
+     */
+    @NotNull
+    public JsonDocument getJsonDocument() {
+        return this.asJsonDocument();
+    }
+
+    @Override
+    public @NotNull JsonDocument getAdditional() {
+        JsonDocument document = this.additional;
+        if (document == null) {
+            synchronized (this) {
+                if (this.additional == null) this.additional = new JsonDocument(this.additionalJson);
+                document = this.additional;
+            }
+        }
+
+        return document;
     }
 
     @Contract("_, true, _ -> !null")
@@ -71,7 +170,11 @@ public class ModuleDescription implements IModuleDescription {
     }
 
     private List<String> getArray(String name, String moduleName) {
-        JsonElement jsonElement = this.jsonDocument.get(name);
+        return this.getArray(this.jsonDocument, name, moduleName);
+    }
+
+    private List<String> getArray(JsonDocument document, String name, String moduleName) {
+        JsonElement jsonElement = document.get(name);
         if (jsonElement == null) return new ArrayList<>();
 
         if (!jsonElement.isJsonArray())
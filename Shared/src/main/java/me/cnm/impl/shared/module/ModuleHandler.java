@@ -1,49 +1,94 @@
 package me.cnm.impl.shared.module;
 
 import lombok.NonNull;
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.bundle.BundledModule;
+import me.cnm.impl.shared.module.bundle.ModuleBundle;
+import me.cnm.impl.shared.module.command.ModulesCommand;
 import me.cnm.impl.shared.module.java.JavaInterpreter;
 import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleActivator;
 import me.cnm.impl.shared.module.loading.ModuleInterpeterHandler;
 import me.cnm.impl.shared.module.loading.ModuleLoader;
+import me.cnm.impl.shared.module.loading.ModuleLoaderConfiguration;
+import me.cnm.impl.shared.module.profile.ModulePhase;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.impl.shared.module.resource.ModuleResourceAccountant;
 import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.cli.command.ICommandHandler;
 import me.cnm.shared.cli.log.ILogHandler;
 import me.cnm.shared.module.IModuleDescription;
 import me.cnm.shared.module.IModuleHandler;
+import me.cnm.shared.module.ModuleResourceUsage;
 import me.cnm.shared.module.exception.ModuleDependencyException;
 import me.cnm.shared.module.exception.ModuleDescriptionNotFoundException;
 import me.cnm.shared.module.exception.ModuleInterpreterException;
 import me.cnm.shared.module.loading.IModule;
 import me.cnm.shared.module.loading.IModuleInterpreter;
+import me.cnm.shared.utility.configuration.IConfigurationHandler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHandler {
 
-    private final Map<String, IModule> modules = new HashMap<>();
+    private final Map<String, IModule> modules = new ConcurrentHashMap<>();
 
     private final ModuleLoader moduleLoader;
+    private final ModuleCache moduleCache;
+    private final ModuleProfiler moduleProfiler = new ModuleProfiler();
+    private final ModuleResourceAccountant resourceAccountant;
 
     private final IHandlerLibrary handlerLibrary;
 
     public ModuleHandler(IHandlerLibrary handlerLibrary) {
         this.handlerLibrary = handlerLibrary;
+        this.moduleCache = new ModuleCache(this.handlerLibrary.getHandler(ILogHandler.class), new File("modules.cache"));
 
-        this.registerInterpreter("java", new JavaInterpreter(this.handlerLibrary));
+        ModuleLoaderConfiguration configuration = new ModuleLoaderConfiguration(
+                this.handlerLibrary.getHandler(IConfigurationHandler.class));
 
-        this.moduleLoader = new ModuleLoader(this.handlerLibrary.getHandler(ILogHandler.class), this);
+        this.registerInterpreter("java", new JavaInterpreter(this.handlerLibrary, this.moduleCache, this.moduleProfiler,
+                configuration));
+
+        this.moduleLoader = new ModuleLoader(this.handlerLibrary.getHandler(ILogHandler.class), this, configuration);
+        this.resourceAccountant = new ModuleResourceAccountant(this.handlerLibrary.getHandler(ILogHandler.class), this,
+                configuration.getResourceInterval());
+
+        ModuleActivator moduleActivator = this.moduleLoader.getModuleActivator();
+        if (this.handlerLibrary instanceof HandlerLibrary library) library.setActivator(moduleActivator::activateHandler);
+
+        ICommandHandler commandHandler = this.handlerLibrary.getHandler(ICommandHandler.class);
+        if (commandHandler instanceof CommandHandler handler) handler.setActivator(moduleActivator::activateCommand);
+        commandHandler.register(new ModulesCommand(this));
     }
 
     public void start() {
+        this.moduleCache.read();
         this.moduleLoader.load();
+        this.moduleCache.save();
+
+        try {
+            this.moduleProfiler.write(new File("modules-profile.json"));
+        } catch (IOException e) {
+            this.handlerLibrary.getHandler(ILogHandler.class).error("An error occurred while trying to write the " +
+                    "module profile", e);
+        }
+
+        this.resourceAccountant.start();
     }
 
     public void stop() {
+        this.resourceAccountant.stop();
+        if (this.getInterpreter("java") instanceof JavaInterpreter javaInterpreter) javaInterpreter.disableSnapshots();
         this.moduleLoader.stop();
     }
 
@@ -61,10 +106,50 @@ public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHan
         File moduleJson = new File(file, "module.json");
         if (!moduleJson.exists()) throw new ModuleDescriptionNotFoundException(moduleJson.getAbsolutePath());
 
-        IModuleDescription moduleDescription = new ModuleDescription(moduleJson);
+        IModuleDescription moduleDescription;
+        try (ModuleProfiler.Timer timer = this.moduleProfiler.measure(ModulePhase.DESCRIPTION)) {
+            moduleDescription = this.moduleCache.getDescription(moduleJson);
+            timer.setProfile(this.moduleProfiler.begin(moduleDescription.getName()));
+        }
+
         return new Module(moduleDescription, file);
     }
 
+    /**
+     * Read all modules of a bundle<br>
+     * The data folder of a bundled module is the folder with its name next to the bundle
+     *
+     * @param file The bundle file
+     * @return The modules of the bundle
+     * @throws IOException If the bundle can't be read
+     */
+    public List<IModule> createModules(File file) throws IOException {
+        ModuleBundle bundle = ModuleBundle.open(file);
+
+        List<IModule> bundledModules = new ArrayList<>();
+        for (BundledModule bundledModule : bundle.getModules().values())
+            bundledModules.add(this.createModule(bundledModule));
+
+        return bundledModules;
+    }
+
+    public IModule createModule(BundledModule bundledModule) {
+        File bundleFile = bundledModule.getBundle().getFile();
+
+        IModuleDescription moduleDescription;
+        try (ModuleProfiler.Timer timer = this.moduleProfiler.measure(ModulePhase.DESCRIPTION)) {
+            moduleDescription = new ModuleDescription(bundledModule.getModuleJson(),
+                    bundleFile.getAbsolutePath() + "!/" + bundledModule.getName());
+            timer.setProfile(this.moduleProfiler.begin(moduleDescription.getName()));
+        }
+
+        File dataFolder = new File(bundleFile.getAbsoluteFile().getParentFile(), moduleDescription.getName());
+        //noinspection ResultOfMethodCallIgnored
+        dataFolder.mkdirs();
+
+        return new Module(moduleDescription, dataFolder, bundledModule);
+    }
+
     public void loadWithInterpreter(IModule module) throws ModuleInterpreterException {
         IModuleDescription description = module.getModuleDescription();
         String name = description.getName();
@@ -90,7 +175,12 @@ public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHan
                     ModuleDependencyException.Type.LOADED);
 
         this.modules.put(description.getName(), module);
-        interpreter.loadModule(module);
+        try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(name, ModulePhase.LOAD)) {
+            interpreter.loadModule(module);
+        } catch (ModuleInterpreterException | RuntimeException e) {
+            this.modules.remove(description.getName());
+            throw e;
+        }
     }
 
     @Override
@@ -98,13 +188,15 @@ public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHan
         String name = module.getModuleDescription().getName();
 
         for (String dependency : module.getModuleDescription().getDependencies()) {
-            if (!Objects.requireNonNull(this.get(dependency)).isRunning())
+            IModule dependencyModule = this.get(dependency);
+            if (dependencyModule == null || !dependencyModule.isRunning())
                 throw new ModuleDependencyException(name, dependency, false, ModuleDependencyException.Type.STARTED);
 
         }
 
         for (String dependency : module.getModuleDescription().getSoftDependencies()) {
-            if (!Objects.requireNonNull(this.get(dependency)).isRunning()) {
+            IModule dependencyModule = this.get(dependency);
+            if (dependencyModule == null || !dependencyModule.isRunning()) {
                 try {
                     throw new ModuleDependencyException(name, dependency, true, ModuleDependencyException.Type.STARTED);
                 } catch (ModuleDependencyException e) {
@@ -136,6 +228,18 @@ public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHan
             }
         }
 
+        this.stopWithInterpreter(module);
+    }
+
+    /**
+     * Stop a module without checking its dependents<br>
+     * Used when the modules are stopped in reverse dependency order, where a dependent, witch failed to stop, must
+     * not keep its dependencies from stopping
+     *
+     * @param module The module to stop
+     * @throws ModuleInterpreterException If the interpreter fails to stop the module
+     */
+    public void stopWithInterpreter(@NonNull IModule module) throws ModuleInterpreterException {
         IModuleInterpreter interpreter = this.getInterpreter(module.getModuleDescription().getLanguage());
         Objects.requireNonNull(interpreter).stopModule(module);
     }
@@ -160,7 +264,56 @@ public class ModuleHandler extends ModuleInterpeterHandler implements IModuleHan
         }
 
         IModuleInterpreter interpreter = this.getInterpreter(module.getModuleDescription().getLanguage());
-        Objects.requireNonNull(interpreter).unloadModule(module);
+        try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(name, ModulePhase.UNLOAD)) {
+            Objects.requireNonNull(interpreter).unloadModule(module);
+        }
+        this.modules.remove(name);
+    }
+
+    /**
+     * @return The cache of the module descriptions and jar indices
+     */
+    @NotNull
+    public ModuleCache getModuleCache() {
+        return this.moduleCache;
+    }
+
+    /**
+     * @return The profiler, witch measures the lifecycle phases of the modules
+     */
+    @NotNull
+    public ModuleProfiler getModuleProfiler() {
+        return this.moduleProfiler;
+    }
+
+    @Override
+    @Nullable
+    public ModuleResourceUsage getResourceUsage(@NonNull String name) {
+        return this.resourceAccountant.getUsage(name);
+    }
+
+    @Override
+    @NotNull
+    public List<ModuleResourceUsage> getResourceUsages() {
+        return this.resourceAccountant.getUsages();
+    }
+
+    /**
+     * @return All modules, witch aren't loaded until one of their triggers is used
+     */
+    @NotNull
+    public List<IModule> getDeferred() {
+        return this.moduleLoader.getModuleActivator().getDeferred();
+    }
+
+    /**
+     * Load and start all deferred modules without waiting for their triggers
+     *
+     * @param reason The reason of the activation, used for logging
+     * @return The number of activated modules
+     */
+    public int activateDeferred(@NonNull String reason) {
+        return this.moduleLoader.getModuleActivator().activateAll(reason);
     }
 
     @Override
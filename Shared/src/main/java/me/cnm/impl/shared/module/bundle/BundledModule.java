@@ -0,0 +1,94 @@
+package me.cnm.impl.shared.module.bundle;
+
+import lombok.Getter;
+import lombok.NonNull;
+import me.cnm.impl.shared.module.JarIndex;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A module inside of a {@link ModuleBundle}, witch serves the entries of its jar from the mapped bundle
+ */
+public class BundledModule {
+
+    @Getter
+    private final ModuleBundle bundle;
+    @Getter
+    private final String name;
+    private final String moduleJson;
+    private final Map<String, Entry> entries;
+
+    private volatile JarIndex jarIndex;
+
+    BundledModule(ModuleBundle bundle, String name, String moduleJson, Map<String, Entry> entries) {
+        this.bundle = bundle;
+        this.name = name;
+        this.moduleJson = moduleJson;
+        this.entries = entries;
+    }
+
+    /**
+     * @return A new copy of the module.json of the module
+     */
+    @NotNull
+    public JsonDocument getModuleJson() {
+        return new JsonDocument(this.moduleJson);
+    }
+
+    /**
+     * Get the content of an entry of the jar of the module
+     *
+     * @param path The path of the entry, for example me/cnm/Main.class
+     * @return A read only view of the entry in the mapped bundle, or null if the module doesn't contain the entry
+     */
+    @Nullable
+    public ByteBuffer getEntry(@NonNull String path) {
+        Entry entry = this.entries.get(path);
+        return entry == null ? null : this.bundle.slice(entry);
+    }
+
+    /**
+     * Get the url of an entry of the jar of the module, witch reads the entry from the mapped bundle
+     *
+     * @param path The path of the entry
+     * @return The url, or null if the module doesn't contain the entry
+     */
+    @Nullable
+    public URL getResource(@NonNull String path) {
+        return this.entries.containsKey(path) ? this.bundle.createURL(this.name, path) : null;
+    }
+
+    /**
+     * @return The index of the classes of the module, built from the index of the bundle without reading any class
+     */
+    @NotNull
+    public JarIndex getJarIndex() {
+        JarIndex index = this.jarIndex;
+        if (index == null) {
+            Map<String, Integer> classes = new LinkedHashMap<>();
+            for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+                String path = entry.getKey();
+                if (!path.endsWith(".class") || path.endsWith("module-info.class")) continue;
+
+                classes.put(path.substring(0, path.length() - ".class".length()).replace('/', '.'),
+                        entry.getValue().length());
+            }
+
+            // The mapped file identifies the index, not the file currently at the path
+            index = new JarIndex(this.bundle.getSize(), this.bundle.getLastModified(), 0, classes);
+            this.jarIndex = index;
+        }
+
+        return index;
+    }
+
+    record Entry(int offset, int length) {
+    }
+
+}
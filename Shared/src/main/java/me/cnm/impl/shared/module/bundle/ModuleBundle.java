@@ -0,0 +1,336 @@
+package me.cnm.impl.shared.module.bundle;
+
+import lombok.Getter;
+import lombok.NonNull;
+import me.cnm.impl.shared.module.ModuleDescription;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A single file containing multiple modules, witch can be deployed instead of one folder per module<br>
+ * The file starts with an index of the module.json and the entries of the jar of every module, followed by the
+ * uncompressed content of all entries. The whole file is mapped into memory, so classes and resources are served
+ * directly from the mapping instead of opening a jar per module<br>
+ * Layout: magic, version, length of the index, index, data. The offsets of the entries are relative to the data<br>
+ * A bundle must be replaced (written to another file and moved), not overwritten in place, while it's mapped
+ */
+public class ModuleBundle {
+
+    public static final String EXTENSION = ".bundle";
+
+    private static final int MAGIC = 0x434E4D42;
+    private static final int VERSION = 1;
+    private static final String PROTOCOL = "cnm-bundle";
+
+    @Getter
+    private final File file;
+    @Getter
+    private final Map<String, BundledModule> modules;
+
+    // Size and modification time of the mapped file, the file on disk might already be replaced
+    @Getter
+    private final long size;
+    @Getter
+    private final long lastModified;
+
+    private final ByteBuffer data;
+    private final URLStreamHandler urlHandler = new BundleURLStreamHandler();
+
+    private ModuleBundle(File file, long size, long lastModified, ByteBuffer data, DataInputStream index)
+            throws IOException {
+        this.file = file;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.data = data;
+
+        int count = index.readInt();
+        Map<String, BundledModule> bundledModules = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = index.readUTF();
+            int jsonLength = index.readInt();
+            if (jsonLength < 0 || jsonLength > index.available())
+                throw new IOException("The module.json of " + name + " in " + file + " is out of bounds.");
+            byte[] moduleJson = new byte[jsonLength];
+            index.readFully(moduleJson);
+
+            int entryCount = index.readInt();
+            Map<String, BundledModule.Entry> entries = new LinkedHashMap<>();
+            for (int j = 0; j < entryCount; j++) {
+                String path = index.readUTF();
+                long offset = index.readLong();
+                int length = index.readInt();
+
+                if (offset < 0 || length < 0 || offset + length > data.capacity())
+                    throw new IOException("The entry " + path + " of " + name + " in " + file + " is out of bounds.");
+                entries.put(path, new BundledModule.Entry((int) offset, length));
+            }
+
+            bundledModules.put(name, new BundledModule(this, name, new String(moduleJson, StandardCharsets.UTF_8),
+                    entries));
+        }
+        this.modules = Collections.unmodifiableMap(bundledModules);
+    }
+
+    /**
+     * Map a bundle into memory and read its index
+     *
+     * @param file The bundle file
+     * @return The bundle
+     * @throws IOException If the file can't be read or isn't a valid bundle
+     */
+    @NotNull
+    public static ModuleBundle open(@NonNull File file) throws IOException {
+        ByteBuffer buffer;
+        long size;
+        long lastModified;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException(file + " is too large for a bundle.");
+
+            lastModified = Files.getLastModifiedTime(file.toPath()).toMillis();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC)
+            throw new IOException(file + " is not a module bundle.");
+
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException(file + " has the unsupported bundle version " + version + ".");
+
+        int indexLength = buffer.getInt();
+        if (indexLength < 0 || indexLength > buffer.remaining())
+            throw new IOException(file + " has a corrupted index.");
+
+        ByteBuffer index = buffer.slice(buffer.position(), indexLength);
+        ByteBuffer data = buffer.slice(buffer.position() + indexLength,
+                buffer.remaining() - indexLength).asReadOnlyBuffer();
+
+        try {
+            return new ModuleBundle(file, size, lastModified, data,
+                    new DataInputStream(new ByteBufferInputStream(index)));
+        } catch (EOFException e) {
+            throw new IOException(file + " has a corrupted index.", e);
+        }
+    }
+
+    /**
+     * Check whether a file is a bundle by its name
+     *
+     * @param file The file
+     * @return Whether the file is a bundle
+     */
+    public static boolean isBundle(@NonNull File file) {
+        return file.getName().endsWith(EXTENSION) && file.isFile();
+    }
+
+    /**
+     * Pack module folders into a bundle<br>
+     * The bundle contains the module.json and all entries of the jar (additional->location) of each module. It's
+     * written to a temporary file first and then moved to the target, so a mapped bundle is never changed in place
+     *
+     * @param target  The bundle file
+     * @param folders The folders of the modules
+     * @throws IOException If a module can't be read or the bundle can't be written
+     */
+    public static void write(@NonNull File target, @NonNull Collection<File> folders) throws IOException {
+        Map<String, ModuleDescription> descriptions = new LinkedHashMap<>();
+        Map<String, JarFile> jars = new LinkedHashMap<>();
+
+        try {
+            for (File folder : folders) {
+                ModuleDescription description = new ModuleDescription(new File(folder, "module.json"));
+                if (descriptions.putIfAbsent(description.getName(), description) != null)
+                    throw new IllegalArgumentException("The module " + description.getName() + " is contained twice.");
+
+                File jarFile = new File(folder, description.getAdditional().getString("location", "java.jar"));
+                if (!jarFile.isFile()) throw new FileNotFoundException(jarFile.getAbsolutePath());
+                jars.put(description.getName(), new JarFile(jarFile));
+            }
+
+            // The sizes of the entries are known from the central directory, so the index is written before the data
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream indexOutput = new DataOutputStream(index);
+            indexOutput.writeInt(descriptions.size());
+
+            long offset = 0;
+            Map<String, List<JarEntry>> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, ModuleDescription> entry : descriptions.entrySet()) {
+                byte[] moduleJson = entry.getValue().asJsonDocument().toJson().getBytes(StandardCharsets.UTF_8);
+                indexOutput.writeUTF(entry.getKey());
+                indexOutput.writeInt(moduleJson.length);
+                indexOutput.write(moduleJson);
+
+                List<JarEntry> jarEntries = new ArrayList<>();
+                for (Enumeration<JarEntry> enumeration = jars.get(entry.getKey()).entries();
+                     enumeration.hasMoreElements(); ) {
+                    JarEntry jarEntry = enumeration.nextElement();
+                    if (jarEntry.isDirectory()) continue;
+                    if (jarEntry.getSize() < 0)
+                        throw new IOException("The size of " + jarEntry.getName() + " of " + entry.getKey() +
+                                " is unknown.");
+                    jarEntries.add(jarEntry);
+                }
+                entries.put(entry.getKey(), jarEntries);
+
+                indexOutput.writeInt(jarEntries.size());
+                for (JarEntry jarEntry : jarEntries) {
+                    indexOutput.writeUTF(jarEntry.getName());
+                    indexOutput.writeLong(offset);
+                    indexOutput.writeInt((int) jarEntry.getSize());
+                    offset += jarEntry.getSize();
+                }
+            }
+
+            if (12L + index.size() + offset > Integer.MAX_VALUE)
+                throw new IOException("The modules are too large for a bundle.");
+
+            File temporary = new File(target.getAbsoluteFile().getParentFile(), target.getName() + ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(index.size());
+                index.writeTo(output);
+
+                for (Map.Entry<String, List<JarEntry>> entry : entries.entrySet()) {
+                    JarFile jar = jars.get(entry.getKey());
+                    for (JarEntry jarEntry : entry.getValue()) {
+                        try (InputStream inputStream = jar.getInputStream(jarEntry)) {
+                            if (inputStream.transferTo(output) != jarEntry.getSize())
+                                throw new IOException("The size of " + jarEntry.getName() + " of " + entry.getKey() +
+                                        " doesn't match its entry.");
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary.toPath());
+                throw e;
+            }
+
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (JarFile jar : jars.values()) jar.close();
+        }
+    }
+
+    /**
+     * Get a module of the bundle
+     *
+     * @param name The name of the module
+     * @return The module, or null if the bundle doesn't contain it
+     */
+    @Nullable
+    public BundledModule getModule(@NonNull String name) {
+        return this.modules.get(name);
+    }
+
+    ByteBuffer slice(BundledModule.Entry entry) {
+        return this.data.slice(entry.offset(), entry.length());
+    }
+
+    URL createURL(String module, String path) {
+        try {
+            return new URL(PROTOCOL, null, -1, "/" + module + "/" + path, this.urlHandler);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Resolves the urls of resources in the bundle, witch have the form cnm-bundle:/module/path
+     */
+    private final class BundleURLStreamHandler extends URLStreamHandler {
+
+        @Override
+        protected URLConnection openConnection(URL url) {
+            return new URLConnection(url) {
+                private ByteBuffer buffer;
+
+                @Override
+                public void connect() throws IOException {
+                    if (this.connected) return;
+
+                    String path = this.url.getPath().substring(1);
+                    int index = path.indexOf('/');
+                    BundledModule module = index == -1 ? null : ModuleBundle.this.getModule(path.substring(0, index));
+                    this.buffer = module == null ? null : module.getEntry(path.substring(index + 1));
+                    if (this.buffer == null) throw new FileNotFoundException(this.url.toString());
+
+                    this.connected = true;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    this.connect();
+                    return new ByteBufferInputStream(this.buffer.duplicate());
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    try {
+                        this.connect();
+                        return this.buffer.remaining();
+                    } catch (IOException e) {
+                        return -1;
+                    }
+                }
+            };
+        }
+
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte @NotNull [] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!this.buffer.hasRemaining()) return -1;
+
+            int read = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+    }
+
+}
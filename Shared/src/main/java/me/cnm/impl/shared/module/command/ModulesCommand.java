@@ -0,0 +1,333 @@
+package me.cnm.impl.shared.module.command;
+
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.impl.shared.module.bundle.ModuleBundle;
+import me.cnm.impl.shared.module.java.ClassLoaderLeakTracker;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
+import me.cnm.impl.shared.module.java.JavaModuleExecutors;
+import me.cnm.impl.shared.module.java.LibraryManager;
+import me.cnm.impl.shared.module.profile.ModulePhase;
+import me.cnm.impl.shared.module.profile.ModuleProfile;
+import me.cnm.shared.cli.command.Command;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.cli.message.create.CLIMessageBuilder;
+import me.cnm.shared.cli.message.option.Color;
+import me.cnm.shared.module.ModuleResourceUsage;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.format.IFormatHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ModulesCommand extends Command {
+
+    private final ModuleHandler moduleHandler;
+
+    public ModulesCommand(ModuleHandler moduleHandler) {
+        super("modules", "module");
+        this.moduleHandler = moduleHandler;
+    }
+
+    @Override
+    public void execute(@NotNull String[] args) {
+        if (args.length == 0) {
+            this.list();
+            return;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "libraries" -> this.libraries();
+            case "leaks" -> this.leaks(args);
+            case "profile" -> this.profile();
+            case "resources" -> this.resources();
+            case "executors" -> this.executors();
+            case "bundle" -> this.bundle(args);
+            default -> this.getHandlerLibrary().getHandler(ILogHandler.class).info(
+                    CLIMessageBuilder.create()
+                            .text("Use ")
+                            .textFg("modules " + this.getSyntax(), Color.LIGHT_CYAN)
+                            .build());
+        }
+    }
+
+    private void list() {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Modules", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        for (IModule module : this.moduleHandler.getAll().stream()
+                .sorted(Comparator.comparing(module -> module.getModuleDescription().getName()))
+                .toList()) {
+            String state = module.isFailed() ? "failed" : module.isRunning() ? "running" : "loaded";
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(module.getModuleDescription().getName(), Color.LIGHT_CYAN)
+                    .text(" " + module.getModuleDescription().getVersion() + " ")
+                    .textFg("(" + state + ")", Color.GRAY)
+                    .build());
+        }
+
+        for (IModule module : this.moduleHandler.getDeferred()) {
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(module.getModuleDescription().getName(), Color.LIGHT_CYAN)
+                    .text(" " + module.getModuleDescription().getVersion() + " ")
+                    .textFg("(deferred)", Color.GRAY)
+                    .build());
+        }
+    }
+
+    private void libraries() {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        IFormatHandler formatHandler = this.getHandlerLibrary().getHandler(IFormatHandler.class);
+
+        if (!(this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter javaInterpreter)) return;
+        List<LibraryManager.Library> libraries = javaInterpreter.getLibraryManager().getLibraries();
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Libraries", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        // The metaspace of a class is estimated by the average metaspace used per loaded class
+        ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
+        long metaspace = 0;
+        for (MemoryPoolMXBean memoryPoolBean : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPoolBean.getName().equals("Metaspace")) metaspace = memoryPoolBean.getUsage().getUsed();
+        }
+        long bytesPerClass = metaspace / Math.max(1, classLoadingBean.getLoadedClassCount());
+
+        long savedClasses = 0;
+        for (LibraryManager.Library library : libraries.stream()
+                .sorted(Comparator.comparing(LibraryManager.Library::getName))
+                .toList()) {
+            int users = library.getModules().size();
+            long saved = (long) library.getLoadedClasses() * Math.max(0, users - 1);
+            savedClasses += saved;
+
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(library.getName(), Color.LIGHT_CYAN)
+                    .text(" " + library.getLoadedClasses() + " classes, used by " + users + " modules ")
+                    .textFg("(" + String.join(", ", library.getModules()) + ")", Color.GRAY)
+                    .build());
+        }
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("Saved ")
+                .textFg(savedClasses + " classes", Color.LIGHT_CYAN)
+                .text(" and about ")
+                .textFg(formatHandler.formatBytes(savedClasses * bytesPerClass), Color.LIGHT_CYAN)
+                .text(" metaspace (" + formatHandler.formatBytes(bytesPerClass) + " per class, " +
+                        classLoadingBean.getLoadedClassCount() + " classes loaded)")
+                .build());
+    }
+
+    private void leaks(String[] args) {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        IFormatHandler formatHandler = this.getHandlerLibrary().getHandler(IFormatHandler.class);
+
+        int cycles = 2;
+        if (args.length > 1) {
+            try {
+                cycles = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                logHandler.info(CLIMessageBuilder.create()
+                        .text("Use ")
+                        .textFg("modules leaks [gc cycles]", Color.LIGHT_CYAN)
+                        .build());
+                return;
+            }
+        }
+
+        if (!(this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter javaInterpreter)) return;
+        ClassLoaderLeakTracker leakTracker = javaInterpreter.getLeakTracker();
+        List<ClassLoaderLeakTracker.Leak> leaks = leakTracker.getLeaks(cycles);
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Leaks", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        for (ClassLoaderLeakTracker.Leak leak : leaks) {
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(leak.getModule() + " #" + leak.getId(), Color.LIGHT_CYAN)
+                    .text(" unloaded at " + formatHandler.formatTime(leak.getUnloadTime(), "HH:mm:ss") +
+                            ", survived " + leak.getSurvivedCollections() + " garbage collections")
+                    .build());
+
+            if (leak.getRoots().isEmpty())
+                logHandler.info(CLIMessageBuilder.create().textFg("  No known roots", Color.GRAY).build());
+            for (String root : leak.getRoots())
+                logHandler.info(CLIMessageBuilder.create().textFg("  - " + root, Color.GRAY).build());
+        }
+
+        logHandler.info(CLIMessageBuilder.create()
+                .textFg(leaks.size() + "", Color.LIGHT_CYAN)
+                .text(" of " + leakTracker.getTrackedCount() + " uncollected class loaders survived at least " +
+                        cycles + " garbage collections")
+                .build());
+    }
+
+    private void profile() {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        IFormatHandler formatHandler = this.getHandlerLibrary().getHandler(IFormatHandler.class);
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Profile", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        // Sorted by the boot time, so the slowest modules are shown first
+        for (ModuleProfile profile : this.moduleHandler.getModuleProfiler().getProfiles()) {
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(profile.getModule(), Color.LIGHT_CYAN)
+                    .text(" " + this.formatNanos(profile.getBootNanos()) + " boot, " + profile.getDefinedClasses() +
+                            " classes (" + formatHandler.formatBytes(profile.getDefinedBytes()) + ")")
+                    .build());
+
+            for (ModulePhase phase : ModulePhase.values()) {
+                ModuleProfile.Measurement measurement = profile.getMeasurement(phase);
+                if (measurement == null) continue;
+
+                logHandler.info(CLIMessageBuilder.create()
+                        .textFg("  " + phase.getKey() + ": " + this.formatNanos(measurement.nanos()) +
+                                (measurement.allocated() < 0 ? "" : ", " +
+                                        formatHandler.formatBytes(measurement.allocated()) + " allocated"), Color.GRAY)
+                        .build());
+            }
+        }
+    }
+
+    private void resources() {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        IFormatHandler formatHandler = this.getHandlerLibrary().getHandler(IFormatHandler.class);
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Resources", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        for (ModuleResourceUsage usage : this.moduleHandler.getResourceUsages()) {
+            String allocations = usage.getAllocatedBytes() < 0 ? "" : ", " +
+                    formatHandler.formatBytes(usage.getAllocationRate()) + "/s allocated (" +
+                    formatHandler.formatBytes(usage.getAllocatedBytes()) + " total)";
+
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(usage.getModule(), Color.LIGHT_CYAN)
+                    .text(" " + formatHandler.formatDouble(usage.getCpuLoad() * 100) + "% cpu")
+                    .textFg(" (" + usage.getThreads() + " threads, " + this.formatNanos(usage.getCpuTime()) +
+                            " cpu time" + allocations + ")", Color.GRAY)
+                    .build());
+        }
+    }
+
+    private void executors() {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+
+        if (!(this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter javaInterpreter)) return;
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("----- ")
+                .textFg("Executors", Color.LIGHT_CYAN)
+                .text(" -----")
+                .build());
+
+        for (IModule module : this.moduleHandler.getAll().stream()
+                .sorted(Comparator.comparing(module -> module.getModuleDescription().getName()))
+                .toList()) {
+            JavaModuleExecutors executors = javaInterpreter.getExecutors(module);
+            if (executors == null) continue;
+
+            logHandler.info(CLIMessageBuilder.create()
+                    .textFg(module.getModuleDescription().getName(), Color.LIGHT_CYAN)
+                    .build());
+
+            for (Map.Entry<String, ThreadPoolExecutor> entry : executors.getPools().entrySet()) {
+                ThreadPoolExecutor pool = entry.getValue();
+                logHandler.info(CLIMessageBuilder.create()
+                        .textFg("  " + entry.getKey() + ": " + pool.getActiveCount() + " active, " +
+                                pool.getPoolSize() + "/" + pool.getCorePoolSize() + " threads, " +
+                                pool.getQueue().size() + " queued, " + pool.getCompletedTaskCount() + " completed",
+                                Color.GRAY)
+                        .build());
+            }
+        }
+    }
+
+    private void bundle(String[] args) {
+        ILogHandler logHandler = this.getHandlerLibrary().getHandler(ILogHandler.class);
+        IFormatHandler formatHandler = this.getHandlerLibrary().getHandler(IFormatHandler.class);
+
+        if (args.length < 2) {
+            logHandler.info(CLIMessageBuilder.create()
+                    .text("Use ")
+                    .textFg("modules bundle <file>", Color.LIGHT_CYAN)
+                    .build());
+            return;
+        }
+
+        File target = new File(args[1].endsWith(ModuleBundle.EXTENSION) ? args[1] : args[1] + ModuleBundle.EXTENSION);
+        File[] folders = new File("modules").listFiles(file -> new File(file, "module.json").isFile());
+        if (folders == null || folders.length == 0) {
+            logHandler.info(CLIMessageBuilder.create().text("There are no module folders to bundle.").build());
+            return;
+        }
+
+        try {
+            ModuleBundle.write(target, Arrays.asList(folders));
+        } catch (IOException | RuntimeException e) {
+            logHandler.error("An error occurred while trying to write the bundle " + target.getName(), e);
+            return;
+        }
+
+        logHandler.info(CLIMessageBuilder.create()
+                .text("Bundled ")
+                .textFg(folders.length + " modules", Color.LIGHT_CYAN)
+                .text(" into ")
+                .textFg(target.getPath(), Color.LIGHT_CYAN)
+                .textFg(" (" + formatHandler.formatBytes(target.length()) + ")", Color.GRAY)
+                .build());
+    }
+
+    private String formatNanos(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000D + " ms";
+    }
+
+    @Override
+    public void autocomplete(@NotNull String[] args, @NotNull List<String> suggestions) {
+        if (args.length <= 1) {
+            suggestions.add("libraries");
+            suggestions.add("leaks");
+            suggestions.add("profile");
+            suggestions.add("resources");
+            suggestions.add("executors");
+            suggestions.add("bundle");
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Shows information about the modules";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "[libraries | leaks [gc cycles] | profile | resources | executors | bundle <file>]";
+    }
+
+}
@@ -0,0 +1,182 @@
+package me.cnm.impl.shared.module.java;
+
+import lombok.Getter;
+import lombok.NonNull;
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.cli.command.Command;
+import me.cnm.shared.cli.command.ICommandHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Tracks the class loaders of unloaded modules with phantom references, to find loaders that are never collected<br>
+ * A loader that survives multiple garbage collections is probably still referenced, for example by a thread or a
+ * handler of the module, and keeps all classes of the module in the metaspace<br>
+ * Only collections of the old generation or of the whole heap are counted, because young collections don't unload
+ * classes, so a loader isn't reported just because the young generation was collected a few times
+ */
+public class ClassLoaderLeakTracker {
+
+    private final IHandlerLibrary handlerLibrary;
+
+    private final ReferenceQueue<ModuleClassLoader> queue = new ReferenceQueue<>();
+    private final Set<TrackedLoader> tracked = new LinkedHashSet<>();
+
+    public ClassLoaderLeakTracker(IHandlerLibrary handlerLibrary) {
+        this.handlerLibrary = handlerLibrary;
+    }
+
+    /**
+     * Start tracking the class loader of an unloaded module
+     *
+     * @param module      The name of the module
+     * @param classLoader The class loader of the module
+     */
+    public synchronized void track(@NonNull String module, @NonNull ModuleClassLoader classLoader) {
+        // Collected loaders are removed on every unload, so the set doesn't grow while nobody asks for the leaks
+        this.expunge();
+        this.tracked.add(new TrackedLoader(module, classLoader, this.queue, getCollectionCount()));
+    }
+
+    /**
+     * Get all class loaders, that weren't collected after the passed number of garbage collections
+     *
+     * @param cycles The number of garbage collections, after witch a loader is reported
+     * @return The class loaders, that are probably leaked
+     */
+    @NotNull
+    public synchronized List<Leak> getLeaks(int cycles) {
+        this.expunge();
+
+        long collections = getCollectionCount();
+        List<Leak> leaks = new ArrayList<>();
+        for (TrackedLoader trackedLoader : this.tracked) {
+            long survived = collections - trackedLoader.collections;
+            if (survived < cycles) continue;
+
+            ModuleClassLoader classLoader = trackedLoader.classLoader.get();
+            List<String> roots = classLoader == null ? List.of() : this.findRoots(classLoader);
+            leaks.add(new Leak(trackedLoader.module, trackedLoader.id, survived, trackedLoader.unloadTime, roots));
+        }
+
+        return leaks;
+    }
+
+    /**
+     * @return The number of tracked class loaders, that weren't collected yet
+     */
+    public synchronized int getTrackedCount() {
+        this.expunge();
+        return this.tracked.size();
+    }
+
+    private void expunge() {
+        Reference<? extends ModuleClassLoader> reference;
+        while ((reference = this.queue.poll()) != null) {
+            //noinspection SuspiciousMethodCalls
+            this.tracked.remove(reference);
+        }
+    }
+
+    private List<String> findRoots(ModuleClassLoader classLoader) {
+        List<String> roots = new ArrayList<>();
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getContextClassLoader() == classLoader)
+                roots.add("Thread " + thread.getName() + " (context class loader)");
+            else if (thread.getClass().getClassLoader() == classLoader)
+                roots.add("Thread " + thread.getName() + " (thread class " + thread.getClass().getName() + ")");
+        }
+
+        if (this.handlerLibrary instanceof HandlerLibrary library) {
+            for (Map.Entry<Class<?>, Object> entry : library.getHandlers().entrySet()) {
+                if (entry.getKey().getClassLoader() == classLoader ||
+                        entry.getValue().getClass().getClassLoader() == classLoader)
+                    roots.add("Handler " + entry.getKey().getName() + " (" + entry.getValue().getClass().getName() + ")");
+            }
+        }
+
+        for (Command command : this.handlerLibrary.getHandler(ICommandHandler.class).getAll()) {
+            if (command.getClass().getClassLoader() == classLoader)
+                roots.add("Command " + command.getName() + " (" + command.getClass().getName() + ")");
+        }
+
+        return roots;
+    }
+
+    private static long getCollectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (isFullCollector(bean.getName())) count += Math.max(0, bean.getCollectionCount());
+        }
+
+        return count;
+    }
+
+    /**
+     * Check whether a collector collects the old generation or the whole heap, witch is when classes are unloaded<br>
+     * For example "G1 Old Generation", "PS MarkSweep", "MarkSweepCompact", "ZGC Major Cycles" or "Shenandoah Cycles",
+     * but not "G1 Young Generation", "PS Scavenge", "Copy" or "ZGC Minor Cycles"
+     *
+     * @param name The name of the collector
+     * @return Whether the collections of the collector are counted
+     */
+    private static boolean isFullCollector(String name) {
+        if (name.contains("Old") || name.contains("MarkSweep") || name.contains("Major")) return true;
+
+        // Concurrent cycles of G1 and the cycles of the collectors without generations
+        return name.equals("G1 Concurrent GC") || (name.endsWith("Cycles") && !name.contains("Minor"));
+    }
+
+    private static class TrackedLoader extends PhantomReference<ModuleClassLoader> {
+
+        private final String module;
+        private final long id;
+        private final long collections;
+        private final long unloadTime = System.currentTimeMillis();
+
+        // Only used to find the roots, a weak reference is cleared before the phantom reference is enqueued
+        private final WeakReference<ModuleClassLoader> classLoader;
+
+        private TrackedLoader(String module, ModuleClassLoader classLoader, ReferenceQueue<ModuleClassLoader> queue,
+                              long collections) {
+            super(classLoader, queue);
+            this.module = module;
+            this.id = classLoader.getId();
+            this.collections = collections;
+            this.classLoader = new WeakReference<>(classLoader);
+        }
+
+    }
+
+    /**
+     * A class loader, witch wasn't collected after the module was unloaded
+     */
+    @Getter
+    public static class Leak {
+
+        private final String module;
+        private final long id;
+        private final long survivedCollections;
+        private final long unloadTime;
+        private final List<String> roots;
+
+        private Leak(String module, long id, long survivedCollections, long unloadTime, List<String> roots) {
+            this.module = module;
+            this.id = id;
+            this.survivedCollections = survivedCollections;
+            this.unloadTime = unloadTime;
+            this.roots = roots;
+        }
+
+    }
+
+}
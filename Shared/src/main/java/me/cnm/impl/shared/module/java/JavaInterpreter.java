@@ -1,9 +1,18 @@
 package me.cnm.impl.shared.module.java;
 
+import me.cnm.impl.shared.module.ModuleCache;
+import me.cnm.impl.shared.module.bundle.BundledModule;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleLoaderConfiguration;
+import me.cnm.impl.shared.module.profile.ModulePhase;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.impl.shared.module.scope.ModuleScope;
 import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.cli.log.ILogHandler;
 import me.cnm.shared.module.IModuleDescription;
 import me.cnm.shared.module.exception.ModuleInterpreterException;
 import me.cnm.shared.module.java.JavaModule;
+import me.cnm.shared.module.java.ModuleSnapshot;
 import me.cnm.shared.module.loading.IModule;
 import me.cnm.shared.module.loading.IModuleInterpreter;
 import me.cnm.shared.utility.json.JsonDocument;
@@ -11,19 +20,51 @@ import me.cnm.shared.utility.json.JsonDocument;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.net.MalformedURLException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class JavaInterpreter implements IModuleInterpreter {
 
     private final IHandlerLibrary handlerLibrary;
-    private final Map<IModule, ModuleInformation> modules = new HashMap<>();
-    private final Map<String, Class<?>> classes = new HashMap<>();
+    private final ModuleCache moduleCache;
+    private final ModuleProfiler moduleProfiler;
+    private final ModuleLoaderConfiguration configuration;
+    private final LibraryManager libraryManager;
+    private final ClassLoaderLeakTracker leakTracker;
+    private final Map<IModule, ModuleInformation> modules = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
 
-    public JavaInterpreter(IHandlerLibrary handlerLibrary) {
+    private static final int MAX_MISSING_CLASSES = 8192;
+
+    // Index of the class loaders, witch own a class, built from the jar indices
+    // If multiple modules contain a class (e.g. both bundle a library), all of them are kept in the order they were
+    // loaded, so the class can still be resolved after the first owner is unloaded
+    private final Map<String, List<ModuleClassLoader>> classOwners = new ConcurrentHashMap<>();
+    private final Set<String> missingClasses = ConcurrentHashMap.newKeySet();
+    // Increased whenever new owners are published, so a lookup racing with an index doesn't cache a stale miss
+    private final AtomicLong generation = new AtomicLong();
+
+    // Module -> state of its last instance, handed to the next instance when it starts
+    // Snapshots are only kept across an unload, if the module is unloaded to be loaded again
+    private final Map<String, ModuleSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> reloading = ConcurrentHashMap.newKeySet();
+    private volatile boolean snapshotsEnabled = true;
+
+    public JavaInterpreter(IHandlerLibrary handlerLibrary, ModuleCache moduleCache, ModuleProfiler moduleProfiler,
+                           ModuleLoaderConfiguration configuration) {
         this.handlerLibrary = handlerLibrary;
+        this.moduleCache = moduleCache;
+        this.moduleProfiler = moduleProfiler;
+        this.configuration = configuration;
+        this.libraryManager = new LibraryManager(new File("libraries"), this.getClass().getClassLoader());
+        this.leakTracker = new ClassLoaderLeakTracker(handlerLibrary);
     }
 
     @Override
@@ -36,41 +77,121 @@ public class JavaInterpreter implements IModuleInterpreter {
         String main = additional.getString("main");
         String location = additional.getString("location", "java.jar");
 
+        // Modules of a bundle are served from the mapped bundle, so they don't have a jar file
+        BundledModule bundledModule = module instanceof Module moduleImpl ? moduleImpl.getBundledModule() : null;
+
         File jarFile = new File(module.getDataFolder(), location);
-        if (!jarFile.exists()) {
+        if (bundledModule == null && !jarFile.exists()) {
             throw new IllegalStateException("The jar file of " + module.getModuleDescription().getName() + " doesn't " +
                     "exist.");
         }
 
+        String name = module.getModuleDescription().getName();
         try {
+            // Usually already done by the module loader, before the first module is loaded
+            this.libraryManager.addLibraries(name, module.getModuleDescription().getLibraries());
+            ClassLoader parent = this.libraryManager.getClassLoader(name);
+
             @SuppressWarnings("java:S2095")
-            ModuleClassLoader classLoader = new ModuleClassLoader(this, jarFile, this.getClass().getClassLoader());
+            ModuleClassLoader classLoader = bundledModule != null ?
+                    new ModuleClassLoader(this, name, bundledModule, this.moduleProfiler.getProfile(name), parent) :
+                    new ModuleClassLoader(this, name, jarFile, this.moduleCache.getJarIndex(jarFile),
+                            this.moduleProfiler.getProfile(name), parent);
+            this.index(classLoader);
+
+            try {
+                Class<?> mainClass;
+                try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(name, ModulePhase.MAIN_CLASS)) {
+                    mainClass = classLoader.findClass(main, false);
+                }
 
-            Class<?> mainClass = classLoader.findClass(main, false);
+                if (!JavaModule.class.isAssignableFrom(mainClass)) {
+                    throw new IllegalStateException("The main class of " + name + " doesn't extend from JavaModule.");
+                }
 
-            if (!JavaModule.class.isAssignableFrom(mainClass)) {
-                throw new IllegalStateException("The main class of " + module.getModuleDescription().getName() + " doesn't " +
-                        "extend from JavaModule.");
+                this.modules.put(module, new ModuleInformation(classLoader, mainClass.asSubclass(JavaModule.class)));
+            } catch (RuntimeException e) {
+                this.unindex(classLoader);
+                throw e;
             }
+        } catch (IOException e) {
+            this.libraryManager.removeModule(name);
+            throw new ModuleInterpreterException(e);
+        } catch (RuntimeException e) {
+            this.libraryManager.removeModule(name);
+            throw e;
+        }
+    }
 
-            this.modules.put(module, new ModuleInformation(classLoader, mainClass.asSubclass(JavaModule.class)));
-        } catch (MalformedURLException e) {
+    /**
+     * Add the libraries of a module, before it's loaded<br>
+     * All modules of a load should be prepared before the first of them is loaded, so libraries are read and conflicts
+     * are detected in the order of the modules and not in the order the loader threads reach them
+     *
+     * @param module The module
+     * @throws ModuleInterpreterException If a library can't be read
+     * @throws IllegalStateException      If a library doesn't exist or conflicts with a library in use
+     */
+    public void addLibraries(IModule module) throws ModuleInterpreterException {
+        try {
+            this.libraryManager.addLibraries(module.getModuleDescription().getName(),
+                    module.getModuleDescription().getLibraries());
+        } catch (IOException e) {
             throw new ModuleInterpreterException(e);
         }
     }
 
+    /**
+     * Release the libraries of a module, witch won't be loaded after its libraries were added
+     *
+     * @param module The module
+     */
+    public void releaseLibraries(IModule module) {
+        String name = module.getModuleDescription().getName();
+        for (IModule loaded : this.modules.keySet()) {
+            if (loaded.getModuleDescription().getName().equals(name)) return;
+        }
+
+        this.libraryManager.removeModule(name);
+    }
+
     @Override
     public void startModule(IModule module) throws ModuleInterpreterException {
+        String name = module.getModuleDescription().getName();
         try {
             ModuleInformation moduleInformation = Objects.requireNonNull(this.modules.get(module));
 
-            JavaModule javaModule = moduleInformation.getMainClass()
-                    .getDeclaredConstructor(IHandlerLibrary.class, IModuleDescription.class, File.class)
-                    .newInstance(this.handlerLibrary, module.getModuleDescription(), module.getDataFolder());
+            // Everything the module registers through its handler library is removed again, when it stops
+            ModuleScope moduleScope = new ModuleScope(name, this.handlerLibrary);
+            moduleInformation.setScope(moduleScope);
+
+            JavaModule javaModule;
+            try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(name, ModulePhase.CONSTRUCTOR)) {
+                javaModule = moduleInformation.getMainClass()
+                        .getDeclaredConstructor(IHandlerLibrary.class, IModuleDescription.class, File.class)
+                        .newInstance(moduleScope, module.getModuleDescription(), module.getDataFolder());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                this.closeScope(moduleInformation);
+                throw e;
+            }
+
+            JavaModuleExecutors executors = new JavaModuleExecutors(name, moduleInformation.getClassLoader(),
+                    this.configuration.getIoThreads(), this.configuration.getCpuThreads());
+            javaModule.setExecutors(executors);
+            moduleInformation.setExecutors(executors);
 
             moduleInformation.setMainInstance(javaModule);
+            try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(name, ModulePhase.START)) {
+                javaModule.start(this.snapshots.remove(name));
+            } catch (RuntimeException e) {
+                this.shutdownExecutors(module, moduleInformation);
+                this.closeScope(moduleInformation);
+                moduleInformation.setMainInstance(null);
+                throw e;
+            }
+
+            // A module, witch fails to start, isn't running and won't be stopped
             module.setRunning(true);
-            javaModule.start();
         } catch (NoSuchMethodException | InvocationTargetException |
                  InstantiationException | IllegalAccessException e) {
             throw new ModuleInterpreterException(e);
@@ -82,10 +203,18 @@ public class JavaInterpreter implements IModuleInterpreter {
         ModuleInformation moduleInformation = Objects.requireNonNull(this.modules.get(module));
 
         JavaModule javaModule = moduleInformation.getMainInstance();
+        if (this.snapshotsEnabled) this.snapshot(module, javaModule);
 
-        javaModule.stop();
-        module.setRunning(false);
-        moduleInformation.setMainInstance(null);
+        try (ModuleProfiler.Timer ignored = this.moduleProfiler.measure(module.getModuleDescription().getName(),
+                ModulePhase.STOP)) {
+            javaModule.stop();
+        } finally {
+            // The module is torn down even if its stop method failed, so its dependencies can be stopped after it
+            this.shutdownExecutors(module, moduleInformation);
+            this.closeScope(moduleInformation);
+            module.setRunning(false);
+            moduleInformation.setMainInstance(null);
+        }
     }
 
     @Override
@@ -93,7 +222,10 @@ public class JavaInterpreter implements IModuleInterpreter {
         ModuleInformation moduleInformation = Objects.requireNonNull(this.modules.get(module));
 
         ModuleClassLoader classLoader = moduleInformation.getClassLoader();
-        for (String name : classLoader.getLoadedClasses().keySet()) this.classes.remove(name);
+        for (Map.Entry<String, Class<?>> entry : classLoader.getLoadedClasses().entrySet())
+            this.classes.remove(entry.getKey(), entry.getValue());
+        this.unindex(classLoader);
+        this.libraryManager.removeModule(module.getModuleDescription().getName());
 
         try {
             classLoader.close();
@@ -102,20 +234,159 @@ public class JavaInterpreter implements IModuleInterpreter {
         }
 
         this.modules.remove(module);
+        this.leakTracker.track(module.getModuleDescription().getName(), classLoader);
+
+        // A module, witch isn't loaded again, must not get the state of this version on a much later load
+        if (!this.reloading.contains(module.getModuleDescription().getName()))
+            this.snapshots.remove(module.getModuleDescription().getName());
+    }
+
+    private void snapshot(IModule module, JavaModule javaModule) {
+        String name = module.getModuleDescription().getName();
+        try {
+            ModuleSnapshot snapshot = javaModule.snapshot();
+            if (snapshot != null) this.snapshots.put(name, snapshot);
+        } catch (RuntimeException e) {
+            this.handlerLibrary.getHandler(ILogHandler.class).warn("The state of " + name + " couldn't be saved, " +
+                    "it will start without it", e);
+        }
+    }
+
+    /**
+     * Keep the snapshots of modules, when they are unloaded, because they are loaded and started again afterwards
+     *
+     * @param names The names of the modules
+     */
+    public void beginReload(Collection<String> names) {
+        this.reloading.addAll(names);
+    }
+
+    /**
+     * Finish the reload of modules and discard their snapshots, witch weren't handed to a new instance
+     *
+     * @param names The names of the modules
+     */
+    public void endReload(Collection<String> names) {
+        this.reloading.removeAll(names);
+
+        // A started instance already took its snapshot, so the remaining ones belong to modules, witch didn't start
+        for (String name : names) this.snapshots.remove(name);
+    }
+
+    /**
+     * Stop taking snapshots of stopped modules and discard the existing ones, because no module will be started again
+     */
+    public void disableSnapshots() {
+        this.snapshotsEnabled = false;
+        this.snapshots.clear();
+    }
+
+    private void closeScope(ModuleInformation moduleInformation) {
+        ModuleScope moduleScope = moduleInformation.getScope();
+        if (moduleScope == null) return;
+
+        moduleScope.close();
+        moduleInformation.setScope(null);
+    }
+
+    private void shutdownExecutors(IModule module, ModuleInformation moduleInformation) {
+        JavaModuleExecutors executors = moduleInformation.getExecutors();
+        if (executors == null) return;
+
+        try {
+            int cancelled = executors.shutdown(this.configuration.getExecutorTimeout());
+            if (cancelled > 0) this.handlerLibrary.getHandler(ILogHandler.class).warn(cancelled + " tasks of " +
+                    module.getModuleDescription().getName() + " didn't finish in time and were cancelled.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executors.getPools().values().forEach(ThreadPoolExecutor::shutdownNow);
+        } finally {
+            moduleInformation.setExecutors(null);
+        }
+    }
+
+    /**
+     * Get the thread pools of a running module
+     *
+     * @param module The module
+     * @return The thread pools, or null if the module isn't loaded or running
+     */
+    public JavaModuleExecutors getExecutors(IModule module) {
+        ModuleInformation moduleInformation = this.modules.get(module);
+        return moduleInformation == null ? null : moduleInformation.getExecutors();
     }
 
     public Class<?> getClassByName(String name) {
         Class<?> target = this.classes.get(name);
 
         if (target != null) return target;
+        if (this.missingClasses.contains(name)) return null;
+
+        long lookup = this.generation.get();
+        ModuleClassLoader owner = this.getClassOwner(name);
+        if (owner != null) target = owner.findClass(name, false);
 
-        for (ModuleInformation value : this.modules.values()) {
-            target = value.getClassLoader().findClass(name, false);
+        if (target == null && this.generation.get() == lookup) {
+            if (this.missingClasses.size() >= MAX_MISSING_CLASSES) this.missingClasses.clear();
+            this.missingClasses.add(name);
 
-            if (target != null) return target;
+            // An index between the check and the add might already have cleared the misses
+            if (this.generation.get() != lookup) this.missingClasses.remove(name);
         }
 
-        return null;
+        return target;
+    }
+
+    /**
+     * @return The manager of the shared libraries used by the modules
+     */
+    public LibraryManager getLibraryManager() {
+        return this.libraryManager;
+    }
+
+    /**
+     * @return The tracker of the class loaders of unloaded modules
+     */
+    public ClassLoaderLeakTracker getLeakTracker() {
+        return this.leakTracker;
+    }
+
+    /**
+     * Get the class loader of the module, whose jar contains a class<br>
+     * If multiple modules contain the class, the module witch was loaded first is returned
+     *
+     * @param name The binary name of the class
+     * @return The class loader, or null if no loaded module contains the class
+     */
+    public ModuleClassLoader getClassOwner(String name) {
+        List<ModuleClassLoader> owners = this.classOwners.get(name);
+        return owners == null ? null : owners.get(0);
+    }
+
+    private void index(ModuleClassLoader classLoader) {
+        for (String name : classLoader.getJarIndex().getClasses()) {
+            this.classOwners.compute(name, (key, owners) -> {
+                if (owners == null) return List.of(classLoader);
+
+                List<ModuleClassLoader> updated = new ArrayList<>(owners);
+                updated.add(classLoader);
+                return List.copyOf(updated);
+            });
+        }
+
+        // Classes of the new jar might have been missing before
+        this.generation.incrementAndGet();
+        this.missingClasses.clear();
+    }
+
+    private void unindex(ModuleClassLoader classLoader) {
+        for (String name : classLoader.getJarIndex().getClasses()) {
+            this.classOwners.computeIfPresent(name, (key, owners) -> {
+                List<ModuleClassLoader> updated = new ArrayList<>(owners);
+                updated.remove(classLoader);
+                return updated.isEmpty() ? null : List.copyOf(updated);
+            });
+        }
     }
 
     public void setClass(String name, Class<?> clazz) {
@@ -0,0 +1,131 @@
+package me.cnm.impl.shared.module.java;
+
+import lombok.NonNull;
+import me.cnm.shared.module.java.ModuleExecutors;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The thread pools of a single java module<br>
+ * All threads are daemon threads named after the module and use the class loader of the module as context class
+ * loader, so they are attributed to the module by the resource accounting. Idle threads of the pools are stopped, so
+ * a module without asynchronous work doesn't hold any threads
+ */
+public class JavaModuleExecutors implements ModuleExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor ioExecutor;
+    private final ThreadPoolExecutor cpuExecutor;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * Create the thread pools
+     *
+     * @param module      The name of the module
+     * @param classLoader The class loader of the module
+     * @param ioThreads   The maximum number of threads for blocking tasks
+     * @param cpuThreads  The maximum number of threads for cpu bound tasks
+     */
+    public JavaModuleExecutors(@NonNull String module, @NonNull ClassLoader classLoader, int ioThreads,
+                               int cpuThreads) {
+        this.ioExecutor = new ThreadPoolExecutor(ioThreads, ioThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), this.createThreadFactory(module + "-io", classLoader));
+        this.ioExecutor.allowCoreThreadTimeOut(true);
+
+        this.cpuExecutor = new ThreadPoolExecutor(cpuThreads, cpuThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), this.createThreadFactory(module + "-cpu", classLoader));
+        this.cpuExecutor.allowCoreThreadTimeOut(true);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, this.createThreadFactory(module + "-scheduler",
+                classLoader));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    private ThreadFactory createThreadFactory(String prefix, ClassLoader classLoader) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        };
+    }
+
+    @Override
+    @NotNull
+    public ExecutorService getIoExecutor() {
+        return this.ioExecutor;
+    }
+
+    @Override
+    @NotNull
+    public ExecutorService getCpuExecutor() {
+        return this.cpuExecutor;
+    }
+
+    @Override
+    @NotNull
+    public ScheduledExecutorService getScheduler() {
+        return this.scheduler;
+    }
+
+    @Override
+    @NotNull
+    public <T> Future<T> submit(@NonNull Callable<T> task, long timeout, @NonNull TimeUnit unit) {
+        ScheduledFuture<?>[] cancellation = new ScheduledFuture<?>[1];
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                // The cancellation isn't needed anymore, if the task finished in time
+                cancellation[0].cancel(false);
+            }
+        };
+
+        cancellation[0] = this.scheduler.schedule(() -> future.cancel(true), timeout, unit);
+        this.ioExecutor.execute(future);
+        return future;
+    }
+
+    /**
+     * Shut down all pools and wait for the running tasks<br>
+     * Tasks still running after the timeout are interrupted
+     *
+     * @param timeout The time in milliseconds to wait for the running tasks
+     * @return The number of tasks, witch didn't finish in time
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public int shutdown(long timeout) throws InterruptedException {
+        List<ThreadPoolExecutor> pools = List.of(this.scheduler, this.ioExecutor, this.cpuExecutor);
+        for (ThreadPoolExecutor pool : pools) pool.shutdown();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeout));
+        int cancelled = 0;
+        for (ThreadPoolExecutor pool : pools) {
+            if (pool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) continue;
+
+            cancelled += pool.getActiveCount() + pool.shutdownNow().size();
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * @return The pools of the module by their name
+     */
+    @NotNull
+    public Map<String, ThreadPoolExecutor> getPools() {
+        Map<String, ThreadPoolExecutor> pools = new LinkedHashMap<>();
+        pools.put("io", this.ioExecutor);
+        pools.put("cpu", this.cpuExecutor);
+        pools.put("scheduler", this.scheduler);
+        return pools;
+    }
+
+}
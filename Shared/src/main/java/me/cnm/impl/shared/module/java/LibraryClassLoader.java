@@ -0,0 +1,63 @@
+package me.cnm.impl.shared.module.java;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Parent of the class loader of a module, witch only delegates to the libraries the module declares<br>
+ * The classes of a library are defined by the shared class loader of the library, so modules using the same library
+ * get the same classes
+ */
+public class LibraryClassLoader extends ClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final List<LibraryManager.Library> libraries;
+
+    LibraryClassLoader(@NonNull String module, @NonNull List<LibraryManager.Library> libraries, ClassLoader parent) {
+        super(module + "-libraries", parent);
+        this.libraries = libraries;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        for (LibraryManager.Library library : this.libraries) {
+            if (library.containsClass(name)) return library.getClassLoader().loadClass(name);
+        }
+
+        throw new ClassNotFoundException(name);
+    }
+
+    // Only the jars of the libraries are searched, the parent was already asked by getResource
+    @Override
+    protected URL findResource(String name) {
+        for (LibraryManager.Library library : this.libraries) {
+            URL url = library.getClassLoader().findResource(name);
+            if (url != null) return url;
+        }
+
+        return null;
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (LibraryManager.Library library : this.libraries)
+            urls.addAll(Collections.list(library.getClassLoader().findResources(name)));
+
+        return Collections.enumeration(urls);
+    }
+
+    /**
+     * @return The libraries visible through this class loader
+     */
+    public List<LibraryManager.Library> getLibraries() {
+        return Collections.unmodifiableList(this.libraries);
+    }
+
+}
@@ -0,0 +1,278 @@
+package me.cnm.impl.shared.module.java;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the jars in the shared "libraries" folder<br>
+ * Every library is defined once by its own class loader and shared by all modules, witch declare it. A module only
+ * sees the libraries it declares, and a library is closed when the last module using it is unloaded
+ */
+public class LibraryManager {
+
+    // The version of a library file name like gson-2.9.1 or commons-lang3-3.12.0
+    private static final Pattern VERSION_PATTERN = Pattern.compile("(.+?)-(\\d+(?:\\.\\d+)*(?:[.-][\\w.-]+)?)");
+
+    private final File directory;
+    private final ClassLoader parent;
+    private final Map<String, Library> libraries = new ConcurrentHashMap<>();
+    // Module -> the libraries it declares, in the order of its module.json
+    private final Map<String, List<Library>> modules = new ConcurrentHashMap<>();
+
+    public LibraryManager(@NonNull File directory, ClassLoader parent) {
+        this.directory = directory;
+        this.parent = parent;
+    }
+
+    /**
+     * Add the libraries of a module<br>
+     * Libraries, witch are already added, are shared and only get the module as another user. A library is rejected, if
+     * another version of the same artifact or another jar with the same packages is in use, because classes of both
+     * could be passed between modules and wouldn't be compatible. Either all libraries are added or none of them<br>
+     * Adding the same libraries for a module again does nothing
+     *
+     * @param module The name of the module
+     * @param names  The file names of the libraries in the libraries folder
+     * @throws IOException           If a library can't be read
+     * @throws IllegalStateException If a library doesn't exist or conflicts with a library in use
+     */
+    public synchronized void addLibraries(@NonNull String module, @NonNull List<String> names) throws IOException {
+        List<String> fileNames = new ArrayList<>();
+        for (String name : names) {
+            String fileName = name.endsWith(".jar") ? name : name + ".jar";
+            if (fileName.contains("/") || fileName.contains("\\") || fileName.startsWith("."))
+                throw new IllegalArgumentException("The library " + name + " of " + module + " is not a file name.");
+            if (!fileNames.contains(fileName)) fileNames.add(fileName);
+        }
+
+        List<Library> current = this.modules.get(module);
+        if (current != null) {
+            if (current.stream().map(Library::getName).toList().equals(fileNames)) return;
+            this.removeModule(module);
+        }
+
+        List<Library> added = new ArrayList<>();
+        List<Library> used = new ArrayList<>();
+        try {
+            for (String fileName : fileNames) {
+                Library library = this.libraries.get(fileName);
+                if (library == null) {
+                    File file = new File(this.directory, fileName);
+                    if (!file.isFile())
+                        throw new IllegalStateException("The library " + fileName + " of " + module + " doesn't exist.");
+
+                    Set<String> packages = readPackages(file);
+                    this.checkConflicts(fileName, packages, module, added);
+                    library = new Library(fileName, file, packages, this.parent);
+                    added.add(library);
+                }
+
+                used.add(library);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Library library : added) library.close();
+            throw e;
+        }
+
+        for (Library library : added) this.libraries.put(library.name, library);
+        for (Library library : used) library.modules.add(module);
+        this.modules.put(module, List.copyOf(used));
+    }
+
+    private void checkConflicts(String name, Set<String> packages, String module, List<Library> added) {
+        String artifact = getArtifact(name);
+
+        List<Library> others = new ArrayList<>(this.libraries.values());
+        others.addAll(added);
+        for (Library other : others) {
+            if (artifact.equals(getArtifact(other.name))) {
+                throw new IllegalStateException("The library " + name + " of " + module + " is another " +
+                        "version of " + other.name + ", witch is already used by " + other.getUsers(module) + ".");
+            }
+
+            for (String packageName : packages) {
+                if (other.packages.contains(packageName)) {
+                    throw new IllegalStateException("The library " + name + " of " + module + " contains " +
+                            "the package " + packageName + ", witch is already provided by " + other.name + " (used by " +
+                            other.getUsers(module) + ").");
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the artifact of a library, by removing the version from its file name (e.g. gson-2.9.1.jar -> gson)
+     */
+    private static String getArtifact(String fileName) {
+        String name = fileName.substring(0, fileName.length() - ".jar".length());
+        Matcher matcher = VERSION_PATTERN.matcher(name);
+        return matcher.matches() ? matcher.group(1) : name;
+    }
+
+    private static Set<String> readPackages(File file) throws IOException {
+        Set<String> packages = new HashSet<>();
+        try (JarFile jarFile = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String entry = entries.nextElement().getName();
+                if (!entry.endsWith(".class") || entry.startsWith("META-INF/") || entry.endsWith("module-info.class"))
+                    continue;
+
+                int index = entry.lastIndexOf('/');
+                if (index > 0) packages.add(entry.substring(0, index).replace('/', '.'));
+            }
+        }
+
+        return Collections.unmodifiableSet(packages);
+    }
+
+    /**
+     * Remove a module from the users of its libraries<br>
+     * Libraries without users are closed, so their classes can be collected and another version can be added
+     *
+     * @param module The name of the module
+     * @return The closed libraries
+     */
+    @NotNull
+    public synchronized List<Library> removeModule(@NonNull String module) {
+        List<Library> used = this.modules.remove(module);
+        if (used == null) return List.of();
+
+        List<Library> released = new ArrayList<>();
+        for (Library library : used) {
+            library.modules.remove(module);
+            if (!library.modules.isEmpty()) continue;
+
+            this.libraries.remove(library.name);
+            library.close();
+            released.add(library);
+        }
+
+        return released;
+    }
+
+    /**
+     * Get the parent of the class loader of a module, witch only sees the libraries the module declares
+     *
+     * @param module The name of the module
+     * @return The class loader, or the parent of all libraries if the module doesn't use any
+     */
+    @NotNull
+    public ClassLoader getClassLoader(@NonNull String module) {
+        List<Library> used = this.modules.get(module);
+        if (used == null || used.isEmpty()) return this.parent;
+
+        return new LibraryClassLoader(module, used, this.parent);
+    }
+
+    /**
+     * @return All libraries in use
+     */
+    @NotNull
+    public List<Library> getLibraries() {
+        return List.copyOf(this.libraries.values());
+    }
+
+    @Getter
+    public static class Library {
+
+        private final String name;
+        private final File file;
+
+        @Getter(AccessLevel.NONE)
+        private final Set<String> packages;
+        @Getter(AccessLevel.NONE)
+        private final AtomicInteger loadedClasses = new AtomicInteger();
+        @Getter(AccessLevel.NONE)
+        private final Set<String> modules = ConcurrentHashMap.newKeySet();
+        @Getter(AccessLevel.NONE)
+        private final LibraryLoader classLoader;
+
+        private Library(String name, File file, Set<String> packages, ClassLoader parent) throws IOException {
+            this.name = name;
+            this.file = file;
+            this.packages = packages;
+            this.classLoader = new LibraryLoader(name, file.toURI().toURL(), parent, this.loadedClasses);
+        }
+
+        /**
+         * @param className The binary name of a class
+         * @return Whether the class belongs to a package of this library
+         */
+        boolean containsClass(String className) {
+            int index = className.lastIndexOf('.');
+            return index > 0 && this.packages.contains(className.substring(0, index));
+        }
+
+        URLClassLoader getClassLoader() {
+            return this.classLoader;
+        }
+
+        private Set<String> getUsers(String module) {
+            Set<String> users = new TreeSet<>(this.modules);
+            users.remove(module);
+            return users;
+        }
+
+        private void close() {
+            try {
+                this.classLoader.close();
+            } catch (IOException ignored) {
+                // The jar is only read, so there is nothing to lose
+            }
+        }
+
+        /**
+         * @return The number of classes defined from this library
+         */
+        public int getLoadedClasses() {
+            return this.loadedClasses.get();
+        }
+
+        /**
+         * @return The names of all modules using this library
+         */
+        @NotNull
+        public Set<String> getModules() {
+            return Collections.unmodifiableSet(this.modules);
+        }
+
+    }
+
+    private static class LibraryLoader extends URLClassLoader {
+
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        private final AtomicInteger loadedClasses;
+
+        private LibraryLoader(String name, URL url, ClassLoader parent, AtomicInteger loadedClasses) {
+            super(name, new URL[]{ url }, parent);
+            this.loadedClasses = loadedClasses;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Class<?> clazz = super.findClass(name);
+            this.loadedClasses.incrementAndGet();
+            return clazz;
+        }
+
+    }
+
+}
@@ -1,43 +1,130 @@
 package me.cnm.impl.shared.module.java;
 
+import me.cnm.impl.shared.module.JarIndex;
+import me.cnm.impl.shared.module.bundle.BundledModule;
+import me.cnm.impl.shared.module.profile.ModuleProfile;
+
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.security.CodeSigner;
+import java.security.CodeSource;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Enumeration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ModuleClassLoader extends URLClassLoader {
 
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private static final AtomicLong ID_COUNTER = new AtomicLong();
+
+    private final long id = ID_COUNTER.incrementAndGet();
     private final JavaInterpreter javaInterpreter;
-    private final Map<String, Class<?>> classes = new HashMap<>();
+    private final JarIndex jarIndex;
+    private final ModuleProfile moduleProfile;
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+    // Only set for modules of a bundle, witch are served from the mapped bundle instead of a jar
+    private final BundledModule bundledModule;
+    private final CodeSource codeSource;
+
+    public ModuleClassLoader(JavaInterpreter javaInterpreter, String module, File jarFile, JarIndex jarIndex,
+                             ModuleProfile moduleProfile, ClassLoader parent) throws MalformedURLException {
+        super(module, new URL[]{ jarFile.toURI().toURL() }, parent);
+        this.javaInterpreter = javaInterpreter;
+        this.jarIndex = jarIndex;
+        this.moduleProfile = moduleProfile;
+        this.bundledModule = null;
+        this.codeSource = null;
+    }
 
-    public ModuleClassLoader(JavaInterpreter javaInterpreter, File jarFile, ClassLoader parent) throws MalformedURLException {
-        super(new URL[]{ jarFile.toURI().toURL() }, parent);
+    public ModuleClassLoader(JavaInterpreter javaInterpreter, String module, BundledModule bundledModule,
+                             ModuleProfile moduleProfile, ClassLoader parent) throws MalformedURLException {
+        super(module, new URL[0], parent);
         this.javaInterpreter = javaInterpreter;
+        this.jarIndex = bundledModule.getJarIndex();
+        this.moduleProfile = moduleProfile;
+        this.bundledModule = bundledModule;
+        this.codeSource = new CodeSource(bundledModule.getBundle().getFile().toURI().toURL(), (CodeSigner[]) null);
     }
 
     @Override
-    protected Class<?> findClass(String name) {
-        return this.findClass(name, true);
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Class<?> clazz = this.findClass(name, true);
+        if (clazz == null) throw new ClassNotFoundException(name);
+        return clazz;
     }
 
     protected Class<?> findClass(String name, boolean checkGlobal) {
-        return this.classes.computeIfAbsent(name, key -> {
-            Class<?> supply = null;
-            if (checkGlobal) supply = this.javaInterpreter.getClassByName(name);
+        Class<?> clazz = this.classes.get(name);
+        if (clazz != null) return clazz;
+
+        // Classes of other modules are resolved by their own class loader
+        if (checkGlobal) {
+            clazz = this.javaInterpreter.getClassByName(name);
+            if (clazz != null) return clazz;
+        }
 
-            if (supply == null) {
-                try {
-                    supply = super.findClass(name);
-                } catch (ClassNotFoundException ignored) { }
+        // Classes which aren't part of the jar don't need to be searched in it
+        if (!this.jarIndex.containsClass(name)) return null;
 
-                if (supply != null) this.javaInterpreter.setClass(name, supply);
+        // The lock is per class name (parallel capable), so different classes are defined concurrently
+        synchronized (this.getClassLoadingLock(name)) {
+            clazz = this.classes.get(name);
+            if (clazz != null) return clazz;
+
+            try {
+                clazz = this.bundledModule == null ? super.findClass(name) : this.defineBundledClass(name);
+            } catch (ClassNotFoundException e) {
+                return null;
             }
 
-            return supply;
-        });
+            this.classes.put(name, clazz);
+            this.javaInterpreter.setClass(name, clazz);
+            this.moduleProfile.classDefined(this.jarIndex.getClassSize(name));
+            return clazz;
+        }
+    }
+
+    private Class<?> defineBundledClass(String name) throws ClassNotFoundException {
+        // The class is defined directly from the mapped bundle, without copying it to the heap
+        ByteBuffer buffer = this.bundledModule.getEntry(name.replace('.', '/') + ".class");
+        if (buffer == null) throw new ClassNotFoundException(name);
+
+        return this.defineClass(name, buffer, this.codeSource);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        if (this.bundledModule == null) return super.findResource(name);
+        return this.bundledModule.getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (this.bundledModule == null) return super.findResources(name);
+
+        URL url = this.bundledModule.getResource(name);
+        return url == null ? Collections.emptyEnumeration() : Collections.enumeration(Collections.singletonList(url));
+    }
+
+    /**
+     * @return The unique id of the class loader, to distinguish loaders of the same module after reloads
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public JarIndex getJarIndex() {
+        return this.jarIndex;
     }
 
     public Map<String, Class<?>> getLoadedClasses() {
@@ -2,6 +2,7 @@ package me.cnm.impl.shared.module.java;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import me.cnm.impl.shared.module.scope.ModuleScope;
 import me.cnm.shared.module.java.JavaModule;
 
 @Data
@@ -11,5 +12,7 @@ public class ModuleInformation {
     private final ModuleClassLoader classLoader;
     private final Class<? extends JavaModule> mainClass;
     private JavaModule mainInstance;
+    private JavaModuleExecutors executors;
+    private ModuleScope scope;
 
 }
@@ -1,21 +1,40 @@
 package me.cnm.impl.shared.module.loading;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import me.cnm.impl.shared.module.bundle.BundledModule;
 import me.cnm.shared.module.IModuleDescription;
 import me.cnm.shared.module.loading.IModule;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 
 @Getter
-@RequiredArgsConstructor
 public class Module implements IModule {
 
     private final IModuleDescription moduleDescription;
     private final File dataFolder;
 
+    /**
+     * The module inside of a bundle, witch the module was read from, or null if it was read from its folder
+     */
+    @Nullable
+    private final BundledModule bundledModule;
+
     @Setter
     private boolean running;
 
+    @Setter
+    private boolean failed;
+
+    public Module(IModuleDescription moduleDescription, File dataFolder) {
+        this(moduleDescription, dataFolder, null);
+    }
+
+    public Module(IModuleDescription moduleDescription, File dataFolder, @Nullable BundledModule bundledModule) {
+        this.moduleDescription = moduleDescription;
+        this.dataFolder = dataFolder;
+        this.bundledModule = bundledModule;
+    }
+
 }
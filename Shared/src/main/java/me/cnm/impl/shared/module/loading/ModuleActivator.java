@@ -0,0 +1,240 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.IModuleDescription;
+import me.cnm.shared.module.loading.IModule;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps modules with triggers in their module.json unloaded, until one of their triggers is used<br>
+ * A deferred module is loaded and started together with all deferred modules it depends on, in the thread that used
+ * the trigger. The start is supervised by the {@link ModuleWatchdog} with the same deadlines as on load<br>
+ * The activator only holds its own lock to take the modules out of the deferred ones, the modules are loaded and
+ * started under the lock of the {@link ModuleLoader}, so other triggers can still be looked up meanwhile
+ */
+@RequiredArgsConstructor
+public class ModuleActivator {
+
+    private final ILogHandler logHandler;
+    private final ModuleHandler moduleHandler;
+    private final ModuleScheduler moduleScheduler;
+    private final ToLongFunction<IModule> startTimeout;
+    // Runs the load and start of the activated modules, so they don't overlap with a load or reload
+    private final Executor loaderLock;
+
+    private final Map<String, IModule> deferred = new LinkedHashMap<>();
+    private final Map<String, String> commandTriggers = new HashMap<>();
+    private final Map<String, String> handlerTriggers = new HashMap<>();
+
+    /**
+     * Defer all modules with triggers, that aren't required by a module without triggers
+     *
+     * @param modules The modules found on startup
+     * @return The modules, witch have to be loaded now
+     */
+    @NotNull
+    public synchronized List<IModule> defer(@NonNull List<IModule> modules) {
+        Map<String, IModule> candidates = new LinkedHashMap<>();
+        for (IModule module : modules) {
+            IModuleDescription description = module.getModuleDescription();
+            if (!description.getCommandTriggers().isEmpty() || !description.getHandlerTriggers().isEmpty())
+                candidates.put(description.getName(), module);
+        }
+
+        // Modules needed by eagerly loaded modules have to be loaded eagerly too
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (IModule module : modules) {
+                IModuleDescription description = module.getModuleDescription();
+                if (candidates.containsKey(description.getName())) continue;
+
+                for (String dependency : this.getAllDependencies(description)) {
+                    if (candidates.remove(dependency) != null) changed = true;
+                }
+            }
+        }
+
+        List<IModule> eager = new ArrayList<>();
+        for (IModule module : modules) {
+            IModuleDescription description = module.getModuleDescription();
+            if (!candidates.containsKey(description.getName())) {
+                eager.add(module);
+                continue;
+            }
+
+            this.deferred.put(description.getName(), module);
+            for (String command : description.getCommandTriggers())
+                this.commandTriggers.put(command.toLowerCase(), description.getName());
+            for (String handler : description.getHandlerTriggers())
+                this.handlerTriggers.put(handler, description.getName());
+        }
+
+        return eager;
+    }
+
+    /**
+     * Activate the module providing a command, if it's deferred
+     *
+     * @param command The name of the command
+     * @return Whether a module was activated
+     */
+    public boolean activateCommand(@NonNull String command) {
+        String module;
+        synchronized (this) {
+            module = this.commandTriggers.get(command.toLowerCase());
+        }
+
+        return module != null && this.activate(module, "command " + command);
+    }
+
+    /**
+     * Activate the module registering a handler, if it's deferred
+     *
+     * @param type The type of the handler
+     * @return Whether a module was activated
+     */
+    public boolean activateHandler(@NonNull Class<?> type) {
+        String module;
+        synchronized (this) {
+            module = this.handlerTriggers.get(type.getName());
+        }
+
+        return module != null && this.activate(module, "handler " + type.getName());
+    }
+
+    /**
+     * Activate all deferred modules, for example to load every module once while the classes are recorded
+     *
+     * @param reason The reason of the activation, used for logging
+     * @return The number of activated modules
+     */
+    public int activateAll(@NonNull String reason) {
+        int activated = 0;
+        for (IModule module : this.getDeferred()) {
+            if (this.activate(module.getModuleDescription().getName(), reason)) activated++;
+        }
+
+        return activated;
+    }
+
+    private boolean activate(String name, String reason) {
+        IModule target;
+        Map<String, IModule> toActivate = new LinkedHashMap<>();
+        synchronized (this) {
+            target = this.deferred.get(name);
+            if (target == null) return false;
+
+            // Collect all deferred modules the module depends on
+            Deque<IModule> queue = new ArrayDeque<>(List.of(target));
+            while (!queue.isEmpty()) {
+                IModule module = queue.poll();
+                if (toActivate.putIfAbsent(module.getModuleDescription().getName(), module) != null) continue;
+
+                for (String dependency : this.getAllDependencies(module.getModuleDescription())) {
+                    IModule deferredDependency = this.deferred.get(dependency);
+                    if (deferredDependency != null) queue.add(deferredDependency);
+                }
+            }
+
+            // Taken out before the lock is released, so no other trigger activates them again
+            for (IModule module : toActivate.values()) this.remove(module);
+        }
+
+        AtomicBoolean activated = new AtomicBoolean();
+        this.loaderLock.execute(() -> activated.set(this.activate(name, reason, target, toActivate)));
+        return activated.get();
+    }
+
+    private boolean activate(String name, String reason, IModule target, Map<String, IModule> toActivate) {
+        this.logHandler.info("Activating " + name + " for the " + reason + "...");
+
+        ModuleGraph graph = new ModuleGraph(toActivate.values(), module -> this.moduleHandler.get(module) != null);
+        for (IModule module : graph.getUnresolved())
+            this.logHandler.error("Couldn't activate the module " + module.getModuleDescription().getName() +
+                    ", because a dependency is missing.");
+        for (IModule module : graph.getCyclic())
+            this.logHandler.error("Couldn't activate the module " + module.getModuleDescription().getName() +
+                    ", because its dependencies contain a cycle.");
+
+        List<IModule> loaded = new ArrayList<>();
+        for (List<IModule> wave : graph.getWaves()) {
+            for (IModule module : wave) {
+                try {
+                    this.moduleHandler.loadWithInterpreter(module);
+                    loaded.add(module);
+                } catch (Exception e) {
+                    this.logHandler.error("An error occurred while trying to load the module " +
+                            module.getModuleDescription().getName(), e);
+                }
+            }
+        }
+
+        ModuleTask startTask = new ModuleStartTask(this.logHandler, this.moduleHandler);
+        for (IModule module : loaded) {
+            try {
+                this.moduleScheduler.execute(module, "start", startTask, this.startTimeout.applyAsLong(module));
+            } catch (Exception e) {
+                module.setFailed(true);
+                this.logHandler.error("An error occurred while trying to start the module " +
+                        module.getModuleDescription().getName(), e);
+            }
+        }
+
+        if (!target.isRunning()) return false;
+
+        this.logHandler.info("Activated " + name + ".");
+        return true;
+    }
+
+    /**
+     * Stop deferring modules, for example because their folder or bundle changed and they are read again
+     *
+     * @param filter Selects the modules to remove
+     * @return The removed modules
+     */
+    @NotNull
+    public synchronized List<IModule> undefer(@NonNull Predicate<IModule> filter) {
+        List<IModule> removed = new ArrayList<>();
+        for (IModule module : List.copyOf(this.deferred.values())) {
+            if (!filter.test(module)) continue;
+
+            this.remove(module);
+            removed.add(module);
+        }
+
+        return removed;
+    }
+
+    private void remove(IModule module) {
+        String name = module.getModuleDescription().getName();
+        this.deferred.remove(name);
+        this.commandTriggers.values().removeIf(name::equals);
+        this.handlerTriggers.values().removeIf(name::equals);
+    }
+
+    private List<String> getAllDependencies(IModuleDescription description) {
+        List<String> dependencies = new ArrayList<>(description.getDependencies());
+        dependencies.addAll(description.getSoftDependencies());
+        return dependencies;
+    }
+
+    /**
+     * @return All modules, witch are waiting for one of their triggers
+     */
+    @NotNull
+    public synchronized List<IModule> getDeferred() {
+        return List.copyOf(this.deferred.values());
+    }
+
+}
@@ -0,0 +1,185 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.NonNull;
+import me.cnm.shared.module.IModuleDescription;
+import me.cnm.shared.module.loading.IModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Dependency graph of a set of modules, built from the dependencies and soft dependencies of their module.json<br>
+ * The graph is checked for cycles once on creation and split into waves, where each module of a wave only depends on
+ * modules of previous waves (or modules that are already available)
+ */
+public class ModuleGraph {
+
+    private final Map<String, IModule> modules = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    private final List<IModule> unresolved = new ArrayList<>();
+    private final List<IModule> cyclic = new ArrayList<>();
+    private final List<List<IModule>> waves = new ArrayList<>();
+
+    /**
+     * Create the graph
+     *
+     * @param modules   The modules to order
+     * @param available Check whether a module, that is not part of {@code modules}, is already available and
+     *                  can be used as dependency
+     */
+    public ModuleGraph(@NonNull Collection<IModule> modules, @NonNull Predicate<String> available) {
+        for (IModule module : modules) this.modules.putIfAbsent(module.getModuleDescription().getName(), module);
+
+        this.resolve(available);
+        this.buildWaves();
+    }
+
+    private void resolve(Predicate<String> available) {
+        // Remove all modules with missing dependencies, until no more module is removed
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (Iterator<IModule> iterator = this.modules.values().iterator(); iterator.hasNext(); ) {
+                IModule module = iterator.next();
+
+                for (String dependency : module.getModuleDescription().getDependencies()) {
+                    if (!this.modules.containsKey(dependency) && !available.test(dependency)) {
+                        this.unresolved.add(module);
+                        iterator.remove();
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (IModule module : this.modules.values()) {
+            IModuleDescription description = module.getModuleDescription();
+            Set<String> edges = new LinkedHashSet<>();
+
+            for (String dependency : description.getDependencies())
+                if (this.modules.containsKey(dependency)) edges.add(dependency);
+
+            for (String dependency : description.getSoftDependencies())
+                if (this.modules.containsKey(dependency)) edges.add(dependency);
+
+            this.dependencies.put(description.getName(), edges);
+            for (String edge : edges) this.dependents.computeIfAbsent(edge, key -> new LinkedHashSet<>())
+                    .add(description.getName());
+        }
+    }
+
+    private void buildWaves() {
+        Set<String> remaining = this.layer(new LinkedHashSet<>(this.modules.keySet()));
+        if (remaining.isEmpty()) return;
+
+        // Soft dependencies can't enforce an order inside a cycle, so they are ignored there
+        for (String name : remaining) {
+            List<String> soft = this.modules.get(name).getModuleDescription().getSoftDependencies();
+            for (String dependency : soft) {
+                if (!remaining.contains(dependency) || this.isHardDependency(name, dependency)) continue;
+
+                this.dependencies.get(name).remove(dependency);
+                this.dependents.get(dependency).remove(name);
+            }
+        }
+
+        remaining = this.layer(remaining);
+        for (String name : remaining) this.cyclic.add(this.modules.get(name));
+    }
+
+    private Set<String> layer(Set<String> remaining) {
+        while (!remaining.isEmpty()) {
+            List<IModule> wave = new ArrayList<>();
+
+            for (String name : remaining) {
+                boolean ready = true;
+                for (String dependency : this.dependencies.get(name)) {
+                    if (remaining.contains(dependency)) {
+                        ready = false;
+                        break;
+                    }
+                }
+
+                if (ready) wave.add(this.modules.get(name));
+            }
+
+            if (wave.isEmpty()) break;
+
+            for (IModule module : wave) remaining.remove(module.getModuleDescription().getName());
+            this.waves.add(wave);
+        }
+
+        return remaining;
+    }
+
+    private boolean isHardDependency(String module, String dependency) {
+        return this.modules.get(module).getModuleDescription().getDependencies().contains(dependency);
+    }
+
+    /**
+     * Get the waves of the graph in topological order<br>
+     * All modules of a wave are independent of each other and can be handled concurrently
+     *
+     * @return The waves of the graph
+     */
+    @NotNull
+    public List<List<IModule>> getWaves() {
+        return Collections.unmodifiableList(this.waves);
+    }
+
+    /**
+     * @return All modules which can't be ordered, because a dependency is missing
+     */
+    @NotNull
+    public List<IModule> getUnresolved() {
+        return Collections.unmodifiableList(this.unresolved);
+    }
+
+    /**
+     * @return All modules which can't be ordered, because they are part of or depend on a dependency cycle
+     */
+    @NotNull
+    public List<IModule> getCyclic() {
+        return Collections.unmodifiableList(this.cyclic);
+    }
+
+    /**
+     * Get a module of the graph
+     *
+     * @param name The name of the module
+     * @return The module, or null if it isn't part of the graph
+     */
+    @Nullable
+    public IModule getModule(@NonNull String name) {
+        return this.modules.get(name);
+    }
+
+    /**
+     * Get the names of all modules of the graph the module depends on (hard and soft)
+     *
+     * @param name The name of the module
+     * @return The dependencies inside the graph
+     */
+    @NotNull
+    public Set<String> getDependencies(@NonNull String name) {
+        return Collections.unmodifiableSet(this.dependencies.getOrDefault(name, Set.of()));
+    }
+
+    /**
+     * Get the names of all modules of the graph that depend on the module (hard and soft)
+     *
+     * @param name The name of the module
+     * @return The dependents inside the graph
+     */
+    @NotNull
+    public Set<String> getDependents(@NonNull String name) {
+        return Collections.unmodifiableSet(this.dependents.getOrDefault(name, Set.of()));
+    }
+
+}
@@ -1,58 +1,338 @@
 package me.cnm.impl.shared.module.loading;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.impl.shared.module.bundle.ModuleBundle;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
 import me.cnm.shared.cli.log.ILogHandler;
 import me.cnm.shared.module.loading.IModule;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
 public class ModuleLoader {
 
     private final ILogHandler logHandler;
     private final ModuleHandler moduleHandler;
+    private final ModuleLoaderConfiguration configuration;
+
+    private final ExecutorService executorService;
+    private final ThreadLocal<Boolean> worker = ThreadLocal.withInitial(() -> false);
+    private final ModuleScheduler moduleScheduler;
+
+    @Getter
+    private final ModuleActivator moduleActivator;
+    // Read by stop without the lock, so stopping isn't blocked by a running reload
+    private volatile ModuleWatcher moduleWatcher;
+
+    public ModuleLoader(ILogHandler logHandler, ModuleHandler moduleHandler, ModuleLoaderConfiguration configuration) {
+        this.logHandler = logHandler;
+        this.moduleHandler = moduleHandler;
+        this.configuration = configuration;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(configuration.getThreads(), runnable -> {
+            Thread thread = new Thread(() -> {
+                this.worker.set(true);
+                runnable.run();
+            }, "module-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.moduleScheduler = new ModuleScheduler(logHandler, this.executorService, new ModuleWatchdog(logHandler));
+        this.moduleActivator = new ModuleActivator(logHandler, moduleHandler, this.moduleScheduler,
+                module -> configuration.getStartTimeout(module.getModuleDescription().getName()), this::runLocked);
+    }
+
+    /**
+     * Run an action under the lock of the loader, so it doesn't overlap with a load, reload or stop<br>
+     * The workers run the tasks of the thread holding the lock, witch waits for them, so they run the action directly
+     *
+     * @param action The action
+     */
+    private void runLocked(Runnable action) {
+        if (this.worker.get()) {
+            action.run();
+            return;
+        }
 
-    public void load() {
+        synchronized (this) {
+            action.run();
+        }
+    }
+
+    public synchronized void load() {
         this.loadModules();
         this.startModules();
+
+        if (this.configuration.isHotReload()) {
+            this.moduleWatcher = new ModuleWatcher(this.logHandler, this::reload, new File("modules"),
+                    this.configuration.getHotReloadDelay());
+            this.moduleWatcher.start();
+        }
     }
 
-    private void loadModules() {
-        List<IModule> toLoadModules = this.getModulesFromFolder();
+    /**
+     * Reload the modules of the passed folders<br>
+     * Loaded modules are stopped and unloaded together with all modules, witch depend on them (hard), and are then
+     * loaded and started again from their folder. Folders without a loaded module are loaded as new modules<br>
+     * A changed bundle reloads all modules of the bundle from the new file<br>
+     * Deferred modules are read again and stay deferred, until one of their triggers is used
+     *
+     * @param folders The changed module folders and bundles
+     */
+    public synchronized void reload(Collection<File> folders) {
+        Map<String, IModule> affected = new LinkedHashMap<>();
+        List<File> toLoadFolders = new ArrayList<>();
+        Set<File> toLoadBundles = new LinkedHashSet<>();
+        Set<String> deferred = new LinkedHashSet<>();
+        Set<File> deferredFolders = new HashSet<>();
+
+        for (File folder : folders) {
+            // A changed bundle reloads all of its modules from the new file
+            if (folder.getName().endsWith(ModuleBundle.EXTENSION)) {
+                File bundle = folder.getAbsoluteFile().toPath().normalize().toFile();
+                for (IModule module : this.moduleActivator.undefer(module -> bundle.equals(getBundleFile(module))))
+                    deferred.add(module.getModuleDescription().getName());
+                for (IModule module : this.moduleHandler.getAll()) {
+                    if (bundle.equals(getBundleFile(module)))
+                        affected.put(module.getModuleDescription().getName(), module);
+                }
+                if (bundle.isFile()) toLoadBundles.add(bundle);
+                continue;
+            }
 
-        int counter = 0;
-        while (++counter < 3 && !toLoadModules.isEmpty()) {
-            List<IModule> loaded = new ArrayList<>();
+            // A deferred module isn't loaded, so it's only read again
+            List<IModule> deferredModules = this.moduleActivator.undefer(module -> getBundleFile(module) == null &&
+                    isFolder(module, folder));
+            if (!deferredModules.isEmpty()) {
+                for (IModule module : deferredModules) deferred.add(module.getModuleDescription().getName());
+                if (new File(folder, "module.json").isFile()) {
+                    toLoadFolders.add(folder);
+                    deferredFolders.add(folder);
+                }
+                continue;
+            }
 
-            for (IModule toLoadModule : toLoadModules) {
-                if (this.getModuleLoadIndex(toLoadModule) <= counter) {
-                    try {
-                        this.moduleHandler.loadWithInterpreter(toLoadModule);
-                    } catch (Exception e) {
-                        this.logHandler.error("An error occurred while trying to load the module " +
-                                toLoadModule.getModuleDescription().getName(), e);
+            IModule module = this.getModuleByFolder(folder);
+            if (module != null) affected.put(module.getModuleDescription().getName(), module);
+            else if (new File(folder, "module.json").isFile()) toLoadFolders.add(folder);
+        }
+
+        // All modules with a hard dependency on a reloaded module have to be reloaded too
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (IModule module : this.moduleHandler.getAll()) {
+                String name = module.getModuleDescription().getName();
+                if (affected.containsKey(name)) continue;
+
+                for (String dependency : module.getModuleDescription().getDependencies()) {
+                    if (affected.containsKey(dependency)) {
+                        affected.put(name, module);
+                        changed = true;
+                        break;
                     }
-                    loaded.add(toLoadModule);
-                    counter = 0;
                 }
             }
+        }
 
-            toLoadModules.removeAll(loaded);
-            loaded.clear();
+        if (affected.isEmpty() && toLoadFolders.isEmpty() && toLoadBundles.isEmpty()) return;
+        List<String> names = new ArrayList<>(affected.keySet());
+        for (File folder : toLoadFolders) names.add(folder.getName() + (deferredFolders.contains(folder) ?
+                " (deferred)" : " (new)"));
+        for (File bundle : toLoadBundles) names.add(bundle.getName() + " (bundle)");
+        this.logHandler.info("Reloading " + String.join(", ", names) + "...");
+
+        // The state of the reloaded modules is handed over to their new instances
+        JavaInterpreter javaInterpreter = this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter
+                interpreter ? interpreter : null;
+        if (javaInterpreter != null) javaInterpreter.beginReload(affected.keySet());
+        try {
+            this.reload(affected, toLoadFolders, toLoadBundles, deferred);
+        } finally {
+            if (javaInterpreter != null) javaInterpreter.endReload(affected.keySet());
+        }
+    }
+
+    private void reload(Map<String, IModule> affected, List<File> toLoadFolders, Set<File> toLoadBundles,
+                        Set<String> deferred) {
+        List<IModule> notStopped = this.stopModules(affected.values(), this.configuration.getStopBudget());
+        List<IModule> notUnloaded = this.unloadModules(affected.values(), 0);
+
+        List<IModule> toLoadModules = new ArrayList<>();
+        for (IModule module : affected.values()) {
+            if (notStopped.contains(module) || notUnloaded.contains(module)) {
+                this.logHandler.error("Couldn't reload the module " + module.getModuleDescription().getName() +
+                        ", because it couldn't be stopped.");
+                continue;
+            }
+
+            File bundle = getBundleFile(module);
+            if (bundle == null) {
+                if (new File(module.getDataFolder(), "module.json").isFile())
+                    toLoadFolders.add(module.getDataFolder());
+            } else if (!toLoadBundles.contains(bundle)) {
+                // The bundle didn't change, so the module is loaded again from the same mapping
+                try {
+                    toLoadModules.add(this.moduleHandler.createModule(((Module) module).getBundledModule()));
+                } catch (RuntimeException e) {
+                    this.logHandler.error("Couldn't reload the module " + module.getModuleDescription().getName(), e);
+                    module.setFailed(true);
+                }
+            }
         }
 
-        if (!toLoadModules.isEmpty()) {
+        for (File bundle : toLoadBundles) {
+            for (IModule module : this.readBundle(bundle)) {
+                if (this.moduleHandler.get(module.getModuleDescription().getName()) == null) toLoadModules.add(module);
+            }
+        }
+
+        for (File folder : toLoadFolders) {
+            try {
+                toLoadModules.add(this.moduleHandler.createModule(folder));
+            } catch (Exception e) {
+                this.logHandler.error("An error occurred while trying to read a module.json", e);
+            }
+        }
+
+        // Modules, witch were deferred before, are deferred again instead of being loaded now
+        List<IModule> toDefer = new ArrayList<>();
+        for (Iterator<IModule> iterator = toLoadModules.iterator(); iterator.hasNext(); ) {
+            IModule module = iterator.next();
+            if (!deferred.contains(module.getModuleDescription().getName())) continue;
+
+            toDefer.add(module);
+            iterator.remove();
+        }
+        toLoadModules.addAll(this.moduleActivator.defer(toDefer));
+
+        for (IModule module : this.loadModules(toLoadModules)) {
+            this.logHandler.error("Couldn't reload the module " + module.getModuleDescription().getName() + ".");
+            module.setFailed(true);
+        }
+
+        this.startModules();
+        this.moduleHandler.getModuleCache().save();
+    }
+
+    private IModule getModuleByFolder(File folder) {
+        for (IModule module : this.moduleHandler.getAll()) {
+            // The data folder of a bundled module isn't its source, so creating or changing it doesn't reload it
+            if (getBundleFile(module) == null && isFolder(module, folder)) return module;
+        }
+
+        return null;
+    }
+
+    private static boolean isFolder(IModule module, File folder) {
+        return module.getDataFolder().getAbsoluteFile().toPath().normalize()
+                .equals(folder.getAbsoluteFile().toPath().normalize());
+    }
+
+    private void loadModules() {
+        List<IModule> toLoadModules = new ArrayList<>();
+        List<IModule> notLoaded = new ArrayList<>();
+
+        for (IModule module : this.getModulesFromFolder()) {
+            if (this.moduleHandler.getInterpreter(module.getModuleDescription().getLanguage()) == null)
+                notLoaded.add(module);
+            else toLoadModules.add(module);
+        }
+
+        int found = toLoadModules.size();
+        toLoadModules = this.moduleActivator.defer(toLoadModules);
+        if (toLoadModules.size() < found)
+            this.logHandler.info("Deferred " + (found - toLoadModules.size()) + " modules until they are triggered.");
+
+        notLoaded.addAll(this.loadModules(toLoadModules));
+
+        if (!notLoaded.isEmpty()) {
             this.logHandler.error("Not all modules could be loaded.");
             this.logHandler.error("Maybe there dependencies are not installed?");
             this.logHandler.error("The following modules are affected:");
-            for (IModule toLoadModule : toLoadModules)
-                this.logHandler.error("- " + toLoadModule.getModuleDescription().getName());
+            for (IModule module : notLoaded)
+                this.logHandler.error("- " + module.getModuleDescription().getName());
+        }
+    }
+
+    /**
+     * Load modules on the worker pool, each as soon as all of its dependencies are loaded<br>
+     * Used for the modules found on startup and for reloaded modules
+     *
+     * @param modules The modules to load
+     * @return All modules, witch couldn't be loaded
+     */
+    private List<IModule> loadModules(List<IModule> modules) {
+        long start = System.nanoTime();
+
+        // All libraries are added before the first module, so conflicts don't depend on the order of the loader threads
+        List<IModule> notLoaded = this.addLibraries(modules);
+        List<IModule> toLoadModules = new ArrayList<>(modules);
+        toLoadModules.removeAll(notLoaded);
+
+        ModuleGraph graph = new ModuleGraph(toLoadModules, name -> this.moduleHandler.get(name) != null);
+        for (IModule module : graph.getUnresolved())
+            this.logHandler.error("Couldn't load the module " + module.getModuleDescription().getName() +
+                    ", because a dependency is missing.");
+        if (!graph.getCyclic().isEmpty())
+            this.logHandler.error("The dependencies of some modules contain a cycle.");
+
+        notLoaded.addAll(graph.getUnresolved());
+        notLoaded.addAll(graph.getCyclic());
+        notLoaded.addAll(this.moduleScheduler.schedule(graph, "load", this.moduleHandler::loadWithInterpreter,
+                module -> 0));
+        this.releaseLibraries(notLoaded);
+
+        this.logHandler.info("Loaded " + (modules.size() - notLoaded.size()) + " modules in " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        return notLoaded;
+    }
+
+    /**
+     * Add the shared libraries of all modules, witch are about to be loaded
+     *
+     * @param modules The modules
+     * @return All modules, whose libraries couldn't be added
+     */
+    private List<IModule> addLibraries(Collection<IModule> modules) {
+        List<IModule> failed = new ArrayList<>();
+        if (!(this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter javaInterpreter)) return failed;
+
+        for (IModule module : modules) {
+            String name = module.getModuleDescription().getName();
+            // A module with the name of a loaded module fails anyway, and must not change the libraries of the other
+            if (this.moduleHandler.getInterpreter(module.getModuleDescription().getLanguage()) != javaInterpreter ||
+                    this.moduleHandler.get(name) != null) continue;
+
+            try {
+                javaInterpreter.addLibraries(module);
+            } catch (Exception e) {
+                this.logHandler.error("Couldn't load the module " + name + ", because its libraries couldn't be " +
+                        "added", e);
+                failed.add(module);
+            }
+        }
+
+        return failed;
+    }
+
+    /**
+     * Release the shared libraries of modules, witch weren't loaded
+     *
+     * @param modules The modules
+     */
+    private void releaseLibraries(Collection<IModule> modules) {
+        if (!(this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter javaInterpreter)) return;
+
+        for (IModule module : modules) {
+            if (this.moduleHandler.getInterpreter(module.getModuleDescription().getLanguage()) == javaInterpreter)
+                javaInterpreter.releaseLibraries(module);
         }
     }
 
@@ -63,11 +343,23 @@ public class ModuleLoader {
             moduleDirectory.mkdirs();
         }
 
+        Map<String, IModule> bundledModules = new LinkedHashMap<>();
+        File[] bundles = moduleDirectory.listFiles(ModuleBundle::isBundle);
+        if (bundles != null) {
+            for (File bundle : bundles) {
+                for (IModule module : this.readBundle(bundle))
+                    bundledModules.putIfAbsent(module.getModuleDescription().getName(), module);
+            }
+        }
+
         String[] directories = moduleDirectory.list((dir, name) -> new File(dir, name).isDirectory());
-        if (directories == null) return new ArrayList<>();
+        if (directories == null) return new ArrayList<>(bundledModules.values());
 
-        return Arrays.stream(directories)
+        List<IModule> modules = Arrays.stream(directories)
                 .map(name -> new File(moduleDirectory, name))
+                // The data folders of bundled modules don't contain a module.json
+                .filter(file -> !bundledModules.containsKey(file.getName()) ||
+                        new File(file, "module.json").exists())
                 .map(file -> {
                     try {
                         IModule module = this.moduleHandler.createModule(file);
@@ -80,135 +372,135 @@ public class ModuleLoader {
                 })
                 .filter(Objects::nonNull)
                 .collect(Collectors.toCollection(ArrayList::new));
-    }
-
-    private int getModuleLoadIndex(IModule module) {
-        if (this.moduleHandler.getInterpreter(module.getModuleDescription().getLanguage()) == null) return 3;
 
-        for (String dependency : module.getModuleDescription().getDependencies()) {
-            if (this.moduleHandler.get(dependency) == null) return 3;
+        // A module folder overrides the module of a bundle, so a single module can be replaced without a new bundle
+        for (IModule module : modules) {
+            if (bundledModules.remove(module.getModuleDescription().getName()) != null)
+                this.logHandler.warn("The bundled module " + module.getModuleDescription().getName() + " is " +
+                        "overridden by its folder.");
         }
+        modules.addAll(bundledModules.values());
+
+        return modules;
+    }
 
-        for (String dependency : module.getModuleDescription().getSoftDependencies()) {
-            if (this.moduleHandler.get(dependency) == null) return 2;
+    private List<IModule> readBundle(File bundle) {
+        try {
+            List<IModule> modules = this.moduleHandler.createModules(bundle);
+            for (IModule module : modules)
+                this.logHandler.info("Module " + module.getModuleDescription().getName() + " found in " +
+                        bundle.getName() + ".");
+            return modules;
+        } catch (Exception e) {
+            this.logHandler.error("An error occurred while trying to read the bundle " + bundle.getName(), e);
+            return Collections.emptyList();
         }
+    }
 
-        return 1;
+    private static File getBundleFile(IModule module) {
+        if (!(module instanceof Module moduleImpl) || moduleImpl.getBundledModule() == null) return null;
+        return moduleImpl.getBundledModule().getBundle().getFile().getAbsoluteFile().toPath().normalize().toFile();
     }
 
     private void startModules() {
-        List<IModule> toStartModules = new ArrayList<>(List.copyOf(this.moduleHandler.getAll()));
-        int counter = 0;
-        while (++counter < 3 && !toStartModules.isEmpty()) {
-            List<IModule> started = new ArrayList<>();
+        long start = System.nanoTime();
 
-            for (IModule toStartModule : toStartModules) {
-                if (this.getModuleStartIndex(toStartModule) <= counter) {
-                    try {
-                        this.logHandler.info("Starting " + toStartModule.getModuleDescription().getName() + "...");
-                        this.moduleHandler.startModule(toStartModule);
-                        this.logHandler.info("Started " + toStartModule.getModuleDescription().getName() + ".");
-                    } catch (Exception e) {
-                        this.logHandler.error("An error occurred while trying to start the module " +
-                                toStartModule.getModuleDescription().getName(), e);
-                    }
-                    started.add(toStartModule);
-                    counter = 0;
-                }
-            }
-
-            toStartModules.removeAll(started);
+        List<IModule> toStartModules = new ArrayList<>();
+        for (IModule module : this.moduleHandler.getAll()) {
+            if (!module.isRunning() && !module.isFailed()) toStartModules.add(module);
         }
-    }
 
-    private int getModuleStartIndex(IModule module) {
-        if (this.moduleHandler.getInterpreter(module.getModuleDescription().getLanguage()) == null) return 3;
+        ModuleGraph graph = new ModuleGraph(toStartModules, name -> {
+            IModule module = this.moduleHandler.get(name);
+            return module != null && module.isRunning();
+        });
 
-        for (String dependency : module.getModuleDescription().getDependencies()) {
-            if (!Objects.requireNonNull(this.moduleHandler.get(dependency)).isRunning()) return 3;
-        }
+        List<IModule> notStarted = new ArrayList<>(graph.getUnresolved());
+        notStarted.addAll(graph.getCyclic());
+        notStarted.addAll(this.moduleScheduler.schedule(graph, "start",
+                new ModuleStartTask(this.logHandler, this.moduleHandler),
+                module -> this.configuration.getStartTimeout(module.getModuleDescription().getName())));
 
-        for (String dependency : module.getModuleDescription().getSoftDependencies()) {
-            if (!Objects.requireNonNull(this.moduleHandler.get(dependency)).isRunning()) return 2;
-        }
+        this.logHandler.info("Started " + (toStartModules.size() - notStarted.size()) + " modules in " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
 
-        return 1;
+        if (!notStarted.isEmpty()) {
+            this.logHandler.error("Not all modules could be started.");
+            this.logHandler.error("The following modules are affected:");
+            for (IModule module : notStarted) {
+                module.setFailed(true);
+                this.logHandler.error("- " + module.getModuleDescription().getName());
+            }
+        }
     }
 
     public void stop() {
-        this.stopModules();
-        this.unloadModules();
+        if (this.moduleWatcher != null) this.moduleWatcher.stop();
+
+        synchronized (this) {
+            this.stopAll();
+        }
     }
 
-    private void stopModules() {
-        List<IModule> actionModules = new ArrayList<>(List.copyOf(this.moduleHandler.getAll()));
-        int counter = 0;
-        while (counter++ < 3 && !actionModules.isEmpty()) {
-            List<IModule> stopped = new ArrayList<>();
+    private void stopAll() {
+        long start = System.nanoTime();
+        long budget = this.configuration.getStopBudget();
 
-            for (IModule actionModule : actionModules) {
-                if (this.getModuleStopIndex(actionModule) <= counter) {
-                    try {
-                        this.logHandler.info("Stopping " + actionModule.getModuleDescription().getName() + "...");
-                        this.moduleHandler.stopModule(actionModule);
-                        this.logHandler.info("Stopping " + actionModule.getModuleDescription().getName() + ".");
-                    } catch (Exception e) {
-                        this.logHandler.error("An error occurred while trying to stop the module " +
-                                actionModule.getModuleDescription().getName(), e);
-                    }
-                    stopped.add(actionModule);
-                    counter = 0;
-                }
-            }
+        List<IModule> notStopped = this.stopModules(this.moduleHandler.getAll(), budget);
 
-            actionModules.removeAll(stopped);
-        }
-    }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        List<IModule> notUnloaded = this.unloadModules(this.moduleHandler.getAll(),
+                budget > 0 ? Math.max(1, budget - elapsed) : 0);
 
-    private int getModuleStopIndex(IModule module) {
-        String name = module.getModuleDescription().getName();
+        this.logHandler.info("Stopped all modules in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) +
+                " ms.");
 
-        for (IModule targetModule : this.moduleHandler.getAll()) {
-            if (targetModule.getModuleDescription().getDependencies().contains(name) && targetModule.isRunning()) return 3;
-            if (targetModule.getModuleDescription().getSoftDependencies().contains(name) && targetModule.isRunning()) return 2;
+        if (!notStopped.isEmpty() || !notUnloaded.isEmpty()) {
+            this.logHandler.error("Not all modules could be stopped cleanly.");
+            this.logHandler.error("The following modules are affected:");
+            for (IModule module : notStopped)
+                this.logHandler.error("- " + module.getModuleDescription().getName() + " (not stopped)");
+            for (IModule module : notUnloaded) {
+                if (!notStopped.contains(module))
+                    this.logHandler.error("- " + module.getModuleDescription().getName() + " (not unloaded)");
+            }
         }
 
-        return 1;
+        this.executorService.shutdownNow();
     }
 
-    private void unloadModules() {
-        List<IModule> actionModules = new ArrayList<>(List.copyOf(this.moduleHandler.getAll()));
-        int counter = 0;
-        while (counter++ < 3 && !actionModules.isEmpty()) {
-            List<IModule> unloaded = new ArrayList<>();
+    private List<IModule> stopModules(Collection<IModule> modules, long budget) {
+        List<IModule> toStopModules = new ArrayList<>();
+        for (IModule module : modules) {
+            if (module.isRunning()) toStopModules.add(module);
+        }
 
-            for (IModule actionModule : actionModules) {
-                if (this.getModuleUnloadIndex(actionModule) <= counter) {
-                    try {
-                        this.moduleHandler.unloadModule(actionModule);
-                    } catch (Exception e) {
-                        this.logHandler.error("An error occurred while trying to unload the module " +
-                                actionModule.getModuleDescription().getName(), e);
-                    }
-                    unloaded.add(actionModule);
-                    counter = 0;
-                }
-            }
+        ModuleGraph graph = new ModuleGraph(toStopModules, name -> true);
 
-            actionModules.removeAll(unloaded);
-        }
+        List<IModule> notStopped = new ArrayList<>(graph.getCyclic());
+        notStopped.addAll(this.moduleScheduler.schedule(graph, "stop", module -> {
+            this.logHandler.info("Stopping " + module.getModuleDescription().getName() + "...");
+            // The scheduler already stopped or gave up on all dependents
+            this.moduleHandler.stopWithInterpreter(module);
+            this.logHandler.info("Stopped " + module.getModuleDescription().getName() + ".");
+        }, module -> this.configuration.getStopTimeout(module.getModuleDescription().getName()), budget, true));
+
+        return notStopped;
     }
 
-    private int getModuleUnloadIndex(IModule module) {
-        String name = module.getModuleDescription().getName();
+    private List<IModule> unloadModules(Collection<IModule> modules, long budget) {
+        ModuleGraph graph = new ModuleGraph(modules, name -> true);
 
-        for (IModule targetModule : this.moduleHandler.getAll()) {
-            if (targetModule.getModuleDescription().getDependencies().contains(name)) return 3;
-            if (targetModule.getModuleDescription().getSoftDependencies().contains(name)) return 2;
-        }
+        List<IModule> notUnloaded = new ArrayList<>(graph.getCyclic());
+        notUnloaded.addAll(this.moduleScheduler.schedule(graph, "unload", module -> {
+            if (module.isRunning())
+                throw new IllegalStateException("The module " + module.getModuleDescription().getName() +
+                        " is still running.");
 
-        return 1;
-    }
+            this.moduleHandler.unloadModule(module);
+        }, module -> 0, budget, true));
 
+        return notUnloaded;
+    }
 
 }
@@ -0,0 +1,95 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import me.cnm.shared.utility.configuration.IConfigurationHandler;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Settings of the {@link ModuleLoader}, the resource accounting and the thread pools of the modules, stored in the "modules" entry of the config.json
+ */
+@Getter
+public class ModuleLoaderConfiguration {
+
+    private final int threads;
+    private final long startTimeout;
+    private final long stopTimeout;
+    private final long stopBudget;
+    private final boolean hotReload;
+    private final long hotReloadDelay;
+    private final long resourceInterval;
+    private final int ioThreads;
+    private final int cpuThreads;
+    private final long executorTimeout;
+
+    @Getter(AccessLevel.NONE)
+    private final JsonDocument startTimeouts;
+    @Getter(AccessLevel.NONE)
+    private final JsonDocument stopTimeouts;
+
+    public ModuleLoaderConfiguration(@NonNull IConfigurationHandler configurationHandler) {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        JsonDocument configuration = configurationHandler.getEntry("modules", new JsonDocument()
+                        .append("threads", processors)
+                        .append("startTimeout", 30000L)
+                        .append("startTimeouts", new JsonDocument())
+                        .append("stopTimeout", 10000L)
+                        .append("stopTimeouts", new JsonDocument())
+                        .append("stopBudget", 60000L)
+                        .append("hotReload", false)
+                        .append("hotReloadDelay", 1000L)
+                        .append("resourceInterval", 5000L)
+                        .append("ioThreads", 32)
+                        .append("cpuThreads", processors)
+                        .append("executorTimeout", 5000L),
+                JsonDocument.class);
+
+        this.threads = Math.max(1, configuration.getInt("threads", processors));
+        this.startTimeout = this.getLong(configuration, "startTimeout", 30000L);
+        this.startTimeouts = configuration.getDocument("startTimeouts", new JsonDocument());
+        this.stopTimeout = this.getLong(configuration, "stopTimeout", 10000L);
+        this.stopTimeouts = configuration.getDocument("stopTimeouts", new JsonDocument());
+        this.stopBudget = this.getLong(configuration, "stopBudget", 60000L);
+        this.hotReload = configuration.contains("hotReload") &&
+                Boolean.TRUE.equals(configuration.getBoolean("hotReload"));
+        this.hotReloadDelay = Math.max(0, this.getLong(configuration, "hotReloadDelay", 1000L));
+        this.resourceInterval = this.getLong(configuration, "resourceInterval", 5000L);
+        this.ioThreads = Math.max(1, configuration.getInt("ioThreads", 32));
+        this.cpuThreads = Math.max(1, configuration.getInt("cpuThreads", processors));
+        this.executorTimeout = this.getLong(configuration, "executorTimeout", 5000L);
+    }
+
+    private long getLong(JsonDocument document, String key, long def) {
+        if (!document.contains(key)) return def;
+        return Objects.requireNonNull(document.getLong(key));
+    }
+
+    /**
+     * Get the time in milliseconds a module may take to start, before it's marked as failed<br>
+     * Can be overwritten for single modules in the "startTimeouts" entry, 0 or lower disables the deadline
+     *
+     * @param module The name of the module
+     * @return The start deadline of the module
+     */
+    public long getStartTimeout(@NotNull String module) {
+        return this.getLong(this.startTimeouts, module, this.startTimeout);
+    }
+
+    /**
+     * Get the time in milliseconds a module may take to stop, before it's reported as not stopped cleanly<br>
+     * Can be overwritten for single modules in the "stopTimeouts" entry, 0 or lower disables the deadline<br>
+     * All modules together are still limited by the stop budget
+     *
+     * @param module The name of the module
+     * @return The stop deadline of the module
+     */
+    public long getStopTimeout(@NotNull String module) {
+        return this.getLong(this.stopTimeouts, module, this.stopTimeout);
+    }
+
+}
@@ -0,0 +1,412 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.loading.IModule;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Executes a task for all modules of a {@link ModuleGraph} on a worker pool<br>
+ * The task of a module is submitted as soon as the tasks of all of its dependencies finished, so independent modules
+ * are handled concurrently and a slow module only delays the modules depending on it<br>
+ * A module exceeding its deadline is reported by the {@link ModuleWatchdog} with the stack of the hanging thread
+ */
+@RequiredArgsConstructor
+public class ModuleScheduler {
+
+    private final ILogHandler logHandler;
+    private final ExecutorService executorService;
+    private final ModuleWatchdog moduleWatchdog;
+
+    /**
+     * Execute a task for all modules of the graph, starting with the modules without dependencies<br>
+     * If the task of a module fails or doesn't finish before its deadline, the module is reported as failed and all
+     * modules with a hard dependency on it are skipped
+     *
+     * @param graph    The graph of the modules
+     * @param action   The name of the action, used for logging
+     * @param task     The task to execute for each module
+     * @param deadline The deadline in milliseconds for the task of a module, 0 or lower for none
+     * @return All modules, for which the task failed, didn't finish in time or was skipped
+     */
+    @NotNull
+    public List<IModule> schedule(@NonNull ModuleGraph graph, @NonNull String action, @NonNull ModuleTask task,
+                                  @NonNull ToLongFunction<IModule> deadline) {
+        return this.schedule(graph, action, task, deadline, 0, false);
+    }
+
+    /**
+     * Execute a task for all modules of the graph<br>
+     * If {@code reverse} is set, the graph is walked from the dependents to the dependencies, so a module is handled
+     * after all modules depending on it. If the task of a module fails or doesn't finish before its deadline, the
+     * module is reported as failed. Walking forward, all modules with a hard dependency on it are skipped, walking in
+     * reverse its dependencies are still handled, each with its own deadline
+     *
+     * @param graph    The graph of the modules
+     * @param action   The name of the action, used for logging
+     * @param task     The task to execute for each module
+     * @param deadline The deadline in milliseconds for the task of a module, 0 or lower for none
+     * @param budget   The time in milliseconds all tasks together may take, 0 or lower for none
+     * @param reverse  Whether the graph should be walked in reverse
+     * @return All modules, for which the task failed, didn't finish in time or was skipped
+     */
+    @NotNull
+    public List<IModule> schedule(@NonNull ModuleGraph graph, @NonNull String action, @NonNull ModuleTask task,
+                                  @NonNull ToLongFunction<IModule> deadline, long budget, boolean reverse) {
+        long end = budget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget) : Long.MAX_VALUE;
+
+        Map<String, IModule> pending = new LinkedHashMap<>();
+        List<List<IModule>> waves = new ArrayList<>(graph.getWaves());
+        if (reverse) Collections.reverse(waves);
+        for (List<IModule> wave : waves) {
+            for (IModule module : wave) pending.put(module.getModuleDescription().getName(), module);
+        }
+
+        Set<String> finished = new HashSet<>();
+        Set<String> failed = new HashSet<>();
+        List<IModule> failedModules = new ArrayList<>();
+
+        CompletionService<IModule> completionService = new ExecutorCompletionService<>(this.executorService);
+        Map<Future<IModule>, Execution> running = new HashMap<>();
+
+        while (!pending.isEmpty() || !running.isEmpty()) {
+            // Submit all modules whose dependencies are finished
+            for (Iterator<IModule> iterator = pending.values().iterator(); iterator.hasNext(); ) {
+                IModule module = iterator.next();
+                String name = module.getModuleDescription().getName();
+                if (!finished.containsAll(reverse ? graph.getDependents(name) : graph.getDependencies(name)))
+                    continue;
+
+                iterator.remove();
+
+                if (reverse) {
+                    // A dependency is handled anyway, otherwise a failed dependent would keep it from saving its state
+                    String failedDependent = this.getFailedDependent(graph, module, failed);
+                    if (failedDependent != null)
+                        this.logHandler.warn("Trying to " + action + " the module " + name + ", although its " +
+                                "dependent " + failedDependent + " failed.");
+                } else {
+                    String failedDependency = this.getFailedDependency(module, failed);
+                    if (failedDependency != null) {
+                        this.logHandler.error("Skipped to " + action + " the module " + name + ", because its " +
+                                "dependency " + failedDependency + " failed.");
+                        finished.add(name);
+                        failed.add(name);
+                        failedModules.add(module);
+                        continue;
+                    }
+                }
+
+                if (System.nanoTime() >= end) {
+                    this.logHandler.error("Skipped to " + action + " the module " + name + ", because the time " +
+                            "limit of " + budget + " ms is exceeded.");
+                    finished.add(name);
+                    failed.add(name);
+                    failedModules.add(module);
+                    continue;
+                }
+
+                Execution execution = new Execution(module, deadline.applyAsLong(module));
+                Future<IModule> future = completionService.submit(() -> {
+                    // The deadline starts when the task is executed, not while it waits for a free thread
+                    if (!execution.begin(this.getTimeout(execution.requested(), end))) return module;
+
+                    boolean completed = false;
+                    try {
+                        task.execute(module);
+                        completed = true;
+                        return module;
+                    } finally {
+                        // If the task was abandoned after its deadline, the module is already treated as failed
+                        if (!execution.complete()) {
+                            this.resizePool(-1);
+                            if (completed) this.completedLate(module, action, task);
+                        }
+                    }
+                });
+                running.put(future, execution);
+            }
+
+            if (running.isEmpty()) {
+                // The remaining modules wait for modules outside of the waves, for example cyclic dependents
+                for (IModule module : pending.values()) {
+                    String name = module.getModuleDescription().getName();
+                    Set<String> waiting = new LinkedHashSet<>(reverse ? graph.getDependents(name) :
+                            graph.getDependencies(name));
+                    waiting.removeAll(finished);
+
+                    this.logHandler.error("Skipped to " + action + " the module " + name + ", because it waits for " +
+                            String.join(", ", waiting) + ", witch can't be handled.");
+                    failedModules.add(module);
+                }
+                break;
+            }
+
+            try {
+                Future<IModule> done = this.poll(completionService, running.values(), end);
+                Execution execution = done == null ? null : running.remove(done);
+
+                if (execution != null) {
+                    String name = execution.module().getModuleDescription().getName();
+                    finished.add(name);
+
+                    try {
+                        done.get();
+                    } catch (ExecutionException e) {
+                        this.logHandler.error("An error occurred while trying to " + action + " the module " + name,
+                                e.getCause());
+                        failed.add(name);
+                        failedModules.add(execution.module());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.cancel(running, failedModules);
+                failedModules.addAll(pending.values());
+                return failedModules;
+            }
+
+            // Cancel all tasks that exceeded their deadline, and the queued tasks if the time limit is exceeded
+            long now = System.nanoTime();
+            for (Iterator<Map.Entry<Future<IModule>, Execution>> iterator = running.entrySet().iterator();
+                 iterator.hasNext(); ) {
+                Map.Entry<Future<IModule>, Execution> entry = iterator.next();
+                Execution execution = entry.getValue();
+                String name = execution.module().getModuleDescription().getName();
+
+                if (now >= end && execution.abandonQueued()) {
+                    this.logHandler.error("Skipped to " + action + " the module " + name + ", because the time " +
+                            "limit of " + budget + " ms is exceeded.");
+                } else {
+                    // A task, witch completed right at its deadline, is collected by the next poll
+                    if (execution.deadline() > now || !execution.abandon()) continue;
+
+                    // The hanging thread might not react to the interrupt, so another thread replaces it meanwhile
+                    this.resizePool(1);
+                    this.moduleWatchdog.report(execution.module(), action, execution.timeout(), execution.thread());
+                }
+
+                entry.getKey().cancel(true);
+                iterator.remove();
+                finished.add(name);
+                failed.add(name);
+                failedModules.add(execution.module());
+            }
+        }
+
+        return failedModules;
+    }
+
+    /**
+     * Execute a task for a single module in the calling thread, supervised by the {@link ModuleWatchdog}<br>
+     * If the task exceeds its deadline, the module is reported with the stack of the calling thread and marked as
+     * failed. The call can't be abandoned, but if it completes after it was reported,
+     * {@link ModuleTask#completedLate(IModule)} is called
+     *
+     * @param module   The module
+     * @param action   The name of the action, used for logging
+     * @param task     The task to execute
+     * @param deadline The deadline in milliseconds, 0 or lower for none
+     * @return Whether the task completed before its deadline
+     * @throws Exception If the task fails
+     */
+    @SuppressWarnings("java:S112")
+    public boolean execute(@NonNull IModule module, @NonNull String action, @NonNull ModuleTask task, long deadline)
+            throws Exception {
+        if (deadline <= 0) {
+            task.execute(module);
+            return true;
+        }
+
+        Thread thread = Thread.currentThread();
+        AtomicBoolean decided = new AtomicBoolean();
+        ScheduledFuture<?> check = this.moduleWatchdog.schedule(() -> {
+            if (decided.compareAndSet(false, true)) this.moduleWatchdog.report(module, action, deadline, thread);
+        }, deadline);
+
+        try {
+            task.execute(module);
+        } finally {
+            check.cancel(false);
+        }
+
+        if (decided.compareAndSet(false, true)) return true;
+
+        this.completedLate(module, action, task);
+        return false;
+    }
+
+    private void completedLate(IModule module, String action, ModuleTask task) {
+        String name = module.getModuleDescription().getName();
+        this.logHandler.warn("The module " + name + " finished to " + action + " after its deadline, it's treated " +
+                "as failed.");
+
+        try {
+            task.completedLate(module);
+        } catch (Exception e) {
+            this.logHandler.error("An error occurred while trying to undo the late " + action + " of the module " +
+                    name, e);
+        }
+    }
+
+    private void resizePool(int delta) {
+        if (!(this.executorService instanceof ThreadPoolExecutor pool)) return;
+
+        synchronized (pool) {
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    private long getTimeout(long timeout, long end) {
+        if (end == Long.MAX_VALUE) return timeout;
+
+        long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()));
+        return timeout > 0 ? Math.min(timeout, remaining) : remaining;
+    }
+
+    private Future<IModule> poll(CompletionService<IModule> completionService, Collection<Execution> running,
+                                 long end) throws InterruptedException {
+        long now = System.nanoTime();
+        long deadline = end;
+        for (Execution execution : running) {
+            // A queued task can't exceed its deadline before its timeout passed, but it might begin meanwhile
+            long timeout = execution.started() ? 0 : execution.requested();
+            deadline = Math.min(deadline, timeout > 0 ? now + TimeUnit.MILLISECONDS.toNanos(timeout) :
+                    execution.deadline());
+        }
+
+        if (deadline == Long.MAX_VALUE) return completionService.take();
+        return completionService.poll(Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void cancel(Map<Future<IModule>, Execution> running, List<IModule> failedModules) {
+        for (Map.Entry<Future<IModule>, Execution> entry : running.entrySet()) {
+            entry.getKey().cancel(true);
+            failedModules.add(entry.getValue().module());
+        }
+
+        running.clear();
+    }
+
+    private String getFailedDependency(IModule module, Set<String> failed) {
+        for (String dependency : module.getModuleDescription().getDependencies()) {
+            if (failed.contains(dependency)) return dependency;
+        }
+
+        return null;
+    }
+
+    private String getFailedDependent(ModuleGraph graph, IModule module, Set<String> failed) {
+        String name = module.getModuleDescription().getName();
+        for (String dependent : graph.getDependents(name)) {
+            if (failed.contains(dependent) && graph.getModule(dependent).getModuleDescription().getDependencies()
+                    .contains(name)) return dependent;
+        }
+
+        return null;
+    }
+
+    /**
+     * The execution of the task of a module, witch is either queued, running, completed or abandoned<br>
+     * A single transition of the state decides whether the worker or the scheduler handles the end of the task, so a
+     * task is either collected as completed or treated as failed, never both
+     */
+    private static final class Execution {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int COMPLETED = 2;
+        private static final int ABANDONED = 3;
+
+        private final IModule module;
+        private final long requested;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private volatile Thread thread;
+        private volatile long timeout;
+        private volatile long deadline = Long.MAX_VALUE;
+
+        private Execution(IModule module, long requested) {
+            this.module = module;
+            this.requested = requested;
+        }
+
+        /**
+         * Called by the worker thread, when the task begins
+         *
+         * @return Whether the task may be executed, false if it was abandoned while it was queued
+         */
+        private boolean begin(long timeout) {
+            // The thread is needed to report what the module hangs on, if it exceeds its deadline
+            this.thread = Thread.currentThread();
+            this.timeout = timeout;
+            if (!this.state.compareAndSet(QUEUED, RUNNING)) return false;
+
+            this.deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) :
+                    Long.MAX_VALUE;
+            return true;
+        }
+
+        /**
+         * Called by the worker thread, when the task finished normally or exceptionally
+         *
+         * @return Whether the task finished in time, false if it was abandoned after its deadline
+         */
+        private boolean complete() {
+            return this.state.compareAndSet(RUNNING, COMPLETED);
+        }
+
+        /**
+         * @return Whether the running task was abandoned, false if it completed meanwhile
+         */
+        private boolean abandon() {
+            return this.state.compareAndSet(RUNNING, ABANDONED);
+        }
+
+        /**
+         * @return Whether the task was still queued and won't be executed anymore
+         */
+        private boolean abandonQueued() {
+            return this.state.compareAndSet(QUEUED, ABANDONED);
+        }
+
+        private boolean started() {
+            return this.state.get() != QUEUED;
+        }
+
+        private IModule module() {
+            return this.module;
+        }
+
+        private long requested() {
+            return this.requested;
+        }
+
+        private Thread thread() {
+            return this.thread;
+        }
+
+        private long timeout() {
+            return this.timeout;
+        }
+
+        private long deadline() {
+            return this.deadline;
+        }
+
+    }
+
+}
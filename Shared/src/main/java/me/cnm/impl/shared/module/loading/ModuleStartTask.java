@@ -0,0 +1,35 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.RequiredArgsConstructor;
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.exception.ModuleInterpreterException;
+import me.cnm.shared.module.loading.IModule;
+
+/**
+ * Starts a module, used for the modules started on load and for activated deferred modules<br>
+ * A module, witch finished to start after its deadline, is stopped again, so it doesn't keep running with its
+ * handlers registered while it's treated as failed
+ */
+@RequiredArgsConstructor
+class ModuleStartTask implements ModuleTask {
+
+    private final ILogHandler logHandler;
+    private final ModuleHandler moduleHandler;
+
+    @Override
+    public void execute(IModule module) throws ModuleInterpreterException {
+        this.logHandler.info("Starting " + module.getModuleDescription().getName() + "...");
+        this.moduleHandler.startModule(module);
+        this.logHandler.info("Started " + module.getModuleDescription().getName() + ".");
+    }
+
+    @Override
+    public void completedLate(IModule module) throws ModuleInterpreterException {
+        if (!module.isRunning()) return;
+
+        this.logHandler.warn("Stopping " + module.getModuleDescription().getName() + ", because it started too late.");
+        this.moduleHandler.stopWithInterpreter(module);
+    }
+
+}
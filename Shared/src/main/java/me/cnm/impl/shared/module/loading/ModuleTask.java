@@ -0,0 +1,34 @@
+package me.cnm.impl.shared.module.loading;
+
+import me.cnm.shared.module.loading.IModule;
+
+/**
+ * A task executed for a module by the {@link ModuleLoader}, that can throw any exception
+ */
+@FunctionalInterface
+public interface ModuleTask {
+
+    /**
+     * Execute the task
+     *
+     * @param module The module to execute the task for
+     * @throws Exception Can be thrown
+     */
+    @SuppressWarnings("java:S112")
+    void execute(IModule module) throws Exception;
+
+    /**
+     * Called in the thread of the task, if the task finished successfully after it was given up for exceeding its
+     * deadline<br>
+     * The module is treated as failed at this point, so the effects of the task have to be undone (e.g. a module,
+     * witch started too late, has to be stopped again)
+     *
+     * @param module The module the task was executed for
+     * @throws Exception Can be thrown
+     */
+    @SuppressWarnings("java:S112")
+    default void completedLate(IModule module) throws Exception {
+        // Nothing to undo by default
+    }
+
+}
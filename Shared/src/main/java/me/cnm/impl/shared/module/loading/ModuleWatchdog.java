@@ -0,0 +1,112 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.loading.IModule;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports modules, witch hang in a lifecycle call<br>
+ * The report contains the stack of the hanging thread and of every thread owning a lock it waits for, following the
+ * chain of lock owners until a thread isn't blocked anymore or a deadlock is found
+ */
+@RequiredArgsConstructor
+public class ModuleWatchdog {
+
+    private final ILogHandler logHandler;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final ScheduledThreadPoolExecutor timer = this.createTimer();
+
+    private ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "module-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Run a check after a timeout, for lifecycle calls witch aren't executed by the {@link ModuleScheduler}
+     *
+     * @param check   The check, witch reports the module if it still hangs
+     * @param timeout The timeout in milliseconds
+     * @return The future of the check, witch is cancelled when the call finished in time
+     */
+    public ScheduledFuture<?> schedule(@NonNull Runnable check, long timeout) {
+        return this.timer.schedule(check, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Log the report of a hanging module and mark it as failed
+     *
+     * @param module  The hanging module
+     * @param action  The lifecycle call, witch hangs (e.g. start)
+     * @param timeout The time in milliseconds the module got for the call
+     * @param thread  The thread executing the call
+     */
+    public void report(@NonNull IModule module, @NonNull String action, long timeout, @NonNull Thread thread) {
+        module.setFailed(true);
+
+        StringBuilder report = new StringBuilder("The module ").append(module.getModuleDescription().getName())
+                .append(" hangs, it didn't ").append(action).append(" within ").append(timeout).append(" ms:");
+
+        Set<Long> visited = new HashSet<>();
+        long id = thread.getId();
+        while (id != -1) {
+            if (!visited.add(id)) {
+                report.append(System.lineSeparator()).append("Deadlock: the thread #").append(id)
+                        .append(" is waiting for a lock held by one of the threads above");
+                break;
+            }
+
+            ThreadInfo[] infos = this.threadBean.getThreadInfo(new long[]{ id },
+                    this.threadBean.isObjectMonitorUsageSupported(), this.threadBean.isSynchronizerUsageSupported());
+            ThreadInfo info = infos.length == 0 ? null : infos[0];
+            if (info == null) break;
+
+            this.append(report, info);
+            id = info.getLockOwnerId();
+        }
+
+        this.logHandler.error(report.toString());
+    }
+
+    private void append(StringBuilder report, ThreadInfo info) {
+        String lineSeparator = System.lineSeparator();
+
+        report.append(lineSeparator).append('"').append(info.getThreadName()).append("\" #").append(info.getThreadId())
+                .append(' ').append(info.getThreadState());
+        if (info.getLockName() != null) report.append(" on ").append(info.getLockName());
+        if (info.getLockOwnerName() != null)
+            report.append(" owned by \"").append(info.getLockOwnerName()).append("\" #").append(info.getLockOwnerId());
+
+        StackTraceElement[] stack = info.getStackTrace();
+        for (int i = 0; i < stack.length; i++) {
+            report.append(lineSeparator).append("\tat ").append(stack[i]);
+            if (i == 0 && info.getLockInfo() != null)
+                report.append(lineSeparator).append("\t- waiting on ").append(info.getLockInfo());
+
+            for (MonitorInfo monitor : info.getLockedMonitors()) {
+                if (monitor.getLockedStackDepth() == i)
+                    report.append(lineSeparator).append("\t- locked ").append(monitor);
+            }
+        }
+
+        for (LockInfo synchronizer : info.getLockedSynchronizers())
+            report.append(lineSeparator).append("\t- holds ").append(synchronizer);
+    }
+
+}
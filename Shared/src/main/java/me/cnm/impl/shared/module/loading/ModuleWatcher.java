@@ -0,0 +1,164 @@
+package me.cnm.impl.shared.module.loading;
+
+import lombok.NonNull;
+import me.cnm.shared.cli.log.ILogHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Watches the modules folder for changed module.json and jar files and reloads the affected modules<br>
+ * Events are debounced per module folder, so a burst of writes (for example copying a jar) only causes one reload
+ */
+public class ModuleWatcher implements Runnable {
+
+    private final ILogHandler logHandler;
+    private final Consumer<List<File>> reload;
+    private final Path directory;
+    private final long delay;
+
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Create the watcher
+     *
+     * @param logHandler The log handler
+     * @param reload     Reloads the changed module folders and bundles, usually {@link ModuleLoader#reload(Collection)}
+     * @param directory  The modules folder
+     * @param delay      The time in milliseconds without changes in a module folder, before it's reloaded
+     */
+    public ModuleWatcher(@NonNull ILogHandler logHandler, @NonNull Consumer<List<File>> reload,
+                         @NonNull File directory, long delay) {
+        this.logHandler = logHandler;
+        this.reload = reload;
+        this.directory = directory.getAbsoluteFile().toPath().normalize();
+        this.delay = delay;
+    }
+
+    /**
+     * Start watching the modules folder and all module folders in it
+     */
+    public void start() {
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            this.register(this.directory);
+
+            try (DirectoryStream<Path> folders = Files.newDirectoryStream(this.directory, Files::isDirectory)) {
+                for (Path folder : folders) this.register(folder);
+            }
+        } catch (IOException e) {
+            this.logHandler.error("An error occurred while trying to watch the modules folder", e);
+            return;
+        }
+
+        this.thread = new Thread(this, "module-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stop watching
+     */
+    public void stop() {
+        if (this.thread != null) this.thread.interrupt();
+
+        try {
+            if (this.watchService != null) this.watchService.close();
+        } catch (IOException e) {
+            this.logHandler.error("An error occurred while trying to stop watching the modules folder", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        // Module folder -> time of the last change
+        Map<Path, Long> pending = new HashMap<>();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending.isEmpty() ? this.watchService.take() :
+                        this.watchService.poll(this.getRemaining(pending), TimeUnit.NANOSECONDS);
+
+                if (key != null) this.handle(key, pending);
+
+                List<File> due = new ArrayList<>();
+                long now = System.nanoTime();
+                for (Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+                    Map.Entry<Path, Long> entry = iterator.next();
+                    if (now - entry.getValue() < TimeUnit.MILLISECONDS.toNanos(this.delay)) continue;
+
+                    due.add(entry.getKey().toFile());
+                    iterator.remove();
+                }
+
+                if (!due.isEmpty()) this.reload(due);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // The watcher was stopped
+        }
+    }
+
+    private void reload(List<File> folders) {
+        // A failed reload must not stop the watcher, the next change of the folders tries again
+        try {
+            this.reload.accept(folders);
+        } catch (RuntimeException e) {
+            this.logHandler.error("An error occurred while trying to reload " + folders.stream().map(File::getName)
+                    .collect(Collectors.joining(", ")), e);
+        }
+    }
+
+    private void handle(WatchKey key, Map<Path, Long> pending) {
+        Path folder = this.keys.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (folder == null || event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+
+            Path path = folder.resolve((Path) event.context());
+            if (folder.equals(this.directory)) {
+                // A module folder or bundle was added, replaced or removed
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path))
+                    this.tryRegister(path);
+                pending.put(path, System.nanoTime());
+                continue;
+            }
+
+            // Data files of the module are ignored, only its description and jars cause a reload
+            String name = path.getFileName().toString();
+            if (name.equals("module.json") || name.endsWith(".jar")) pending.put(folder, System.nanoTime());
+        }
+
+        if (!key.reset()) this.keys.remove(key);
+    }
+
+    private long getRemaining(Map<Path, Long> pending) {
+        long oldest = Long.MAX_VALUE;
+        for (long time : pending.values()) oldest = Math.min(oldest, time);
+
+        return Math.max(0, oldest + TimeUnit.MILLISECONDS.toNanos(this.delay) - System.nanoTime());
+    }
+
+    private void tryRegister(Path folder) {
+        try {
+            this.register(folder);
+        } catch (IOException e) {
+            this.logHandler.error("An error occurred while trying to watch the module folder " + folder, e);
+        }
+    }
+
+    private void register(Path folder) throws IOException {
+        this.keys.put(folder.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), folder);
+    }
+
+}
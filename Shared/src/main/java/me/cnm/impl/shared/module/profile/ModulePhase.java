@@ -0,0 +1,44 @@
+package me.cnm.impl.shared.module.profile;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The lifecycle phases of a module, witch are measured by the {@link ModuleProfiler}
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ModulePhase {
+
+    /**
+     * Reading the module.json (or the cached description)
+     */
+    DESCRIPTION("description"),
+    /**
+     * Loading the module with its interpreter, including the main class resolution
+     */
+    LOAD("load"),
+    /**
+     * Resolving the main class of a java module
+     */
+    MAIN_CLASS("mainClass"),
+    /**
+     * Creating the instance of the main class of a java module
+     */
+    CONSTRUCTOR("constructor"),
+    /**
+     * Starting the module
+     */
+    START("start"),
+    /**
+     * Stopping the module
+     */
+    STOP("stop"),
+    /**
+     * Unloading the module with its interpreter
+     */
+    UNLOAD("unload");
+
+    private final String key;
+
+}
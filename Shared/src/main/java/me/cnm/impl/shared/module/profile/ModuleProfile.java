@@ -0,0 +1,117 @@
+package me.cnm.impl.shared.module.profile;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements of the lifecycle phases and the class loading of a single module
+ */
+@RequiredArgsConstructor
+public class ModuleProfile {
+
+    @Getter
+    private final String module;
+
+    private final Map<ModulePhase, Measurement> measurements = new ConcurrentHashMap<>();
+    private final AtomicLong definedClasses = new AtomicLong();
+    private final AtomicLong definedBytes = new AtomicLong();
+
+    /**
+     * Record the measurement of a phase, a previous measurement of the phase is replaced
+     *
+     * @param phase     The phase
+     * @param nanos     The duration of the phase in nanoseconds
+     * @param allocated The bytes allocated by the thread during the phase, or -1 if unknown
+     */
+    public void record(@NonNull ModulePhase phase, long nanos, long allocated) {
+        this.measurements.put(phase, new Measurement(nanos, allocated));
+    }
+
+    /**
+     * Record a class defined by the class loader of the module
+     *
+     * @param bytes The size of the class file
+     */
+    public void classDefined(int bytes) {
+        this.definedClasses.incrementAndGet();
+        this.definedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Get the measurement of a phase
+     *
+     * @param phase The phase
+     * @return The measurement, or null if the phase wasn't measured yet
+     */
+    @Nullable
+    public Measurement getMeasurement(@NonNull ModulePhase phase) {
+        return this.measurements.get(phase);
+    }
+
+    /**
+     * @return The number of classes defined by the class loader of the module
+     */
+    public long getDefinedClasses() {
+        return this.definedClasses.get();
+    }
+
+    /**
+     * @return The bytes read from the jar to define the classes
+     */
+    public long getDefinedBytes() {
+        return this.definedBytes.get();
+    }
+
+    /**
+     * @return The duration of all phases until the module was started in nanoseconds
+     */
+    public long getBootNanos() {
+        long nanos = 0;
+        for (ModulePhase phase : new ModulePhase[]{ ModulePhase.DESCRIPTION, ModulePhase.LOAD,
+                ModulePhase.CONSTRUCTOR, ModulePhase.START }) {
+            Measurement measurement = this.measurements.get(phase);
+            if (measurement != null) nanos += measurement.nanos();
+        }
+
+        return nanos;
+    }
+
+    /**
+     * @return The profile as {@code JsonDocument}
+     */
+    @NotNull
+    public JsonDocument toJsonDocument() {
+        JsonDocument phases = new JsonDocument();
+        for (ModulePhase phase : ModulePhase.values()) {
+            Measurement measurement = this.measurements.get(phase);
+            if (measurement == null) continue;
+
+            phases.append(phase.getKey(), new JsonDocument()
+                    .append("nanos", measurement.nanos())
+                    .append("allocated", measurement.allocated()));
+        }
+
+        return new JsonDocument()
+                .append("phases", phases)
+                .append("definedClasses", this.getDefinedClasses())
+                .append("definedBytes", this.getDefinedBytes());
+    }
+
+    /**
+     * The measurement of a phase
+     *
+     * @param nanos     The duration in nanoseconds
+     * @param allocated The bytes allocated by the thread, or -1 if unknown
+     */
+    public record Measurement(long nanos, long allocated) {
+    }
+
+}
@@ -0,0 +1,151 @@
+package me.cnm.impl.shared.module.profile;
+
+import lombok.NonNull;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures the duration and allocations of the lifecycle phases of all modules<br>
+ * A phase is measured with a {@link Timer} in a try-with-resources block around the phase
+ */
+public class ModuleProfiler {
+
+    private final Map<String, ModuleProfile> profiles = new ConcurrentHashMap<>();
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    public ModuleProfiler() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean sunBean &&
+                sunBean.isThreadAllocatedMemorySupported() ? sunBean : null;
+        if (this.threadBean != null && !this.threadBean.isThreadAllocatedMemoryEnabled())
+            this.threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Start a new profile for a module, for example when it's (re)loaded<br>
+     * An existing profile of the module is replaced
+     *
+     * @param module The name of the module
+     * @return The new profile
+     */
+    @NotNull
+    public ModuleProfile begin(@NonNull String module) {
+        ModuleProfile profile = new ModuleProfile(module);
+        this.profiles.put(module, profile);
+        return profile;
+    }
+
+    /**
+     * Get the profile of a module, a new profile is created if none exists
+     *
+     * @param module The name of the module
+     * @return The profile of the module
+     */
+    @NotNull
+    public ModuleProfile getProfile(@NonNull String module) {
+        return this.profiles.computeIfAbsent(module, ModuleProfile::new);
+    }
+
+    /**
+     * @return All profiles, sorted by the boot duration of the modules (slowest first)
+     */
+    @NotNull
+    public List<ModuleProfile> getProfiles() {
+        return this.profiles.values().stream()
+                .sorted(Comparator.comparingLong(ModuleProfile::getBootNanos).reversed())
+                .toList();
+    }
+
+    /**
+     * Start measuring a phase of a module in the current thread
+     *
+     * @param module The name of the module
+     * @param phase  The phase to measure
+     * @return The timer, witch records the measurement when it's closed
+     */
+    @NotNull
+    public Timer measure(@NonNull String module, @NonNull ModulePhase phase) {
+        return new Timer(this.getProfile(module), phase);
+    }
+
+    /**
+     * Start measuring a phase in the current thread, before the module is known<br>
+     * The profile has to be set with {@link Timer#setProfile(ModuleProfile)} before the timer is closed, otherwise
+     * the measurement is discarded
+     *
+     * @param phase The phase to measure
+     * @return The timer, witch records the measurement when it's closed
+     */
+    @NotNull
+    public Timer measure(@NonNull ModulePhase phase) {
+        return new Timer(null, phase);
+    }
+
+    /**
+     * Write all profiles to a json file
+     *
+     * @param file The file to write to
+     * @throws IOException If the file can't be written
+     */
+    public void write(@NonNull File file) throws IOException {
+        JsonDocument modules = new JsonDocument();
+        for (ModuleProfile profile : this.getProfiles()) modules.append(profile.getModule(), profile.toJsonDocument());
+
+        new JsonDocument()
+                .append("time", System.currentTimeMillis())
+                .append("modules", modules)
+                .write(file);
+    }
+
+    private long getAllocatedBytes() {
+        return this.threadBean == null ? -1 : this.threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Measures a single phase, until it's closed
+     */
+    public final class Timer implements AutoCloseable {
+
+        private final ModulePhase phase;
+        private final long start;
+        private final long allocated;
+        private ModuleProfile profile;
+
+        private Timer(ModuleProfile profile, ModulePhase phase) {
+            this.profile = profile;
+            this.phase = phase;
+            this.allocated = ModuleProfiler.this.getAllocatedBytes();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Set the profile, the measurement is recorded in
+         *
+         * @param profile The profile of the measured module
+         */
+        public void setProfile(@NonNull ModuleProfile profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public void close() {
+            if (this.profile == null) return;
+
+            long nanos = System.nanoTime() - this.start;
+            long allocatedNow = ModuleProfiler.this.getAllocatedBytes();
+            this.profile.record(this.phase, nanos, this.allocated < 0 || allocatedNow < 0 ? -1 :
+                    allocatedNow - this.allocated);
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+package me.cnm.impl.shared.module.resource;
+
+import lombok.NonNull;
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
+import me.cnm.impl.shared.module.java.ModuleClassLoader;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.ModuleResourceUsage;
+import me.cnm.shared.module.loading.IModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically samples the cpu time and allocated bytes of all threads and attributes them to modules<br>
+ * A thread belongs to the module whose class loader is its context class loader or defined its class. Otherwise the
+ * outermost frame of its stack, witch belongs to a module, decides (e.g. the runnable of the thread or the task a pool
+ * thread is running). Threads without module code aren't attributed at all
+ */
+public class ModuleResourceAccountant implements Runnable {
+
+    private static final int MAX_STACK_DEPTH = 64;
+
+    private final ILogHandler logHandler;
+    private final ModuleHandler moduleHandler;
+    private final long interval;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocationBean;
+
+    // Only accessed while sampling: Thread id -> cpu time and allocated bytes of the last sample
+    private final Map<Long, long[]> lastThreads = new HashMap<>();
+    // Only accessed while sampling: Module -> total cpu time and allocated bytes
+    private final Map<String, long[]> totals = new HashMap<>();
+    private long lastSample;
+
+    private final Map<String, ModuleResourceUsage> usages = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executorService;
+
+    /**
+     * Create the accountant
+     *
+     * @param logHandler    The log handler
+     * @param moduleHandler The module handler, used to find the loaded modules and their classes
+     * @param interval      The time in milliseconds between two samples
+     */
+    public ModuleResourceAccountant(@NonNull ILogHandler logHandler, @NonNull ModuleHandler moduleHandler,
+                                    long interval) {
+        this.logHandler = logHandler;
+        this.moduleHandler = moduleHandler;
+        this.interval = interval;
+
+        this.allocationBean = this.threadBean instanceof com.sun.management.ThreadMXBean sunBean &&
+                sunBean.isThreadAllocatedMemorySupported() ? sunBean : null;
+    }
+
+    /**
+     * Start sampling, if the interval is positive and the jvm can measure the cpu time of threads
+     */
+    public void start() {
+        if (this.interval <= 0) return;
+        if (!this.threadBean.isThreadCpuTimeSupported()) {
+            this.logHandler.warn("The cpu time of threads can't be measured, so the resources of modules aren't " +
+                    "accounted.");
+            return;
+        }
+
+        if (!this.threadBean.isThreadCpuTimeEnabled()) this.threadBean.setThreadCpuTimeEnabled(true);
+        if (this.allocationBean != null && !this.allocationBean.isThreadAllocatedMemoryEnabled())
+            this.allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        this.executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "module-accountant");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorService.scheduleWithFixedDelay(this, 0, this.interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sampling
+     */
+    public void stop() {
+        if (this.executorService != null) this.executorService.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.sample();
+        } catch (RuntimeException e) {
+            this.logHandler.error("An error occurred while trying to sample the resources of the modules", e);
+        }
+    }
+
+    /**
+     * Sample all threads and update the usages of the modules
+     */
+    public synchronized void sample() {
+        JavaInterpreter javaInterpreter = this.moduleHandler.getInterpreter("java") instanceof JavaInterpreter
+                interpreter ? interpreter : null;
+
+        Thread[] threads = this.getThreads();
+        long[] ids = new long[threads.length];
+        for (int i = 0; i < threads.length; i++) ids[i] = threads[i].getId();
+
+        long[] cpuTimes = this.allocationBean != null ? this.allocationBean.getThreadCpuTime(ids) : null;
+        long[] allocations = this.allocationBean != null ? this.allocationBean.getThreadAllocatedBytes(ids) : null;
+
+        long now = System.nanoTime();
+        boolean first = this.lastSample == 0;
+        double seconds = first ? 0 : (now - this.lastSample) / 1e9;
+
+        Map<String, long[]> deltas = new HashMap<>();
+        Map<String, Integer> threadCounts = new HashMap<>();
+        Map<Long, long[]> current = new HashMap<>();
+
+        for (int i = 0; i < threads.length; i++) {
+            long cpuTime = cpuTimes != null ? cpuTimes[i] : this.threadBean.getThreadCpuTime(ids[i]);
+            long allocated = allocations != null ? allocations[i] : -1;
+            // The thread died between enumerating and measuring it
+            if (cpuTime < 0) continue;
+
+            current.put(ids[i], new long[]{ cpuTime, allocated });
+
+            String module = this.attribute(threads[i], javaInterpreter);
+            if (module == null) continue;
+            threadCounts.merge(module, 1, Integer::sum);
+
+            // The first sample only sets the baseline, otherwise everything the thread used before is counted now
+            if (first) continue;
+
+            long[] last = this.lastThreads.get(ids[i]);
+            long[] delta = deltas.computeIfAbsent(module, key -> new long[2]);
+            delta[0] += cpuTime - (last == null ? 0 : last[0]);
+            if (allocated >= 0) delta[1] += allocated - (last == null || last[1] < 0 ? 0 : last[1]);
+        }
+
+        this.lastThreads.clear();
+        this.lastThreads.putAll(current);
+        this.lastSample = now;
+
+        Set<String> loaded = new HashSet<>();
+        for (IModule module : this.moduleHandler.getAll()) loaded.add(module.getModuleDescription().getName());
+        this.totals.keySet().retainAll(loaded);
+        this.usages.keySet().retainAll(loaded);
+
+        long time = System.currentTimeMillis();
+        for (String module : loaded) {
+            long[] delta = deltas.getOrDefault(module, new long[2]);
+            long[] total = this.totals.computeIfAbsent(module, key -> new long[2]);
+            total[0] += delta[0];
+            total[1] += delta[1];
+
+            this.usages.put(module, new ModuleResourceUsage(module, threadCounts.getOrDefault(module, 0), total[0],
+                    this.allocationBean == null ? -1 : total[1],
+                    seconds == 0 ? 0 : delta[0] / 1e9 / seconds,
+                    this.allocationBean == null ? -1 : seconds == 0 ? 0 : (long) (delta[1] / seconds),
+                    time));
+        }
+    }
+
+    @Nullable
+    private String attribute(Thread thread, @Nullable JavaInterpreter javaInterpreter) {
+        if (thread.getContextClassLoader() instanceof ModuleClassLoader classLoader) return classLoader.getName();
+        if (thread.getClass().getClassLoader() instanceof ModuleClassLoader classLoader) return classLoader.getName();
+        if (javaInterpreter == null) return null;
+
+        // The outermost frames belong to the code the thread was started for
+        StackTraceElement[] stack = thread.getStackTrace();
+        for (int i = stack.length - 1; i >= Math.max(0, stack.length - MAX_STACK_DEPTH); i--) {
+            ModuleClassLoader owner = javaInterpreter.getClassOwner(stack[i].getClassName());
+            if (owner != null) return owner.getName();
+        }
+
+        return null;
+    }
+
+    private Thread[] getThreads() {
+        ThreadGroup group = Thread.currentThread().getThreadGroup();
+        while (group.getParent() != null) group = group.getParent();
+
+        Thread[] threads = new Thread[group.activeCount() + 16];
+        int count;
+        while ((count = group.enumerate(threads, true)) == threads.length) threads = new Thread[threads.length * 2];
+
+        return Arrays.copyOf(threads, count);
+    }
+
+    /**
+     * Get the resource usage of a module, measured by the last sample
+     *
+     * @param module The name of the module
+     * @return The resource usage, or null if the module wasn't sampled yet
+     */
+    @Nullable
+    public ModuleResourceUsage getUsage(@NonNull String module) {
+        return this.usages.get(module);
+    }
+
+    /**
+     * @return The resource usages of all modules, sorted by their cpu load (highest first)
+     */
+    @NotNull
+    public List<ModuleResourceUsage> getUsages() {
+        return this.usages.values().stream()
+                .sorted(Comparator.comparingDouble(ModuleResourceUsage::getCpuLoad).reversed())
+                .toList();
+    }
+
+}
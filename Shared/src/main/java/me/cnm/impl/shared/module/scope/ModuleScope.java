@@ -0,0 +1,131 @@
+package me.cnm.impl.shared.module.scope;
+
+import lombok.NonNull;
+import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.IHandlerListener;
+import me.cnm.shared.cli.command.ICommandHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The handler library handed to a single module, witch records everything the module registers<br>
+ * When the module stops, the scope is closed and all handlers, listeners and commands of the module are removed at
+ * once, so they don't keep the class loader of the module alive
+ */
+public class ModuleScope implements IHandlerLibrary {
+
+    private final String module;
+    private final IHandlerLibrary handlerLibrary;
+
+    private final Map<Class<?>, Object> handlers = new LinkedHashMap<>();
+    private final List<Listener<?>> listeners = new ArrayList<>();
+    private ScopedCommandHandler commandHandler;
+    private boolean closed;
+
+    /**
+     * Create the scope
+     *
+     * @param module         The name of the module
+     * @param handlerLibrary The handler library, witch is shared by all modules
+     */
+    public ModuleScope(@NonNull String module, @NonNull IHandlerLibrary handlerLibrary) {
+        this.module = module;
+        this.handlerLibrary = handlerLibrary;
+    }
+
+    @Override
+    public <T> void registerHandler(@NonNull Class<T> type, @NonNull T instance) {
+        // Registered while holding the lock, so a concurrent close can't miss the handler
+        synchronized (this) {
+            this.checkOpen();
+            this.handlers.put(type, instance);
+            this.handlerLibrary.registerHandler(type, instance);
+        }
+    }
+
+    @Override
+    public void unregisterHandlers(@NonNull Map<Class<?>, Object> handlers) {
+        synchronized (this) {
+            for (Map.Entry<Class<?>, Object> entry : handlers.entrySet())
+                this.handlers.remove(entry.getKey(), entry.getValue());
+        }
+
+        this.handlerLibrary.unregisterHandlers(handlers);
+    }
+
+    @Override
+    @NotNull
+    public <T> T getHandler(@NonNull Class<T> type) {
+        // Commands are registered through the scope too, so they can be removed with the module
+        if (type == ICommandHandler.class) return type.cast(this.getCommandHandler());
+
+        return this.handlerLibrary.getHandler(type);
+    }
+
+    private synchronized ScopedCommandHandler getCommandHandler() {
+        if (this.commandHandler == null)
+            this.commandHandler = new ScopedCommandHandler(this, this.handlerLibrary.getHandler(ICommandHandler.class));
+
+        return this.commandHandler;
+    }
+
+    @Override
+    public <T> void addListener(@NonNull Class<T> type, @NonNull IHandlerListener<? super T> listener) {
+        synchronized (this) {
+            this.checkOpen();
+            this.listeners.add(new Listener<>(type, listener));
+            this.handlerLibrary.addListener(type, listener);
+        }
+    }
+
+    @Override
+    public <T> void removeListener(@NonNull Class<T> type, @NonNull IHandlerListener<? super T> listener) {
+        synchronized (this) {
+            this.listeners.remove(new Listener<>(type, listener));
+        }
+
+        this.handlerLibrary.removeListener(type, listener);
+    }
+
+    /**
+     * Remove everything the module registered, in one pass per registry<br>
+     * Registrations after the scope was closed fail with an {@link IllegalStateException}
+     */
+    public void close() {
+        Map<Class<?>, Object> closedHandlers;
+        List<Listener<?>> closedListeners;
+        ScopedCommandHandler closedCommandHandler;
+
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+
+            closedHandlers = Map.copyOf(this.handlers);
+            closedListeners = List.copyOf(this.listeners);
+            closedCommandHandler = this.commandHandler;
+            this.handlers.clear();
+            this.listeners.clear();
+        }
+
+        if (closedCommandHandler != null) closedCommandHandler.close();
+        for (Listener<?> listener : closedListeners) listener.remove(this.handlerLibrary);
+        this.handlerLibrary.unregisterHandlers(closedHandlers);
+    }
+
+    synchronized void checkOpen() {
+        if (this.closed) throw new IllegalStateException("The module " + this.module + " is stopped");
+    }
+
+    private record Listener<T>(Class<T> type, IHandlerListener<? super T> listener) {
+
+        private void remove(IHandlerLibrary handlerLibrary) {
+            handlerLibrary.removeListener(this.type, this.listener);
+        }
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package me.cnm.impl.shared.module.scope;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import me.cnm.shared.cli.command.Command;
+import me.cnm.shared.cli.command.ICommandHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The command handler of a {@link ModuleScope}, witch records the commands registered by the module
+ */
+@RequiredArgsConstructor
+public class ScopedCommandHandler implements ICommandHandler {
+
+    private final ModuleScope moduleScope;
+    private final ICommandHandler commandHandler;
+
+    private final List<Command> commands = new ArrayList<>();
+
+    @Override
+    public void register(@NonNull Command command) {
+        synchronized (this) {
+            this.moduleScope.checkOpen();
+            this.commandHandler.register(command);
+            this.commands.add(command);
+        }
+    }
+
+    @Override
+    public void remove(@NonNull Command command) {
+        synchronized (this) {
+            this.commands.remove(command);
+        }
+
+        this.commandHandler.remove(command);
+    }
+
+    @Override
+    public void remove(@NonNull String command) {
+        synchronized (this) {
+            this.commands.removeIf(target -> target.getName().equals(command));
+        }
+
+        this.commandHandler.remove(command);
+    }
+
+    @Override
+    public void removeAll(@NonNull Collection<Command> commands) {
+        synchronized (this) {
+            this.commands.removeAll(commands);
+        }
+
+        this.commandHandler.removeAll(commands);
+    }
+
+    @Override
+    @Nullable
+    public Command get(@NonNull String commandOrAlias) {
+        return this.commandHandler.get(commandOrAlias);
+    }
+
+    @Override
+    @NotNull
+    public List<Command> getAll() {
+        return this.commandHandler.getAll();
+    }
+
+    void close() {
+        List<Command> closed;
+        synchronized (this) {
+            closed = List.copyOf(this.commands);
+            this.commands.clear();
+        }
+
+        this.commandHandler.removeAll(closed);
+    }
+
+}
@@ -0,0 +1,127 @@
+package me.cnm.test.shared;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.bootstrap.HandlerInitializer;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class HandlerInitializerTest {
+
+    @Test
+    @Order(1)
+    void testLazy() throws Exception {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        HandlerInitializer handlerInitializer = new HandlerInitializer(handlerLibrary);
+        Queue<String> runs = new ConcurrentLinkedQueue<>();
+        AtomicInteger modules = new AtomicInteger();
+
+        handlerInitializer.register("config", List.of(), List.of(String.class), () -> {
+            runs.add("config");
+            handlerLibrary.registerHandler(String.class, "config");
+        });
+        handlerInitializer.register("terminal", List.of(), List.of(Integer.class), () -> {
+            runs.add("terminal");
+            handlerLibrary.registerHandler(Integer.class, 1);
+        });
+        handlerInitializer.register("modules", List.of("config"), List.of(Long.class), () -> {
+            runs.add("modules");
+            modules.incrementAndGet();
+            handlerLibrary.registerHandler(Long.class, 2L);
+        });
+
+        // Nothing is built before it's requested
+        assertTrue(runs.isEmpty());
+        assertFalse(handlerInitializer.isInitialized("config"));
+
+        // Requesting a handler runs its initializer once, after its dependencies, even from several threads
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) futures.add(executorService.submit(() -> handlerLibrary.getHandler(Long.class)));
+            for (Future<Long> future : futures) assertEquals(2L, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(List.of("config", "modules"), List.copyOf(runs));
+        assertEquals(1, modules.get());
+        assertTrue(handlerInitializer.isInitialized("modules"));
+        assertFalse(handlerInitializer.isInitialized("terminal"));
+        assertEquals(List.of("config", "modules"), List.copyOf(handlerInitializer.getTimes().keySet()));
+    }
+
+    @Test
+    @Order(2)
+    void testParallel() {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        HandlerInitializer handlerInitializer = new HandlerInitializer(handlerLibrary);
+        Queue<String> runs = new ConcurrentLinkedQueue<>();
+
+        // Both independent initializers have to run at the same time to pass the barrier
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        handlerInitializer.register("config", List.of(), List.of(String.class), () -> {
+            await(barrier);
+            runs.add("config");
+            handlerLibrary.registerHandler(String.class, "config");
+        });
+        handlerInitializer.register("terminal", List.of(), List.of(Integer.class), () -> {
+            await(barrier);
+            runs.add("terminal");
+            handlerLibrary.registerHandler(Integer.class, 1);
+        });
+        handlerInitializer.register("modules", List.of("config", "terminal"), List.of(Long.class), () -> {
+            runs.add("modules");
+            handlerLibrary.registerHandler(Long.class, 2L);
+        });
+
+        handlerInitializer.initialize(Long.class);
+
+        assertEquals(3, runs.size());
+        assertEquals("modules", List.copyOf(runs).get(2));
+        assertEquals(3, handlerInitializer.getTimes().size());
+        assertEquals(2L, handlerLibrary.getHandler(Long.class));
+    }
+
+    @Test
+    @Order(3)
+    void testFailure() {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        HandlerInitializer handlerInitializer = new HandlerInitializer(handlerLibrary);
+
+        handlerInitializer.register("broken", List.of(), List.of(String.class), () -> {
+            throw new IllegalStateException("broken");
+        });
+        handlerInitializer.register("first", List.of("second"), List.of(Integer.class), () -> {
+        });
+        handlerInitializer.register("second", List.of("first"), List.of(Long.class), () -> {
+        });
+
+        // The failure is thrown to everyone requesting the handler, the initializer isn't run again
+        assertEquals("broken", assertThrows(IllegalStateException.class,
+                () -> handlerInitializer.initialize(String.class)).getMessage());
+        assertEquals("broken", assertThrows(IllegalStateException.class,
+                () -> handlerLibrary.getHandler(String.class)).getMessage());
+        assertFalse(handlerInitializer.isInitialized("broken"));
+        assertTrue(handlerInitializer.getTimes().isEmpty());
+
+        assertThrows(IllegalStateException.class, () -> handlerInitializer.initialize(Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> handlerInitializer.initialize(Double.class));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("The initializers weren't run in parallel", e);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package me.cnm.test.shared;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.shared.IHandlerListener;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class HandlerLibraryTest {
+
+    @Test
+    @Order(1)
+    void testCopyOnWrite() throws Exception {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        handlerLibrary.registerHandler(String.class, "first");
+
+        // A snapshot of the handlers isn't changed by later registrations
+        Map<Class<?>, Object> snapshot = handlerLibrary.getHandlers();
+        handlerLibrary.registerHandler(Integer.class, 1);
+        assertEquals(Map.of(String.class, "first"), snapshot);
+        assertEquals(Map.of(String.class, "first", Integer.class, 1), handlerLibrary.getHandlers());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put(Long.class, 1L));
+
+        // Readers always see a handler, while it's replaced concurrently
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(executorService.submit(() -> {
+                    int reads = 0;
+                    do {
+                        assertNotNull(handlerLibrary.getHandler(String.class));
+                        reads++;
+                    } while (running.get());
+                    return reads;
+                }));
+            }
+
+            for (int i = 0; i < 1000; i++) handlerLibrary.registerHandler(String.class, "value-" + i);
+            running.set(false);
+
+            for (Future<Integer> reader : readers) assertTrue(reader.get(5, TimeUnit.SECONDS) > 0);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals("value-999", handlerLibrary.getHandler(String.class));
+    }
+
+    @Test
+    @Order(2)
+    void testListenerOrder() throws Exception {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        List<Integer[]> changes = new ArrayList<>();
+        IHandlerListener<Integer> listener = (previous, current) -> {
+            synchronized (changes) {
+                changes.add(new Integer[]{ previous, current });
+            }
+        };
+        handlerLibrary.addListener(Integer.class, listener);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread * 1000;
+                writers.add(executorService.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 250; i++) handlerLibrary.registerHandler(Integer.class, offset + i);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Every change continues the previous one, so the last change is the current handler
+        assertEquals(1000, changes.size());
+        assertNull(changes.get(0)[0]);
+        for (int i = 1; i < changes.size(); i++) assertEquals(changes.get(i - 1)[1], changes.get(i)[0]);
+        assertEquals(changes.get(changes.size() - 1)[1], handlerLibrary.getHandler(Integer.class));
+
+        handlerLibrary.unregisterHandlers(Map.of(Integer.class, handlerLibrary.getHandler(Integer.class)));
+        assertNull(changes.get(changes.size() - 1)[1]);
+
+        handlerLibrary.removeListener(Integer.class, listener);
+        handlerLibrary.registerHandler(Integer.class, -1);
+        assertEquals(1001, changes.size());
+    }
+
+}
@@ -0,0 +1,85 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.JarIndex;
+import me.cnm.impl.shared.module.java.ClassLoaderLeakTracker;
+import me.cnm.impl.shared.module.java.ModuleClassLoader;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.shared.cli.command.ICommandHandler;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ClassLoaderLeakTrackerTest {
+
+    @TempDir
+    static File directory;
+
+    private static final ModuleProfiler moduleProfiler = new ModuleProfiler();
+    private static ClassLoaderLeakTracker leakTracker;
+
+    // Keeps the loader of the leaking module reachable, like a forgotten thread would
+    private static ModuleClassLoader leaked;
+
+    @BeforeAll
+    static void setup() {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        handlerLibrary.registerHandler(ICommandHandler.class, new CommandHandler(handlerLibrary));
+        leakTracker = new ClassLoaderLeakTracker(handlerLibrary);
+    }
+
+    @AfterAll
+    static void cleanup() throws IOException {
+        if (leaked != null) leaked.close();
+    }
+
+    @Test
+    @Order(1)
+    void testCollected() throws IOException, InterruptedException {
+        trackUnreferenced("alpha");
+
+        for (int i = 0; i < 50 && leakTracker.getTrackedCount() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, leakTracker.getTrackedCount());
+        assertTrue(leakTracker.getLeaks(0).isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    void testLeaked() throws IOException {
+        leaked = createClassLoader("beta");
+        leakTracker.track("beta", leaked);
+        assertTrue(leakTracker.getLeaks(1).isEmpty());
+
+        // An explicit collection collects the whole heap, so it counts as a cycle
+        System.gc();
+
+        List<ClassLoaderLeakTracker.Leak> leaks = leakTracker.getLeaks(1);
+        assertEquals(1, leaks.size());
+        assertEquals("beta", leaks.get(0).getModule());
+        assertEquals(leaked.getId(), leaks.get(0).getId());
+    }
+
+    private static void trackUnreferenced(String module) throws IOException {
+        ModuleClassLoader classLoader = createClassLoader(module);
+        classLoader.close();
+        leakTracker.track(module, classLoader);
+    }
+
+    private static ModuleClassLoader createClassLoader(String module) throws IOException {
+        return new ModuleClassLoader(null, module, new File(directory, module + ".jar"), new JarIndex(0, 0, 0,
+                Map.of()), moduleProfiler.getProfile(module), ClassLoaderLeakTrackerTest.class.getClassLoader());
+    }
+
+}
@@ -0,0 +1,27 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.shared.utility.configuration.IConfigurationHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Configuration handler without entries, witch always returns the defaults
+ */
+class DefaultConfigurationHandler implements IConfigurationHandler {
+
+    @Override
+    public @Nullable <T> T getEntry(@NotNull String key, @NotNull Class<T> clazz) {
+        return null;
+    }
+
+    @Override
+    public @NotNull <T> T getEntry(@NotNull String key, @NotNull T def, @NotNull Class<T> clazz) {
+        return def;
+    }
+
+    @Override
+    public void saveEntry(@NotNull String key, @NotNull Object value) {
+        // Nothing is stored, every entry keeps its default
+    }
+
+}
@@ -0,0 +1,122 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.java.JavaModuleExecutors;
+import org.junit.jupiter.api.*;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class JavaModuleExecutorsTest {
+
+    private static final ClassLoader classLoader = new URLClassLoader("alpha", new URL[0],
+            JavaModuleExecutorsTest.class.getClassLoader());
+    private static final CountDownLatch release = new CountDownLatch(1);
+
+    private static JavaModuleExecutors executors;
+
+    @BeforeAll
+    static void setup() {
+        executors = new JavaModuleExecutors("alpha", classLoader, 2, 1);
+    }
+
+    @AfterAll
+    static void cleanup() throws InterruptedException {
+        release.countDown();
+        executors.shutdown(0);
+    }
+
+    @Test
+    @Order(1)
+    void testBounds() throws Exception {
+        // More blocking tasks than threads are queued instead of creating more threads
+        List<Future<Thread>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executors.getIoExecutor().submit(() -> {
+                release.await();
+                return Thread.currentThread();
+            }));
+        }
+
+        Map<String, ThreadPoolExecutor> pools = executors.getPools();
+        assertEquals(List.of("io", "cpu", "scheduler"), List.copyOf(pools.keySet()));
+        ThreadPoolExecutor io = pools.get("io");
+        assertEquals(2, io.getPoolSize());
+        assertEquals(3, io.getQueue().size());
+
+        // The threads are named after the module and belong to it
+        Thread thread = executors.getCpuExecutor().submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        assertEquals("alpha-cpu-1", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertSame(classLoader, thread.getContextClassLoader());
+        assertEquals(1, pools.get("cpu").getLargestPoolSize());
+
+        release.countDown();
+        for (Future<Thread> future : futures) {
+            Thread ioThread = future.get(5, TimeUnit.SECONDS);
+            assertTrue(ioThread.getName().startsWith("alpha-io-"), ioThread::getName);
+            assertSame(classLoader, ioThread.getContextClassLoader());
+        }
+        assertEquals(2, io.getLargestPoolSize());
+    }
+
+    @Test
+    @Order(2)
+    void testTimeout() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Future<Object> future = executors.submit(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }, 100, TimeUnit.MILLISECONDS);
+
+        // The task is cancelled and interrupted after the timeout
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+
+        // A task finishing in time removes its cancellation from the scheduler
+        Future<String> fast = executors.submit(() -> "done", 10, TimeUnit.SECONDS);
+        assertDoesNotThrow(() -> assertEquals("done", fast.get(5, TimeUnit.SECONDS)));
+        for (int i = 0; i < 50 && !executors.getPools().get("scheduler").getQueue().isEmpty(); i++) Thread.sleep(10);
+        assertTrue(executors.getPools().get("scheduler").getQueue().isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    void testShutdown() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicBoolean scheduled = new AtomicBoolean();
+
+        executors.getCpuExecutor().execute(() -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executors.getScheduler().schedule(() -> scheduled.set(true), 10, TimeUnit.SECONDS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The blocked task doesn't finish in time, the delayed task is dropped
+        assertEquals(1, executors.shutdown(200));
+        for (ThreadPoolExecutor pool : executors.getPools().values()) {
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertFalse(scheduled.get());
+        assertThrows(RejectedExecutionException.class, () -> executors.getIoExecutor().execute(() -> {
+        }));
+    }
+
+}
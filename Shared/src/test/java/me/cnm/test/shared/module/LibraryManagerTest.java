@@ -0,0 +1,130 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.java.LibraryManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LibraryManagerTest {
+
+    private static final String PARSER = "org/example/json/Parser.class";
+    private static final String STRINGS = "org/example/text/Strings.class";
+
+    @TempDir
+    static File directory;
+
+    private static LibraryManager libraryManager;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        File source = new File(directory, "sources/org/example/json/Parser.java");
+        //noinspection ResultOfMethodCallIgnored
+        source.getParentFile().mkdirs();
+        Files.writeString(source.toPath(), "package org.example.json;\npublic class Parser {\n}\n");
+
+        File classes = new File(directory, "classes");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler);
+        assertEquals(0, compiler.run(null, null, null, "-d", classes.getAbsolutePath(), source.getAbsolutePath()));
+
+        createJar("json-2.9.1.jar", PARSER, Files.readAllBytes(new File(classes, PARSER).toPath()));
+        createJar("json-2.10.jar", PARSER, new byte[0]);
+        createJar("json-shaded.jar", PARSER, new byte[0]);
+        createJar("text-3.12.0.jar", STRINGS, new byte[0]);
+
+        libraryManager = new LibraryManager(directory, LibraryManagerTest.class.getClassLoader());
+    }
+
+    @Test
+    @Order(1)
+    void testShared() throws IOException {
+        libraryManager.addLibraries("alpha", List.of("json-2.9.1"));
+        libraryManager.addLibraries("beta", List.of("json-2.9.1.jar", "text-3.12.0"));
+        libraryManager.addLibraries("beta", List.of("json-2.9.1.jar", "text-3.12.0"));
+
+        assertEquals(2, libraryManager.getLibraries().size());
+        assertEquals(Set.of("alpha", "beta"), getLibrary("json-2.9.1.jar").getModules());
+        assertEquals(Set.of("beta"), getLibrary("text-3.12.0.jar").getModules());
+    }
+
+    @Test
+    @Order(2)
+    void testConflicts() {
+        IllegalStateException version = assertThrows(IllegalStateException.class,
+                () -> libraryManager.addLibraries("gamma", List.of("json-2.10")));
+        assertTrue(version.getMessage().contains("json-2.9.1.jar"));
+
+        IllegalStateException packages = assertThrows(IllegalStateException.class,
+                () -> libraryManager.addLibraries("gamma", List.of("json-shaded")));
+        assertTrue(packages.getMessage().contains("org.example.json"));
+
+        // Either all libraries of a module are added or none of them
+        assertThrows(IllegalStateException.class,
+                () -> libraryManager.addLibraries("gamma", List.of("text-3.12.0", "json-2.10")));
+        assertEquals(Set.of("beta"), getLibrary("text-3.12.0.jar").getModules());
+        assertEquals(2, libraryManager.getLibraries().size());
+    }
+
+    @Test
+    @Order(3)
+    void testVisibility() throws ClassNotFoundException {
+        ClassLoader alpha = libraryManager.getClassLoader("alpha");
+        ClassLoader beta = libraryManager.getClassLoader("beta");
+
+        // A module only sees the libraries it declares
+        assertNotNull(alpha.getResource(PARSER));
+        assertNull(alpha.getResource(STRINGS));
+        assertNotNull(beta.getResource(STRINGS));
+
+        // The classes of a library are defined once for all of its modules
+        Class<?> parser = alpha.loadClass("org.example.json.Parser");
+        assertSame(parser, beta.loadClass("org.example.json.Parser"));
+        assertEquals(1, getLibrary("json-2.9.1.jar").getLoadedClasses());
+
+        assertSame(LibraryManagerTest.class.getClassLoader(), libraryManager.getClassLoader("gamma"));
+        assertThrows(ClassNotFoundException.class,
+                () -> libraryManager.getClassLoader("gamma").loadClass("org.example.json.Parser"));
+    }
+
+    @Test
+    @Order(4)
+    void testRelease() throws IOException {
+        assertTrue(libraryManager.removeModule("alpha").isEmpty());
+        assertEquals(Set.of("beta"), getLibrary("json-2.9.1.jar").getModules());
+
+        // The last user is gone, so another version can be used
+        assertEquals(2, libraryManager.removeModule("beta").size());
+        assertTrue(libraryManager.getLibraries().isEmpty());
+
+        libraryManager.addLibraries("gamma", List.of("json-2.10"));
+        assertEquals(Set.of("gamma"), getLibrary("json-2.10.jar").getModules());
+        libraryManager.removeModule("gamma");
+    }
+
+    private static LibraryManager.Library getLibrary(String name) {
+        return libraryManager.getLibraries().stream()
+                .filter(library -> library.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static void createJar(String name, String entry, byte[] content) throws IOException {
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(new File(directory,
+                name).toPath()))) {
+            outputStream.putNextEntry(new JarEntry(entry));
+            outputStream.write(content);
+            outputStream.closeEntry();
+        }
+    }
+
+}
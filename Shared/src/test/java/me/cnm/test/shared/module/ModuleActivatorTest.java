@@ -0,0 +1,157 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleActivator;
+import me.cnm.impl.shared.module.loading.ModuleScheduler;
+import me.cnm.impl.shared.module.loading.ModuleWatchdog;
+import me.cnm.shared.cli.command.ICommandHandler;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.module.loading.IModuleInterpreter;
+import me.cnm.shared.utility.configuration.IConfigurationHandler;
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.scope.Scopes;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleActivatorTest {
+
+    @TempDir
+    static File directory;
+
+    private static final RecordingLogHandler logHandler = new RecordingLogHandler();
+    private static final Queue<String> events = new ConcurrentLinkedQueue<>();
+    private static final CountDownLatch slowStart = new CountDownLatch(1);
+
+    private static ExecutorService executorService;
+    private static ModuleActivator moduleActivator;
+
+    @BeforeAll
+    static void setup() {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        handlerLibrary.registerHandler(ILogHandler.class, logHandler);
+        handlerLibrary.registerHandler(IConfigurationHandler.class, new DefaultConfigurationHandler());
+        handlerLibrary.registerHandler(ICommandHandler.class, new CommandHandler(handlerLibrary));
+
+        ModuleHandler moduleHandler = new ModuleHandler(handlerLibrary);
+        moduleHandler.registerInterpreter("test", new RecordingInterpreter());
+
+        executorService = Executors.newFixedThreadPool(1);
+        moduleActivator = new ModuleActivator(logHandler, moduleHandler,
+                new ModuleScheduler(logHandler, executorService, new ModuleWatchdog(logHandler)), module -> 0,
+                Runnable::run);
+    }
+
+    @AfterAll
+    static void cleanup() {
+        slowStart.countDown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    void testDefer() {
+        List<IModule> eager = moduleActivator.defer(List.of(
+                createModule("a", List.of("b"), List.of(), List.of()),
+                // Required by a, and b requires c, so both are loaded eagerly despite their triggers
+                createModule("b", List.of("c"), List.of("bee"), List.of()),
+                createModule("c", List.of(), List.of("cee"), List.of()),
+                createModule("d", List.of("e"), List.of(), List.of(Trigger.class.getName())),
+                createModule("e", List.of(), List.of("eee"), List.of()),
+                createModule("slow", List.of(), List.of("slow"), List.of())
+        ));
+
+        assertEquals(List.of("a", "b", "c"), getNames(eager));
+        assertEquals(List.of("d", "e", "slow"), getNames(moduleActivator.getDeferred()));
+        assertFalse(moduleActivator.activateCommand("bee"));
+    }
+
+    @Test
+    @Order(2)
+    void testActivate() {
+        // The handler trigger activates d together with the deferred module it depends on
+        assertTrue(moduleActivator.activateHandler(Trigger.class));
+        assertEquals(List.of("load e", "load d", "start e", "start d"), List.copyOf(events));
+
+        assertFalse(moduleActivator.activateCommand("EEE"));
+        assertEquals(List.of("slow"), getNames(moduleActivator.getDeferred()));
+    }
+
+    @Test
+    @Order(3)
+    void testLookupWhileActivating() throws Exception {
+        Future<Boolean> activation = executorService.submit(() -> moduleActivator.activateCommand("SLOW"));
+        while (!events.contains("start slow")) Thread.sleep(10);
+
+        // Other triggers are looked up, while the slow module is still starting
+        Future<List<IModule>> deferred = Executors.newSingleThreadExecutor()
+                .submit(() -> moduleActivator.getDeferred());
+        assertTrue(deferred.get(5, TimeUnit.SECONDS).isEmpty());
+        assertFalse(activation.isDone());
+
+        slowStart.countDown();
+        assertTrue(activation.get(5, TimeUnit.SECONDS));
+    }
+
+    private static List<String> getNames(List<IModule> modules) {
+        return modules.stream().map(module -> module.getModuleDescription().getName()).toList();
+    }
+
+    private static IModule createModule(String name, List<String> dependencies, List<String> commands,
+                                        List<String> handlers) {
+        JsonDocument moduleJson = new JsonDocument()
+                .append("name", name)
+                .append("version", "test")
+                .append("language", "test")
+                .append("dependencies", dependencies)
+                .append("triggers", new JsonDocument()
+                        .append("commands", commands)
+                        .append("handlers", handlers));
+
+        return new Module(new ModuleDescription(moduleJson, name), new File(directory, name));
+    }
+
+    private interface Trigger {
+    }
+
+    private static class RecordingInterpreter implements IModuleInterpreter {
+
+        @Override
+        public void loadModule(IModule module) {
+            events.add("load " + module.getModuleDescription().getName());
+        }
+
+        @Override
+        public void startModule(IModule module) {
+            String name = module.getModuleDescription().getName();
+            events.add("start " + name);
+            if (name.equals("slow")) Scopes.throwRuntime(() -> slowStart.await(10, TimeUnit.SECONDS));
+
+            module.setRunning(true);
+        }
+
+        @Override
+        public void stopModule(IModule module) {
+            module.setRunning(false);
+        }
+
+        @Override
+        public void unloadModule(IModule module) {
+            events.add("unload " + module.getModuleDescription().getName());
+        }
+
+    }
+
+}
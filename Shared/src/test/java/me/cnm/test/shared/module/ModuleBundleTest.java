@@ -0,0 +1,193 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.cli.log.LogHandler;
+import me.cnm.impl.shared.module.ModuleCache;
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.bundle.BundledModule;
+import me.cnm.impl.shared.module.bundle.ModuleBundle;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.shared.module.java.JavaModule;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleBundleTest {
+
+    private static final String RESOURCE = "config/default.json";
+    private static final String CONTENT = "{\"greeting\":\"hello\"}";
+
+    @TempDir
+    static File directory;
+
+    private static File bundleFile;
+
+    @BeforeAll
+    static void setup() throws IOException, URISyntaxException {
+        File sources = new File(directory, "sources/bundled");
+        File classes = new File(directory, "classes");
+        //noinspection ResultOfMethodCallIgnored
+        sources.mkdirs();
+
+        File greeter = new File(sources, "Greeter.java");
+        Files.writeString(greeter.toPath(), "package bundled;\n" +
+                "public class Greeter {\n    public int value() { return 42; }\n}\n");
+        File main = new File(sources, "Main.java");
+        Files.writeString(main.toPath(), "package bundled;\n" +
+                "public class Main extends me.cnm.shared.module.java.JavaModule {\n" +
+                "    public Main(me.cnm.shared.IHandlerLibrary handlerLibrary, " +
+                "me.cnm.shared.module.IModuleDescription moduleDescription, java.io.File dataFolder) {\n" +
+                "        super(handlerLibrary, moduleDescription, dataFolder);\n" +
+                "    }\n" +
+                "}\n");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler);
+        assertEquals(0, compiler.run(null, null, null, "-d", classes.getAbsolutePath(), "-classpath",
+                new File(JavaModule.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                        .getAbsolutePath(), greeter.getAbsolutePath(), main.getAbsolutePath()));
+
+        File folder = new File(directory, "modules/bundled");
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(new File(folder,
+                "java.jar").toPath()))) {
+            for (String name : List.of("Greeter", "Main")) {
+                outputStream.putNextEntry(new JarEntry("bundled/" + name + ".class"));
+                outputStream.write(Files.readAllBytes(new File(classes, "bundled/" + name + ".class").toPath()));
+                outputStream.closeEntry();
+            }
+
+            outputStream.putNextEntry(new JarEntry(RESOURCE));
+            outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            outputStream.closeEntry();
+        }
+
+        new JsonDocument()
+                .append("name", "bundled")
+                .append("version", "test")
+                .append("language", "java")
+                .append("additional", new JsonDocument().append("main", "bundled.Main"))
+                .write(new File(folder, "module.json"));
+
+        bundleFile = new File(directory, "modules/test" + ModuleBundle.EXTENSION);
+        ModuleBundle.write(bundleFile, List.of(folder));
+    }
+
+    @Test
+    @Order(1)
+    void testRoundTrip() throws Exception {
+        ModuleBundle bundle = ModuleBundle.open(bundleFile);
+        BundledModule bundledModule = bundle.getModule("bundled");
+        assertNotNull(bundledModule);
+        assertEquals("bundled", bundledModule.getModuleJson().getString("name"));
+        assertNull(bundle.getModule("missing"));
+
+        // Resources are read from the mapped bundle
+        ByteBuffer entry = bundledModule.getEntry(RESOURCE);
+        assertNotNull(entry);
+        assertEquals(CONTENT, StandardCharsets.UTF_8.decode(entry).toString());
+        assertNull(bundledModule.getResource("missing.json"));
+        assertTrue(bundledModule.getJarIndex().containsClass("bundled.Greeter"));
+
+        URL url = bundledModule.getResource(RESOURCE);
+        assertNotNull(url);
+        try (InputStream inputStream = url.openStream()) {
+            assertEquals(CONTENT, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // Classes are defined from the bundle, without the jar of the folder
+        JavaInterpreter javaInterpreter = new JavaInterpreter(null, new ModuleCache(new LogHandler(() -> null),
+                new File(directory, "modules.cache")), new ModuleProfiler(), null);
+        IModule module = new Module(new ModuleDescription(bundledModule.getModuleJson(), bundleFile + "!/bundled"),
+                new File(directory, "data/bundled"), bundledModule);
+        javaInterpreter.loadModule(module);
+
+        try {
+            Class<?> greeter = javaInterpreter.getClassByName("bundled.Greeter");
+            assertNotNull(greeter);
+            assertEquals(42, greeter.getMethod("value").invoke(greeter.getConstructor().newInstance()));
+
+            try (InputStream inputStream = greeter.getClassLoader().getResourceAsStream(RESOURCE)) {
+                assertNotNull(inputStream);
+                assertEquals(CONTENT, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            javaInterpreter.unloadModule(module);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void testCorruptedIndex() throws IOException {
+        byte[] bytes = Files.readAllBytes(bundleFile.toPath());
+
+        // The index claims to be longer than the file
+        File tooLong = new File(directory, "too-long" + ModuleBundle.EXTENSION);
+        byte[] corrupted = bytes.clone();
+        ByteBuffer.wrap(corrupted).putInt(8, bytes.length);
+        Files.write(tooLong.toPath(), corrupted);
+        assertThrows(IOException.class, () -> ModuleBundle.open(tooLong));
+
+        // The index claims more modules than it contains
+        File truncated = new File(directory, "truncated" + ModuleBundle.EXTENSION);
+        corrupted = bytes.clone();
+        ByteBuffer.wrap(corrupted).putInt(12, 1000);
+        Files.write(truncated.toPath(), corrupted);
+        assertThrows(IOException.class, () -> ModuleBundle.open(truncated));
+
+        // The module.json of the first module has a negative length
+        File negative = new File(directory, "negative" + ModuleBundle.EXTENSION);
+        corrupted = bytes.clone();
+        ByteBuffer.wrap(corrupted).putInt(16 + 2 + "bundled".length(), -1);
+        Files.write(negative.toPath(), corrupted);
+        assertThrows(IOException.class, () -> ModuleBundle.open(negative));
+
+        // Not a bundle at all
+        File invalid = new File(directory, "invalid" + ModuleBundle.EXTENSION);
+        Files.writeString(invalid.toPath(), CONTENT);
+        assertThrows(IOException.class, () -> ModuleBundle.open(invalid));
+    }
+
+    @Test
+    @Order(3)
+    void testReplacedFile() throws IOException {
+        File copy = new File(directory, "copy" + ModuleBundle.EXTENSION);
+        Files.copy(bundleFile.toPath(), copy.toPath());
+        long lastModified = copy.lastModified();
+
+        ModuleBundle bundle = ModuleBundle.open(copy);
+        assertEquals(copy.length(), bundle.getSize());
+        assertEquals(lastModified, bundle.getLastModified());
+
+        // The index describes the mapped file, even if it's built after the file was replaced
+        Files.write(copy.toPath(), new byte[(int) copy.length() + 16]);
+        assertTrue(copy.setLastModified(lastModified + 10_000));
+
+        BundledModule bundledModule = bundle.getModule("bundled");
+        assertNotNull(bundledModule);
+        assertEquals(bundle.getSize(), bundledModule.getJarIndex().getSize());
+        assertEquals(lastModified, bundledModule.getJarIndex().getLastModified());
+    }
+
+}
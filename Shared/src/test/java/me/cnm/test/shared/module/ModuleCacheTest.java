@@ -0,0 +1,96 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.cli.log.LogHandler;
+import me.cnm.impl.shared.module.JarIndex;
+import me.cnm.impl.shared.module.ModuleCache;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleCacheTest {
+
+    @TempDir
+    static File directory;
+
+    private static File cacheFile;
+    private static File moduleJson;
+    private static File jarFile;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        cacheFile = new File(directory, "modules.cache");
+        moduleJson = new File(directory, "module.json");
+        jarFile = new File(directory, "java.jar");
+
+        writeModuleJson("first");
+        writeJar(List.of("alpha/A.class"));
+    }
+
+    @Test
+    @Order(1)
+    void testHit() throws IOException {
+        ModuleCache moduleCache = new ModuleCache(new LogHandler(() -> null), cacheFile);
+        moduleCache.read();
+        assertEquals("first", moduleCache.getDescription(moduleJson).getVersion());
+        assertTrue(moduleCache.getJarIndex(jarFile).containsClass("alpha.A"));
+        moduleCache.save();
+
+        // Same size and modification time, so the files aren't read again
+        long lastModified = moduleJson.lastModified();
+        writeModuleJson("other");
+        assertTrue(moduleJson.setLastModified(lastModified));
+
+        lastModified = jarFile.lastModified();
+        Files.write(jarFile.toPath(), new byte[(int) jarFile.length()]);
+        assertTrue(jarFile.setLastModified(lastModified));
+
+        moduleCache = new ModuleCache(new LogHandler(() -> null), cacheFile);
+        moduleCache.read();
+        assertEquals("first", moduleCache.getDescription(moduleJson).getVersion());
+        assertTrue(moduleCache.getJarIndex(jarFile).containsClass("alpha.A"));
+    }
+
+    @Test
+    @Order(2)
+    void testMiss() throws IOException {
+        writeModuleJson("changed");
+        writeJar(List.of("alpha/A.class", "alpha/B.class"));
+
+        ModuleCache moduleCache = new ModuleCache(new LogHandler(() -> null), cacheFile);
+        moduleCache.read();
+        assertEquals("changed", moduleCache.getDescription(moduleJson).getVersion());
+
+        JarIndex jarIndex = moduleCache.getJarIndex(jarFile);
+        assertTrue(jarIndex.containsClass("alpha.B"));
+        assertEquals(jarFile.length(), jarIndex.getSize());
+    }
+
+    private static void writeModuleJson(String version) throws IOException {
+        new JsonDocument()
+                .append("name", "alpha")
+                .append("version", version)
+                .append("language", "java")
+                .write(moduleJson);
+    }
+
+    private static void writeJar(List<String> entries) throws IOException {
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jarFile.toPath()))) {
+            for (String entry : entries) {
+                outputStream.putNextEntry(new JarEntry(entry));
+                outputStream.write(new byte[]{(byte) 0xCA, (byte) 0xFE});
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.cli.log.LogHandler;
+import me.cnm.impl.shared.module.ModuleCache;
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
+import me.cnm.impl.shared.module.java.ModuleClassLoader;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.profile.ModulePhase;
+import me.cnm.impl.shared.module.profile.ModuleProfile;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.shared.module.exception.ModuleInterpreterException;
+import me.cnm.shared.module.java.JavaModule;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.scope.Scopes;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleClassLoaderTest {
+
+    private static final int CLASSES = 1000;
+    private static final int THREADS = 16;
+
+    @TempDir
+    static File directory;
+
+    private static final ModuleProfiler moduleProfiler = new ModuleProfiler();
+    private static JavaInterpreter javaInterpreter;
+    private static final Map<String, IModule> modules = new HashMap<>();
+
+    @Test
+    @Order(1)
+    void testCompile() throws IOException, URISyntaxException {
+        File sources = new File(directory, "sources");
+        File classes = new File(directory, "classes");
+
+        List<File> files = new ArrayList<>();
+        files.addAll(this.writeModuleSources(sources, "alpha", null));
+        files.addAll(this.writeModuleSources(sources, "beta", "alpha"));
+        files.addAll(this.writeModuleSources(sources, "gamma", "beta"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler);
+
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.getAbsolutePath(),
+                "-classpath", new File(JavaModule.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                        .getAbsolutePath()));
+        for (File file : files) arguments.add(file.getAbsolutePath());
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+
+        javaInterpreter = new JavaInterpreter(null, new ModuleCache(new LogHandler(() -> null),
+                new File(directory, "modules.cache")), moduleProfiler, null);
+
+        for (String name : List.of("alpha", "beta", "gamma")) {
+            IModule module = this.createModule(classes, name, name);
+            assertDoesNotThrow(() -> javaInterpreter.loadModule(module));
+            modules.put(name, module);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void testConcurrentLoading() throws InterruptedException, ExecutionException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            names.add("alpha.A" + i);
+            names.add("beta.B" + i);
+            names.add("gamma.G" + i);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Map<String, Class<?>>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                List<String> order = new ArrayList<>(names);
+                Collections.shuffle(order, new Random(thread));
+
+                futures.add(executorService.submit(() -> {
+                    start.await();
+
+                    Map<String, Class<?>> loaded = new HashMap<>();
+                    for (String name : order) loaded.put(name, javaInterpreter.getClassByName(name));
+                    return loaded;
+                }));
+            }
+
+            start.countDown();
+
+            Map<String, Class<?>> expected = futures.get(0).get();
+            for (Future<Map<String, Class<?>>> future : futures) {
+                Map<String, Class<?>> loaded = future.get();
+                for (String name : names) assertSame(expected.get(name), loaded.get(name), name);
+            }
+
+            for (int i = 0; i < CLASSES; i++) {
+                Class<?> alpha = expected.get("alpha.A" + i);
+                Class<?> beta = expected.get("beta.B" + i);
+                Class<?> gamma = expected.get("gamma.G" + i);
+
+                assertNotNull(alpha);
+                assertSame(alpha, beta.getSuperclass());
+                assertSame(beta, gamma.getSuperclass());
+                assertNotSame(alpha.getClassLoader(), beta.getClassLoader());
+                assertNotSame(beta.getClassLoader(), gamma.getClassLoader());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @Order(3)
+    void testMissing() {
+        assertNull(javaInterpreter.getClassByName("alpha.Missing"));
+        assertNull(javaInterpreter.getClassByName("alpha.Missing"));
+        assertNotNull(javaInterpreter.getClassOwner("alpha.A0"));
+    }
+
+    @Test
+    @Order(4)
+    void testSharedClasses() throws IOException, ModuleInterpreterException {
+        // A second module ships the same classes, for example because both bundle the same library
+        IModule copy = this.createModule(new File(directory, "classes"), "alpha-copy", "alpha");
+        javaInterpreter.loadModule(copy);
+
+        assertNotEquals("alpha-copy", javaInterpreter.getClassOwner("alpha.A0").getName());
+        javaInterpreter.unloadModule(modules.get("alpha"));
+
+        // The classes are resolved by the remaining owner
+        ModuleClassLoader owner = javaInterpreter.getClassOwner("alpha.A0");
+        assertNotNull(owner);
+        assertEquals("alpha-copy", owner.getName());
+
+        Class<?> clazz = javaInterpreter.getClassByName("alpha.A0");
+        assertNotNull(clazz);
+        assertSame(owner, clazz.getClassLoader());
+
+        javaInterpreter.unloadModule(copy);
+        assertNull(javaInterpreter.getClassOwner("alpha.A0"));
+    }
+
+    @Test
+    @Order(5)
+    void testMissBeforeLoad() throws ModuleInterpreterException {
+        IModule alpha = modules.get("alpha");
+
+        // The miss is cached while no module owns the class, and dropped when the module is indexed
+        assertNull(javaInterpreter.getClassByName("alpha.A0"));
+        javaInterpreter.loadModule(alpha);
+        assertNotNull(javaInterpreter.getClassByName("alpha.A0"));
+
+        javaInterpreter.unloadModule(alpha);
+        assertNull(javaInterpreter.getClassByName("alpha.A0"));
+    }
+
+    @Test
+    @Order(6)
+    void testProfile() {
+        // Every class of beta was defined by its own class loader, and its main class was resolved while loading
+        ModuleProfile profile = moduleProfiler.getProfile("beta");
+        assertEquals(CLASSES + 1, profile.getDefinedClasses());
+        assertTrue(profile.getDefinedBytes() > 0);
+        assertNotNull(profile.getMeasurement(ModulePhase.MAIN_CLASS));
+    }
+
+    private List<File> writeModuleSources(File sources, String name, String parent) throws IOException {
+        File folder = new File(sources, name);
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        String prefix = Character.toUpperCase(name.charAt(0)) + "";
+        String parentPrefix = parent == null ? null : Character.toUpperCase(parent.charAt(0)) + "";
+
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            File file = new File(folder, prefix + i + ".java");
+            Files.writeString(file.toPath(), "package " + name + ";\n" +
+                    "public class " + prefix + i + (parent == null ? "" : " extends " + parent + "." + parentPrefix + i) +
+                    " {\n    public int value() { return " + i + "; }\n}\n");
+            files.add(file);
+        }
+
+        File main = new File(folder, "Main.java");
+        Files.writeString(main.toPath(), "package " + name + ";\n" +
+                "public class Main extends me.cnm.shared.module.java.JavaModule {\n" +
+                "    public Main(me.cnm.shared.IHandlerLibrary handlerLibrary, " +
+                "me.cnm.shared.module.IModuleDescription moduleDescription, java.io.File dataFolder) {\n" +
+                "        super(handlerLibrary, moduleDescription, dataFolder);\n" +
+                "    }\n" +
+                "}\n");
+        files.add(main);
+
+        return files;
+    }
+
+    private IModule createModule(File classes, String name, String packageName) throws IOException {
+        File folder = new File(directory, "modules/" + name);
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        Path root = classes.toPath();
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(new File(folder,
+                "java.jar").toPath())); Stream<Path> paths = Files.walk(root.resolve(packageName))) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                outputStream.putNextEntry(new JarEntry(root.relativize(path).toString().replace(File.separatorChar,
+                        '/')));
+                this.copy(path, outputStream);
+                outputStream.closeEntry();
+            }
+        }
+
+        File moduleJson = new File(folder, "module.json");
+        Scopes.throwRuntime(() -> new JsonDocument()
+                .append("name", name)
+                .append("version", "test")
+                .append("language", "java")
+                .append("additional", new JsonDocument().append("main", packageName + ".Main"))
+                .write(moduleJson));
+
+        return new Module(new ModuleDescription(moduleJson), folder);
+    }
+
+    private void copy(Path path, OutputStream outputStream) throws IOException {
+        outputStream.write(Files.readAllBytes(path));
+    }
+
+}
@@ -0,0 +1,100 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleGraph;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.scope.Scopes;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleGraphTest {
+
+    @TempDir
+    static File directory;
+
+    @Test
+    @Order(1)
+    void testWaves() {
+        ModuleGraph graph = new ModuleGraph(List.of(
+                this.createModule("d", List.of("b", "c"), List.of()),
+                this.createModule("b", List.of("a"), List.of()),
+                this.createModule("c", List.of(), List.of("a")),
+                this.createModule("a", List.of(), List.of())
+        ), name -> false);
+
+        assertEquals(List.of(List.of("a"), List.of("b", "c"), List.of("d")), this.waveNames(graph.getWaves()));
+        assertEquals(Set.of("b", "c"), graph.getDependents("a"));
+        assertEquals(Set.of("b", "c"), graph.getDependencies("d"));
+        assertTrue(graph.getUnresolved().isEmpty());
+        assertTrue(graph.getCyclic().isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    void testMissing() {
+        ModuleGraph graph = new ModuleGraph(List.of(
+                this.createModule("a", List.of("missing"), List.of()),
+                this.createModule("b", List.of("a"), List.of()),
+                this.createModule("c", List.of("loaded"), List.of("missing"))
+        ), "loaded"::equals);
+
+        assertEquals(List.of(List.of("c")), this.waveNames(graph.getWaves()));
+        assertEquals(Set.of("a", "b"), Set.copyOf(this.names(graph.getUnresolved())));
+    }
+
+    @Test
+    @Order(3)
+    void testCycles() {
+        ModuleGraph softCycle = new ModuleGraph(List.of(
+                this.createModule("a", List.of(), List.of("b")),
+                this.createModule("b", List.of("a"), List.of())
+        ), name -> false);
+
+        assertEquals(List.of(List.of("a"), List.of("b")), this.waveNames(softCycle.getWaves()));
+        assertTrue(softCycle.getCyclic().isEmpty());
+
+        ModuleGraph hardCycle = new ModuleGraph(List.of(
+                this.createModule("a", List.of("b"), List.of()),
+                this.createModule("b", List.of("a"), List.of()),
+                this.createModule("c", List.of(), List.of())
+        ), name -> false);
+
+        assertEquals(List.of(List.of("c")), this.waveNames(hardCycle.getWaves()));
+        assertEquals(Set.of("a", "b"), Set.copyOf(this.names(hardCycle.getCyclic())));
+    }
+
+    private IModule createModule(String name, List<String> dependencies, List<String> softDependencies) {
+        File folder = new File(directory, name + "-" + System.nanoTime());
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        File moduleJson = new File(folder, "module.json");
+        Scopes.throwRuntime(() -> new JsonDocument()
+                .append("name", name)
+                .append("version", "test")
+                .append("language", "java")
+                .append("dependencies", dependencies)
+                .append("softDependencies", softDependencies)
+                .write(moduleJson));
+
+        return new Module(new ModuleDescription(moduleJson), folder);
+    }
+
+    private List<List<String>> waveNames(List<List<IModule>> waves) {
+        return waves.stream().map(this::names).toList();
+    }
+
+    private List<String> names(List<IModule> modules) {
+        return modules.stream().map(module -> module.getModuleDescription().getName()).toList();
+    }
+
+}
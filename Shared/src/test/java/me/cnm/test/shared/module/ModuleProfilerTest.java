@@ -0,0 +1,111 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.profile.ModulePhase;
+import me.cnm.impl.shared.module.profile.ModuleProfile;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleProfilerTest {
+
+    @TempDir
+    static File directory;
+
+    private static final ModuleProfiler moduleProfiler = new ModuleProfiler();
+
+    @Test
+    @Order(1)
+    void testPhases() throws InterruptedException {
+        moduleProfiler.begin("alpha");
+        try (ModuleProfiler.Timer ignored = moduleProfiler.measure("alpha", ModulePhase.LOAD)) {
+            Thread.sleep(20);
+        }
+        try (ModuleProfiler.Timer ignored = moduleProfiler.measure("alpha", ModulePhase.START)) {
+            byte[][] allocated = new byte[16][];
+            for (int i = 0; i < allocated.length; i++) allocated[i] = new byte[64 * 1024];
+            assertNotNull(allocated[15]);
+        }
+        try (ModuleProfiler.Timer ignored = moduleProfiler.measure("alpha", ModulePhase.STOP)) {
+            Thread.sleep(50);
+        }
+
+        ModuleProfile profile = moduleProfiler.getProfile("alpha");
+        ModuleProfile.Measurement load = profile.getMeasurement(ModulePhase.LOAD);
+        assertNotNull(load);
+        assertTrue(load.nanos() >= 20_000_000L, load::toString);
+
+        ModuleProfile.Measurement start = profile.getMeasurement(ModulePhase.START);
+        assertNotNull(start);
+        assertTrue(start.allocated() == -1 || start.allocated() >= 16 * 64 * 1024, start::toString);
+        assertNull(profile.getMeasurement(ModulePhase.UNLOAD));
+
+        // Stopping isn't part of the boot
+        assertEquals(load.nanos() + start.nanos(), profile.getBootNanos());
+    }
+
+    @Test
+    @Order(2)
+    void testUnknownModule() {
+        // A timer without a profile is discarded, a late profile gets the measurement
+        try (ModuleProfiler.Timer ignored = moduleProfiler.measure(ModulePhase.DESCRIPTION)) {
+            assertEquals(List.of("alpha"), getNames(moduleProfiler.getProfiles()));
+        }
+
+        ModuleProfile profile = moduleProfiler.begin("beta");
+        try (ModuleProfiler.Timer timer = moduleProfiler.measure(ModulePhase.DESCRIPTION)) {
+            timer.setProfile(profile);
+        }
+
+        assertNotNull(profile.getMeasurement(ModulePhase.DESCRIPTION));
+        assertNull(moduleProfiler.getProfile("alpha").getMeasurement(ModulePhase.DESCRIPTION));
+
+        // The slowest module comes first
+        assertEquals(List.of("alpha", "beta"), getNames(moduleProfiler.getProfiles()));
+    }
+
+    @Test
+    @Order(3)
+    void testWrite() throws IOException {
+        ModuleProfile profile = moduleProfiler.getProfile("beta");
+        profile.classDefined(100);
+        profile.classDefined(50);
+
+        File file = new File(directory, "profile.json");
+        moduleProfiler.write(file);
+
+        JsonDocument modules = new JsonDocument(file).getDocument("modules");
+        assertNotNull(modules);
+        JsonDocument beta = modules.getDocument("beta");
+        assertNotNull(beta);
+        assertEquals(2L, beta.getLong("definedClasses"));
+        assertEquals(150L, beta.getLong("definedBytes"));
+
+        JsonDocument phases = modules.getDocument("alpha").getDocument("phases");
+        assertEquals(measurement(ModulePhase.LOAD).nanos(), phases.getDocument("load").getLong("nanos"));
+        assertFalse(phases.contains("unload"));
+
+        // A new profile replaces the measurements of the previous load
+        moduleProfiler.begin("beta");
+        assertEquals(0, moduleProfiler.getProfile("beta").getDefinedClasses());
+        assertNull(moduleProfiler.getProfile("beta").getMeasurement(ModulePhase.DESCRIPTION));
+    }
+
+    private static ModuleProfile.Measurement measurement(ModulePhase phase) {
+        ModuleProfile.Measurement measurement = moduleProfiler.getProfile("alpha").getMeasurement(phase);
+        assertNotNull(measurement);
+        return measurement;
+    }
+
+    private static List<String> getNames(List<ModuleProfile> profiles) {
+        return profiles.stream().map(ModuleProfile::getModule).toList();
+    }
+
+}
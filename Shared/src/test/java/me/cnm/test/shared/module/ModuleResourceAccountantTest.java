@@ -0,0 +1,157 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.JarIndex;
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.ModuleHandler;
+import me.cnm.impl.shared.module.java.ModuleClassLoader;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.impl.shared.module.resource.ModuleResourceAccountant;
+import me.cnm.shared.cli.command.ICommandHandler;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.ModuleResourceUsage;
+import me.cnm.shared.module.exception.ModuleInterpreterException;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.module.loading.IModuleInterpreter;
+import me.cnm.shared.utility.configuration.IConfigurationHandler;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleResourceAccountantTest {
+
+    @TempDir
+    static File directory;
+
+    private static final RecordingLogHandler logHandler = new RecordingLogHandler();
+    private static final AtomicBoolean running = new AtomicBoolean(true);
+
+    private static ModuleHandler moduleHandler;
+    private static ModuleResourceAccountant resourceAccountant;
+    private static ModuleClassLoader classLoader;
+    private static Thread worker;
+
+    @BeforeAll
+    static void setup() throws ModuleInterpreterException, IOException {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        handlerLibrary.registerHandler(ILogHandler.class, logHandler);
+        handlerLibrary.registerHandler(IConfigurationHandler.class, new DefaultConfigurationHandler());
+        handlerLibrary.registerHandler(ICommandHandler.class, new CommandHandler(handlerLibrary));
+
+        moduleHandler = new ModuleHandler(handlerLibrary);
+        moduleHandler.registerInterpreter("test", new EmptyInterpreter());
+        moduleHandler.loadWithInterpreter(createModule("alpha"));
+        moduleHandler.loadWithInterpreter(createModule("beta"));
+
+        resourceAccountant = new ModuleResourceAccountant(logHandler, moduleHandler, 0);
+        classLoader = new ModuleClassLoader(null, "alpha", new File(directory, "alpha.jar"), new JarIndex(0, 0, 0,
+                Map.of()), new ModuleProfiler().getProfile("alpha"),
+                ModuleResourceAccountantTest.class.getClassLoader());
+    }
+
+    @AfterAll
+    static void cleanup() throws IOException, InterruptedException {
+        running.set(false);
+        if (worker != null) worker.join(5000);
+        classLoader.close();
+    }
+
+    @Test
+    @Order(1)
+    void testAttribution() throws InterruptedException {
+        // A thread of the module, like one created by its executors, burns cpu and allocates
+        CountDownLatch started = new CountDownLatch(1);
+        worker = new Thread(() -> {
+            started.countDown();
+            long sum = 0;
+            while (running.get()) sum += new byte[1024].length;
+            assertTrue(sum > 0);
+        }, "alpha-worker");
+        worker.setContextClassLoader(classLoader);
+        worker.setDaemon(true);
+        worker.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The first sample is only the baseline
+        resourceAccountant.sample();
+        ModuleResourceUsage first = resourceAccountant.getUsage("alpha");
+        assertNotNull(first);
+        assertEquals(1, first.getThreads());
+        assertEquals(0, first.getCpuTime());
+
+        Thread.sleep(200);
+        resourceAccountant.sample();
+
+        ModuleResourceUsage alpha = resourceAccountant.getUsage("alpha");
+        assertNotNull(alpha);
+        assertEquals(1, alpha.getThreads());
+        assertTrue(alpha.getCpuTime() > 0, alpha::toString);
+        assertTrue(alpha.getCpuLoad() > 0, alpha::toString);
+        assertTrue(alpha.getAllocatedBytes() == -1 || alpha.getAllocatedBytes() > 0, alpha::toString);
+
+        // Threads without module code, like the test thread, aren't attributed
+        ModuleResourceUsage beta = resourceAccountant.getUsage("beta");
+        assertNotNull(beta);
+        assertEquals(0, beta.getThreads());
+        assertEquals(0, beta.getCpuTime());
+
+        assertEquals(List.of("alpha", "beta"), resourceAccountant.getUsages().stream()
+                .map(ModuleResourceUsage::getModule).toList());
+    }
+
+    @Test
+    @Order(2)
+    void testUnloaded() throws ModuleInterpreterException {
+        moduleHandler.unloadModule(moduleHandler.get("alpha"));
+        resourceAccountant.sample();
+
+        // The usage of an unloaded module is dropped, even if its thread is still running
+        assertNull(resourceAccountant.getUsage("alpha"));
+        assertNotNull(resourceAccountant.getUsage("beta"));
+    }
+
+    private static IModule createModule(String name) {
+        JsonDocument moduleJson = new JsonDocument()
+                .append("name", name)
+                .append("version", "test")
+                .append("language", "test");
+
+        return new Module(new ModuleDescription(moduleJson, name), new File(directory, name));
+    }
+
+    private static class EmptyInterpreter implements IModuleInterpreter {
+
+        @Override
+        public void loadModule(IModule module) {
+        }
+
+        @Override
+        public void startModule(IModule module) {
+            module.setRunning(true);
+        }
+
+        @Override
+        public void stopModule(IModule module) {
+            module.setRunning(false);
+        }
+
+        @Override
+        public void unloadModule(IModule module) {
+        }
+
+    }
+
+}
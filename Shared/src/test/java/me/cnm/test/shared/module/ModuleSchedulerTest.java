@@ -0,0 +1,201 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleGraph;
+import me.cnm.impl.shared.module.loading.ModuleScheduler;
+import me.cnm.impl.shared.module.loading.ModuleTask;
+import me.cnm.impl.shared.module.loading.ModuleWatchdog;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.scope.Scopes;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleSchedulerTest {
+
+    @TempDir
+    static File directory;
+
+    private static final RecordingLogHandler logHandler = new RecordingLogHandler();
+    private static ExecutorService executorService;
+    private static ModuleScheduler moduleScheduler;
+
+    @BeforeAll
+    static void setup() {
+        executorService = Executors.newFixedThreadPool(1);
+        moduleScheduler = new ModuleScheduler(logHandler, executorService, new ModuleWatchdog(logHandler));
+    }
+
+    @AfterAll
+    static void cleanup() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    void testQueuedDeadline() {
+        // With a single thread the modules wait longer than their deadline, before they are executed
+        ModuleGraph graph = new ModuleGraph(List.of(
+                this.createModule("a", List.of()),
+                this.createModule("b", List.of()),
+                this.createModule("c", List.of())
+        ), name -> false);
+
+        List<IModule> failed = moduleScheduler.schedule(graph, "start", module -> Thread.sleep(150),
+                module -> 250);
+        assertTrue(failed.isEmpty(), logHandler.messages::toString);
+    }
+
+    @Test
+    @Order(2)
+    void testFailedDependent() {
+        ModuleGraph graph = new ModuleGraph(List.of(
+                this.createModule("a", List.of()),
+                this.createModule("b", List.of("a")),
+                this.createModule("c", List.of("b"))
+        ), name -> false);
+
+        // A failed dependent doesn't keep its dependencies from stopping
+        Queue<String> stopped = new ConcurrentLinkedQueue<>();
+        List<IModule> failed = moduleScheduler.schedule(graph, "stop", module -> {
+            String name = module.getModuleDescription().getName();
+            if (name.equals("c")) throw new IllegalStateException("The state couldn't be saved");
+            stopped.add(name);
+        }, module -> 0, 0, true);
+
+        assertEquals(List.of("c"), failed.stream().map(module -> module.getModuleDescription().getName()).toList());
+        assertEquals(List.of("b", "a"), List.copyOf(stopped));
+
+        // Starting, a failed dependency skips its dependents
+        failed = moduleScheduler.schedule(graph, "start", module -> {
+            if (module.getModuleDescription().getName().equals("a")) throw new IllegalStateException("Broken");
+        }, module -> 0);
+        assertEquals(3, failed.size());
+    }
+
+    @Test
+    @Order(3)
+    void testLateCompletion() throws InterruptedException {
+        ModuleGraph graph = new ModuleGraph(List.of(this.createModule("a", List.of())), name -> false);
+        CountDownLatch undone = new CountDownLatch(1);
+
+        // The task ignores the interrupt and finishes after it was given up
+        List<IModule> failed = moduleScheduler.schedule(graph, "start", new LateTask(undone), module -> 100);
+        assertEquals(1, failed.size());
+        assertTrue(undone.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Order(4)
+    void testSupervised() throws Exception {
+        IModule fast = this.createModule("fast", List.of());
+        assertTrue(moduleScheduler.execute(fast, "start", module -> {
+        }, 1000));
+        assertFalse(fast.isFailed());
+
+        IModule slow = this.createModule("slow", List.of());
+        CountDownLatch undone = new CountDownLatch(1);
+        assertFalse(moduleScheduler.execute(slow, "start", new LateTask(undone), 100));
+        assertTrue(slow.isFailed());
+        assertEquals(0, undone.getCount());
+    }
+
+    @Test
+    @Order(5)
+    void testWaitingForCycle() {
+        // b and c depend on each other, so a is never free to stop in reverse
+        ModuleGraph graph = new ModuleGraph(List.of(
+                this.createModule("a", List.of()),
+                this.createModule("b", List.of("a", "c")),
+                this.createModule("c", List.of("b"))
+        ), name -> false);
+        assertEquals(2, graph.getCyclic().size());
+
+        List<IModule> failed = moduleScheduler.schedule(graph, "stop", module -> {
+        }, module -> 0, 0, true);
+        assertEquals(List.of("a"), failed.stream().map(module -> module.getModuleDescription().getName()).toList());
+        assertTrue(logHandler.messages.stream().anyMatch(message -> message.startsWith("ERROR Skipped to stop the " +
+                "module a, because it waits for b")), logHandler.messages::toString);
+    }
+
+    @Test
+    @Order(6)
+    void testCompletedAtDeadline() throws InterruptedException {
+        List<IModule> modules = new ArrayList<>();
+        for (char c = 'a'; c <= 't'; c++) modules.add(this.createModule("race-" + c, List.of()));
+        ModuleGraph graph = new ModuleGraph(modules, name -> false);
+
+        // Every task finishes right when its deadline passes, so the worker and the scheduler race for it
+        Set<String> late = ConcurrentHashMap.newKeySet();
+        ModuleTask task = new ModuleTask() {
+            @Override
+            public void execute(IModule module) {
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+                while (System.nanoTime() < end) Thread.onSpinWait();
+            }
+
+            @Override
+            public void completedLate(IModule module) {
+                late.add(module.getModuleDescription().getName());
+            }
+        };
+
+        Set<String> failed = moduleScheduler.schedule(graph, "start", task, module -> 50).stream()
+                .map(module -> module.getModuleDescription().getName()).collect(Collectors.toSet());
+
+        // Exactly the modules treated as failed are undone, once their workers finished
+        long end = System.currentTimeMillis() + 5000;
+        while (!late.equals(failed) && System.currentTimeMillis() < end) Thread.sleep(10);
+        assertEquals(failed, late);
+    }
+
+    private IModule createModule(String name, List<String> dependencies) {
+        File folder = new File(directory, name + "-" + System.nanoTime());
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        File moduleJson = new File(folder, "module.json");
+        Scopes.throwRuntime(() -> new JsonDocument()
+                .append("name", name)
+                .append("version", "test")
+                .append("language", "java")
+                .append("dependencies", dependencies)
+                .append("softDependencies", List.of())
+                .write(moduleJson));
+
+        return new Module(new ModuleDescription(moduleJson), folder);
+    }
+
+    private record LateTask(CountDownLatch undone) implements ModuleTask {
+
+        @Override
+        public void execute(IModule module) {
+            long end = System.currentTimeMillis() + 300;
+            while (System.currentTimeMillis() < end) Thread.onSpinWait();
+        }
+
+        @Override
+        public void completedLate(IModule module) {
+            this.undone.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.scope.ModuleScope;
+import me.cnm.shared.IHandlerListener;
+import me.cnm.shared.cli.command.Command;
+import me.cnm.shared.cli.command.ICommandHandler;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleScopeTest {
+
+    private static final HandlerLibrary handlerLibrary = new HandlerLibrary();
+    private static final ModuleScope moduleScope = new ModuleScope("alpha", handlerLibrary);
+    private static final List<String> changes = new ArrayList<>();
+    private static final IHandlerListener<String> listener = (previous, current) -> changes.add(current);
+
+    private static ICommandHandler commandHandler;
+
+    @BeforeAll
+    static void setup() {
+        commandHandler = new CommandHandler(handlerLibrary);
+        handlerLibrary.registerHandler(ICommandHandler.class, commandHandler);
+        handlerLibrary.registerHandler(Long.class, 1L);
+    }
+
+    @Test
+    @Order(1)
+    void testRegister() {
+        moduleScope.addListener(String.class, listener);
+        moduleScope.registerHandler(String.class, "alpha");
+        moduleScope.registerHandler(Integer.class, 2);
+        moduleScope.getHandler(ICommandHandler.class).register(new EmptyCommand("alpha"));
+        moduleScope.getHandler(ICommandHandler.class).register(new EmptyCommand("removed"));
+
+        // The registrations go to the shared registries
+        assertEquals("alpha", handlerLibrary.getHandler(String.class));
+        assertEquals(2, handlerLibrary.getHandler(Integer.class));
+        assertNotNull(commandHandler.get("alpha"));
+        assertEquals(List.of("alpha"), changes);
+        assertEquals(1L, moduleScope.getHandler(Long.class));
+
+        // Removing a command through the scope doesn't leave it recorded
+        moduleScope.getHandler(ICommandHandler.class).remove("removed");
+        assertNull(commandHandler.get("removed"));
+    }
+
+    @Test
+    @Order(2)
+    void testClose() {
+        // Another module replaced one of the handlers, witch must not be removed with this module
+        handlerLibrary.registerHandler(Integer.class, 3);
+
+        moduleScope.close();
+
+        assertThrows(IllegalArgumentException.class, () -> handlerLibrary.getHandler(String.class));
+        assertEquals(3, handlerLibrary.getHandler(Integer.class));
+        assertEquals(1L, handlerLibrary.getHandler(Long.class));
+        assertNull(commandHandler.get("alpha"));
+        assertNotNull(commandHandler.get("help"));
+
+        // The listener of the module is removed before its handlers, so it isn't called anymore
+        handlerLibrary.registerHandler(String.class, "other");
+        assertEquals(List.of("alpha"), changes);
+    }
+
+    @Test
+    @Order(3)
+    void testClosed() {
+        // A stopped module can't register anything, closing again does nothing
+        assertThrows(IllegalStateException.class, () -> moduleScope.registerHandler(String.class, "late"));
+        assertThrows(IllegalStateException.class, () -> moduleScope.addListener(String.class, listener));
+        assertThrows(IllegalStateException.class, () -> moduleScope.getHandler(ICommandHandler.class)
+                .register(new EmptyCommand("late")));
+        assertEquals("other", handlerLibrary.getHandler(String.class));
+
+        assertDoesNotThrow(moduleScope::close);
+        assertNull(commandHandler.get("late"));
+    }
+
+    private static class EmptyCommand extends Command {
+
+        private EmptyCommand(String name) {
+            super(name);
+        }
+
+        @Override
+        public void execute(@NotNull String[] args) {
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.HandlerLibrary;
+import me.cnm.impl.shared.cli.command.CommandHandler;
+import me.cnm.impl.shared.module.ModuleCache;
+import me.cnm.impl.shared.module.ModuleDescription;
+import me.cnm.impl.shared.module.java.JavaInterpreter;
+import me.cnm.impl.shared.module.loading.Module;
+import me.cnm.impl.shared.module.loading.ModuleLoaderConfiguration;
+import me.cnm.impl.shared.module.profile.ModuleProfiler;
+import me.cnm.shared.IHandlerLibrary;
+import me.cnm.shared.cli.command.ICommandHandler;
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.module.IModuleDescription;
+import me.cnm.shared.module.exception.ModuleInterpreterException;
+import me.cnm.shared.module.java.JavaModule;
+import me.cnm.shared.module.java.ModuleSnapshot;
+import me.cnm.shared.module.loading.IModule;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleSnapshotTest {
+
+    @TempDir
+    static File directory;
+
+    private static final Queue<String> starts = new ConcurrentLinkedQueue<>();
+
+    private static JavaInterpreter javaInterpreter;
+    private static IModule module;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        HandlerLibrary handlerLibrary = new HandlerLibrary();
+        handlerLibrary.registerHandler(ILogHandler.class, new RecordingLogHandler());
+        handlerLibrary.registerHandler(ICommandHandler.class, new CommandHandler(handlerLibrary));
+        handlerLibrary.registerHandler(Queue.class, starts);
+
+        javaInterpreter = new JavaInterpreter(handlerLibrary, new ModuleCache(new RecordingLogHandler(),
+                new File(directory, "modules.cache")), new ModuleProfiler(),
+                new ModuleLoaderConfiguration(new DefaultConfigurationHandler()));
+        module = createModule();
+    }
+
+    @Test
+    @Order(1)
+    void testUnload() throws ModuleInterpreterException {
+        this.load();
+        javaInterpreter.stopModule(module);
+        javaInterpreter.unloadModule(module);
+
+        // A module, witch is loaded again later, doesn't get the state of the unloaded instance
+        this.load();
+        assertEquals(List.of("none", "none"), List.copyOf(starts));
+    }
+
+    @Test
+    @Order(2)
+    void testRestart() throws ModuleInterpreterException {
+        // A restart without unloading hands the snapshot over
+        javaInterpreter.stopModule(module);
+        javaInterpreter.startModule(module);
+        assertEquals("1", lastStart());
+    }
+
+    @Test
+    @Order(3)
+    void testReload() throws ModuleInterpreterException {
+        javaInterpreter.beginReload(List.of("alpha"));
+        javaInterpreter.stopModule(module);
+        javaInterpreter.unloadModule(module);
+        this.load();
+        javaInterpreter.endReload(List.of("alpha"));
+
+        // The new instance of the reloaded module continues with the state of the previous one
+        assertEquals("2", lastStart());
+    }
+
+    @Test
+    @Order(4)
+    void testFailedReload() throws ModuleInterpreterException {
+        // The reload ends before the module is started again, so the snapshot is discarded
+        javaInterpreter.beginReload(List.of("alpha"));
+        javaInterpreter.stopModule(module);
+        javaInterpreter.unloadModule(module);
+        javaInterpreter.endReload(List.of("alpha"));
+
+        this.load();
+        assertEquals("none", lastStart());
+    }
+
+    @Test
+    @Order(5)
+    void testDisabled() throws ModuleInterpreterException {
+        // No snapshots are taken, while the system shuts down
+        javaInterpreter.disableSnapshots();
+        javaInterpreter.stopModule(module);
+        javaInterpreter.startModule(module);
+        assertEquals("none", lastStart());
+
+        javaInterpreter.stopModule(module);
+        javaInterpreter.unloadModule(module);
+    }
+
+    private void load() throws ModuleInterpreterException {
+        javaInterpreter.loadModule(module);
+        javaInterpreter.startModule(module);
+        assertTrue(module.isRunning());
+    }
+
+    private static String lastStart() {
+        return List.copyOf(starts).get(starts.size() - 1);
+    }
+
+    private static IModule createModule() throws IOException {
+        File folder = new File(directory, "alpha");
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        // The jar contains a copy of the module class, witch is defined again by every class loader of the module
+        String entry = CountingModule.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(new File(folder,
+                "java.jar").toPath())); InputStream inputStream = Objects.requireNonNull(
+                ModuleSnapshotTest.class.getClassLoader().getResourceAsStream(entry))) {
+            outputStream.putNextEntry(new JarEntry(entry));
+            inputStream.transferTo(outputStream);
+            outputStream.closeEntry();
+        }
+
+        JsonDocument moduleJson = new JsonDocument()
+                .append("name", "alpha")
+                .append("version", "test")
+                .append("language", "java")
+                .append("additional", new JsonDocument().append("main", CountingModule.class.getName()));
+
+        return new Module(new ModuleDescription(moduleJson, "alpha"), folder);
+    }
+
+    /**
+     * Counts its restarts in its snapshot and reports the count, it was started with
+     */
+    public static class CountingModule extends JavaModule {
+
+        private int count;
+
+        public CountingModule(IHandlerLibrary handlerLibrary, IModuleDescription moduleDescription, File dataFolder) {
+            super(handlerLibrary, moduleDescription, dataFolder);
+        }
+
+        @Override
+        public void start(@Nullable ModuleSnapshot snapshot) {
+            if (snapshot != null) this.count = snapshot.toJsonDocument().getInt("count");
+
+            //noinspection unchecked
+            this.getHandlerLibrary().getHandler(Queue.class).add(snapshot == null ? "none" : "" + this.count);
+        }
+
+        @Override
+        public ModuleSnapshot snapshot() {
+            return ModuleSnapshot.of(new JsonDocument().append("count", this.count + 1));
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.impl.shared.module.loading.ModuleWatcher;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ModuleWatcherTest {
+
+    @TempDir
+    static File directory;
+
+    private static final RecordingLogHandler logHandler = new RecordingLogHandler();
+    private static final BlockingQueue<List<String>> reloads = new LinkedBlockingQueue<>();
+    private static final AtomicInteger calls = new AtomicInteger();
+
+    private static File folder;
+    private static ModuleWatcher moduleWatcher;
+
+    @BeforeAll
+    static void setup() {
+        folder = new File(directory, "alpha");
+        //noinspection ResultOfMethodCallIgnored
+        folder.mkdirs();
+
+        moduleWatcher = new ModuleWatcher(logHandler, folders -> {
+            // The first reload fails, like a module that can't be read again
+            boolean first = calls.getAndIncrement() == 0;
+            reloads.add(folders.stream().map(File::getName).toList());
+            if (first) throw new IllegalStateException("broken");
+        }, directory, 200);
+        moduleWatcher.start();
+    }
+
+    @AfterAll
+    static void cleanup() {
+        moduleWatcher.stop();
+    }
+
+    @Test
+    @Order(1)
+    void testReload() throws IOException, InterruptedException {
+        // A burst of writes only causes one reload, data files of the module are ignored
+        Files.writeString(new File(folder, "module.json").toPath(), "{}");
+        Files.writeString(new File(folder, "java.jar").toPath(), "first");
+        Files.writeString(new File(folder, "data.json").toPath(), "{}");
+
+        assertEquals(List.of("alpha"), reloads.poll(10, TimeUnit.SECONDS));
+        assertNull(reloads.poll(500, TimeUnit.MILLISECONDS));
+        assertTrue(logHandler.messages.stream()
+                .anyMatch(message -> message.startsWith("ERROR An error occurred while trying to reload alpha")),
+                logHandler.messages::toString);
+    }
+
+    @Test
+    @Order(2)
+    void testAfterFailure() throws IOException, InterruptedException {
+        // The watcher keeps running after a failed reload
+        Files.writeString(new File(folder, "java.jar").toPath(), "second");
+        assertEquals(List.of("alpha"), reloads.poll(10, TimeUnit.SECONDS));
+    }
+
+}
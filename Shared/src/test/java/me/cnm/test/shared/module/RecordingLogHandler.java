@@ -0,0 +1,68 @@
+package me.cnm.test.shared.module;
+
+import me.cnm.shared.cli.log.ILogHandler;
+import me.cnm.shared.cli.log.LogLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Log handler, witch keeps all messages as "LEVEL message" for assertions
+ */
+class RecordingLogHandler implements ILogHandler {
+
+    final Queue<String> messages = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void debug(@NotNull String message) {
+        this.log(LogLevel.DEBUG, message);
+    }
+
+    @Override
+    public void debug(@NotNull String message, @NotNull Throwable throwable) {
+        this.log(LogLevel.DEBUG, message, throwable);
+    }
+
+    @Override
+    public void info(@NotNull String message) {
+        this.log(LogLevel.INFO, message);
+    }
+
+    @Override
+    public void info(@NotNull String message, @NotNull Throwable throwable) {
+        this.log(LogLevel.INFO, message, throwable);
+    }
+
+    @Override
+    public void warn(@NotNull String message) {
+        this.log(LogLevel.WARN, message);
+    }
+
+    @Override
+    public void warn(@NotNull String message, @NotNull Throwable throwable) {
+        this.log(LogLevel.WARN, message, throwable);
+    }
+
+    @Override
+    public void error(@NotNull String message) {
+        this.log(LogLevel.ERROR, message);
+    }
+
+    @Override
+    public void error(@NotNull String message, @NotNull Throwable throwable) {
+        this.log(LogLevel.ERROR, message, throwable);
+    }
+
+    @Override
+    public void log(LogLevel logLevel, @NotNull String message) {
+        this.log(logLevel, message, null);
+    }
+
+    @Override
+    public void log(LogLevel logLevel, @NotNull String message, @Nullable Throwable throwable) {
+        this.messages.add(logLevel + " " + message);
+    }
+
+}
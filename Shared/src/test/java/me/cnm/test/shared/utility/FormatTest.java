@@ -5,6 +5,7 @@ import me.cnm.shared.utility.format.IFormatHandler;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
+import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -13,9 +14,14 @@ public class FormatTest {
 
     private static IFormatHandler formatHandler;
     private static boolean deleteConfig;
+    private static Locale locale;
 
     @BeforeAll
     public static void setup() {
+        // The expected values use the decimal separator of the german locale
+        locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+
         File configFile = new File(".", "config.json");
         deleteConfig = !configFile.exists();
 
@@ -24,6 +30,8 @@ public class FormatTest {
 
     @AfterAll
     public static void cleanup() {
+        Locale.setDefault(locale);
+
         if (deleteConfig) {
             //noinspection ResultOfMethodCallIgnored
             new File(".", "config.json").delete();
@@ -0,0 +1,110 @@
+package me.cnm.test.shared.utility;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import me.cnm.shared.utility.json.GsonSupplier;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GsonSupplierTest {
+
+    private static final String JSON = "{\"name\":\"<a & b>\",\"port\":25565,\"missing\":null,\"tags\":[\"x\",\"y\"]}";
+
+    @Test
+    @Order(1)
+    void testProfiles() {
+        JsonDocument document = new JsonDocument(JSON);
+
+        // Compact output is the json without any whitespace, nulls are kept and html isn't escaped
+        String compact = document.toJson(GsonSupplier.Profile.COMPACT);
+        assertEquals(JSON, compact);
+        assertEquals(compact, document.toJson());
+
+        String pretty = document.toJson(GsonSupplier.Profile.PRETTY);
+        assertTrue(pretty.contains("\n  \"name\": \"<a & b>\""), pretty);
+        assertEquals(document.toJsonObject(), new JsonDocument(pretty).toJsonObject());
+
+        StringWriter compactWriter = new StringWriter();
+        document.write(compactWriter, GsonSupplier.Profile.COMPACT);
+        assertEquals(compact, compactWriter.toString());
+
+        // Files for humans stay pretty by default
+        StringWriter defaultWriter = new StringWriter();
+        document.write(defaultWriter);
+        assertEquals(pretty, defaultWriter.toString());
+    }
+
+    @Test
+    @Order(2)
+    void testVersion() {
+        GsonSupplier gsonSupplier = new GsonSupplier();
+        assertEquals(0, gsonSupplier.getVersion());
+        Gson before = gsonSupplier.getGson(GsonSupplier.Profile.COMPACT);
+
+        gsonSupplier.registerTypeAdapter(Point.class, (JsonSerializer<Point>) (point, type, context) ->
+                new JsonPrimitive(point.x + "," + point.y));
+        assertEquals(1, gsonSupplier.getVersion());
+
+        // Both profiles use the adapter, while a Gson object in use keeps its adapters
+        assertEquals("\"1,2\"", gsonSupplier.getGson(GsonSupplier.Profile.COMPACT).toJson(new Point(1, 2)));
+        assertEquals("\"1,2\"", gsonSupplier.getGson().toJson(new Point(1, 2)));
+        assertEquals("{\"x\":1,\"y\":2}", before.toJson(new Point(1, 2)));
+        assertNotSame(before, gsonSupplier.getGson(GsonSupplier.Profile.COMPACT));
+    }
+
+    @Test
+    @Order(3)
+    void testConcurrentRegistration() throws Exception {
+        GsonSupplier gsonSupplier = new GsonSupplier();
+        JsonSerializer<Point> serializer = (point, type, context) -> new JsonPrimitive(point.x);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 25; i++) {
+                        gsonSupplier.registerTypeAdapter(Point.class, serializer);
+                        assertEquals("3", gsonSupplier.getGson().toJson(new Point(3, 4)));
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // No registration is lost, every one of them increases the version
+        assertEquals(100, gsonSupplier.getVersion());
+    }
+
+    private static class Point {
+
+        private final int x;
+        private final int y;
+
+        private Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+    }
+
+}
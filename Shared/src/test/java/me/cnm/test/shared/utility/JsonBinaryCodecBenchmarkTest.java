@@ -0,0 +1,104 @@
+package me.cnm.test.shared.utility;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import me.cnm.shared.utility.json.JsonBinaryCodec;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the binary codec with the json text of Gson<br>
+ * Excluded from the normal build, run it with {@code mvn test -P benchmark}
+ */
+@Tag("benchmark")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonBinaryCodecBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    private static JsonDocument document;
+    private static String json;
+    private static ByteBuffer binary;
+
+    @BeforeAll
+    static void setup() {
+        // Like a status message, many small objects with the same keys and mostly numbers
+        JsonArray devices = new JsonArray();
+        for (int i = 0; i < 500; i++) {
+            JsonObject device = new JsonObject();
+            device.addProperty("id", i);
+            device.addProperty("name", "device-" + i);
+            device.addProperty("load", i / 7.0);
+            device.addProperty("memory", 1024L * 1024L * i);
+            device.addProperty("online", i % 2 == 0);
+            devices.add(device);
+        }
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("timestamp", 1700000000000L);
+        jsonObject.add("devices", devices);
+
+        document = new JsonDocument(jsonObject);
+        json = document.toJson();
+        binary = document.toBinary();
+    }
+
+    @Test
+    @Order(1)
+    void testSize() {
+        int text = json.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("Size: json %d bytes, binary %d bytes (%.1f%%)%n", text, binary.remaining(),
+                100.0 * binary.remaining() / text);
+
+        assertTrue(binary.remaining() < text);
+    }
+
+    @Test
+    @Order(2)
+    void testEncode() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(binary.remaining());
+        long text = measure(() -> document.toJson());
+        long encoded = measure(() -> {
+            JsonBinaryCodec.encode(document, buffer.clear());
+            return buffer;
+        });
+        print("Encode", text, encoded);
+
+        assertEquals(binary, buffer.flip());
+    }
+
+    @Test
+    @Order(3)
+    void testDecode() {
+        long text = measure(() -> new JsonDocument(json));
+        long decoded = measure(() -> JsonDocument.fromBinary(binary.duplicate()));
+        print("Decode", text, decoded);
+
+        assertEquals(document.toJsonObject(), JsonDocument.fromBinary(binary.duplicate()).toJsonObject());
+    }
+
+    private static long measure(Supplier<Object> operation) {
+        Object result = null;
+        for (int i = 0; i < WARMUP; i++) result = operation.get();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) result = operation.get();
+        long time = (System.nanoTime() - start) / ITERATIONS;
+
+        // Keeps the results alive, so the operation can't be eliminated
+        assertNotNull(result);
+        return time;
+    }
+
+    private static void print(String operation, long text, long binary) {
+        System.out.printf("%s: json %d us, binary %d us (%.2fx)%n", operation, text / 1000, binary / 1000,
+                (double) text / binary);
+    }
+
+}
@@ -0,0 +1,124 @@
+package me.cnm.test.shared.utility;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import me.cnm.shared.utility.json.JsonBinaryCodec;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonBinaryCodecTest {
+
+    private static final String JSON = "{\"name\":\"Server \\u00e4\\u00f6\\u00fc \\ud83d\\ude00\",\"port\":25565," +
+            "\"negative\":-9223372036854775808,\"ratio\":0.125,\"exponent\":1.5e300,\"big\":123456789012345678901234567890," +
+            "\"precise\":0.10000000000000000000001,\"enabled\":true,\"disabled\":false,\"missing\":null,\"empty\":{}," +
+            "\"devices\":[{\"name\":\"a\",\"cores\":4},{\"name\":\"b\",\"cores\":8,\"tags\":[]}]}";
+
+    @Test
+    @Order(1)
+    void testRoundTrip() {
+        JsonDocument document = new JsonDocument(JSON);
+        JsonDocument decoded = JsonDocument.fromBinary(document.toBinary());
+
+        assertEquals(document.toJsonObject(), decoded.toJsonObject());
+        assertEquals(document.toJson(), decoded.toJson());
+    }
+
+    @Test
+    @Order(2)
+    void testNumbers() {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("int", 42);
+        jsonObject.addProperty("long", Long.MAX_VALUE);
+        jsonObject.addProperty("float", 1.1F);
+        jsonObject.addProperty("double", -0.0D);
+        jsonObject.addProperty("bigInteger", new BigInteger("-123456789012345678901234567890"));
+        jsonObject.addProperty("bigDecimal", new BigDecimal("3.14159265358979323846264338327950288"));
+        JsonDocument document = new JsonDocument(jsonObject);
+
+        JsonDocument decoded = JsonDocument.fromBinary(document.toBinary());
+        assertEquals(document.toJson(), decoded.toJson());
+        assertEquals(1.1F, decoded.toJsonObject().get("float").getAsFloat());
+        assertEquals(Long.MAX_VALUE, decoded.toJsonObject().get("long").getAsLong());
+    }
+
+    @Test
+    @Order(3)
+    void testBuffers() {
+        JsonDocument first = new JsonDocument(JSON);
+        JsonDocument second = new JsonDocument("{\"name\":\"second\"}");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        int written = JsonBinaryCodec.encode(first, buffer);
+        JsonBinaryCodec.encode(second, buffer);
+        assertEquals(written, first.toBinary().remaining());
+
+        buffer.flip();
+        assertEquals(first.toJson(), JsonBinaryCodec.decode(buffer).toJson());
+        assertEquals(second.toJson(), JsonBinaryCodec.decode(buffer).toJson());
+        assertFalse(buffer.hasRemaining());
+
+        ByteBuffer small = ByteBuffer.allocate(16);
+        assertThrows(BufferOverflowException.class, () -> JsonBinaryCodec.encode(first, small));
+        assertEquals(0, small.position());
+
+        ByteBuffer truncated = first.toBinary().limit(20);
+        assertThrows(IllegalArgumentException.class, () -> JsonBinaryCodec.decode(truncated));
+    }
+
+    @Test
+    @Order(4)
+    void testExactBuffer() {
+        for (String json : List.of("{\"a\":1}", "{\"long\":-9223372036854775808,\"index\":" +
+                "[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25,26,27,28,29,30,31,32]}", JSON)) {
+            JsonDocument document = new JsonDocument(json);
+            int length = document.toBinary().remaining();
+
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            assertEquals(length, JsonBinaryCodec.encode(document, buffer), json);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(document.toJson(), JsonBinaryCodec.decode(buffer.flip()).toJson());
+        }
+    }
+
+    @Test
+    @Order(5)
+    void testNegativeZero() {
+        JsonDocument document = new JsonDocument("{\"z\":-0,\"d\":-0.0,\"e\":1e2}");
+        assertEquals(document.toJson(), JsonDocument.fromBinary(document.toBinary()).toJson());
+    }
+
+    @Test
+    @Order(6)
+    void testSize() {
+        JsonArray devices = new JsonArray();
+        for (int i = 0; i < 1000; i++) {
+            JsonObject device = new JsonObject();
+            device.addProperty("id", i);
+            device.addProperty("name", "device-" + i);
+            device.addProperty("load", i / 7.0);
+            device.addProperty("online", i % 2 == 0);
+            devices.add(device);
+        }
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.add("devices", devices);
+        JsonDocument document = new JsonDocument(jsonObject);
+
+        // The keys are written once, so repeated objects take much less space than in json
+        ByteBuffer binary = document.toBinary();
+        assertTrue(binary.remaining() < document.toJson().length() / 2);
+        assertEquals(document.toJsonObject(), JsonDocument.fromBinary(binary).toJsonObject());
+    }
+
+}
@@ -0,0 +1,63 @@
+package me.cnm.test.shared.utility;
+
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.json.JsonPath;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonPathTest {
+
+    private static final JsonDocument DOCUMENT = new JsonDocument("{\"file\":{\"pattern\":\"%d.log\",\"size\":1048576," +
+            "\"compress\":true,\"ratio\":0.5},\"devices\":[{\"name\":\"a\"},{\"name\":\"b\"}]," +
+            "\"a/b\":{\"m~n\":7},\"missing\":null}");
+
+    @Test
+    @Order(1)
+    void testDotted() {
+        assertEquals("%d.log", JsonPath.compile("file.pattern").getString(DOCUMENT));
+        assertEquals(1048576, JsonPath.compile("file.size").getInt(DOCUMENT, 0));
+        assertEquals(1048576L, JsonPath.compile("file.size").getLong(DOCUMENT, 0));
+        assertEquals(0.5, JsonPath.compile("file.ratio").getDouble(DOCUMENT, 0));
+        assertTrue(JsonPath.compile("file.compress").getBoolean(DOCUMENT, false));
+        assertEquals("b", JsonPath.compile("devices.1.name").getString(DOCUMENT));
+        assertEquals(2, JsonPath.compile("devices").getArray(DOCUMENT).size());
+        assertEquals(DOCUMENT.toJsonObject(), JsonPath.compile("").getObject(DOCUMENT));
+    }
+
+    @Test
+    @Order(2)
+    void testPointer() {
+        assertEquals("%d.log", JsonPath.compile("/file/pattern").getString(DOCUMENT));
+        assertEquals("a", JsonPath.compile("/devices/0/name").getString(DOCUMENT));
+        assertEquals(7, JsonPath.compile("/a~1b/m~0n").getInt(DOCUMENT, 0));
+        assertEquals(JsonPath.compile("file.size"), JsonPath.compile("/file/size"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("/a~2"));
+
+        // Only the empty pointer is the document itself, every slash starts a key, even an empty one
+        JsonDocument empty = new JsonDocument("{\"\":{\"\":1},\"value\":2}");
+        assertTrue(JsonPath.compile("/").getObject(empty).has(""));
+        assertEquals(1, JsonPath.compile("//").getInt(empty, 0));
+        assertNotEquals(JsonPath.compile(""), JsonPath.compile("/"));
+        assertNull(JsonPath.compile("/").get(DOCUMENT));
+    }
+
+    @Test
+    @Order(3)
+    void testMissing() {
+        assertNull(JsonPath.compile("file.unknown").get(DOCUMENT));
+        assertNull(JsonPath.compile("file.pattern.deeper").get(DOCUMENT));
+        assertNull(JsonPath.compile("devices.2.name").getString(DOCUMENT));
+        assertNull(JsonPath.compile("devices.first").get(DOCUMENT));
+        assertEquals(5, JsonPath.compile("file.pattern").getInt(DOCUMENT, 5));
+        assertEquals("def", JsonPath.compile("file.size").getString(DOCUMENT, "def"));
+        assertTrue(JsonPath.compile("missing").contains(DOCUMENT));
+        assertFalse(JsonPath.compile("missing").getBoolean(DOCUMENT, false));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("file..pattern"));
+    }
+
+}
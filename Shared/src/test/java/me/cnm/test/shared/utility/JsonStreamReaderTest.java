@@ -0,0 +1,120 @@
+package me.cnm.test.shared.utility;
+
+import com.google.gson.JsonElement;
+import me.cnm.shared.utility.json.JsonStreamReader;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonStreamReaderTest {
+
+    private static final String JSON = "{\"devices\":[{\"name\":\"a\",\"cores\":4},{\"name\":\"b\",\"cores\":8}]," +
+            "\"groups\":{\"x\":{\"size\":1},\"y\":{\"size\":2}},\"version\":3}";
+
+    @Test
+    @Order(1)
+    void testWildcard() throws IOException {
+        List<String> names = new ArrayList<>();
+        List<String> sizes = new ArrayList<>();
+
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(JSON))) {
+            reader.visit("devices.*.name", (path, element) -> names.add(path + "=" + element.getAsString()))
+                    .visit("groups.*.size", (path, element) -> sizes.add(path + "=" + element.getAsInt()));
+            List<JsonElement> roots = reader.extract("*");
+            reader.read();
+
+            assertEquals(3, roots.size());
+        }
+
+        assertEquals(List.of("devices.0.name=a", "devices.1.name=b"), names);
+        assertEquals(List.of("groups.x.size=1", "groups.y.size=2"), sizes);
+    }
+
+    @Test
+    @Order(2)
+    void testNested() throws IOException {
+        List<String> visited = new ArrayList<>();
+
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(JSON))) {
+            reader.visit("devices", (path, element) -> visited.add(path + "[" + element.getAsJsonArray().size() + "]"))
+                    .visit("devices.*", (path, element) -> visited.add(path))
+                    .visit("devices.*.cores", (path, element) -> visited.add(path + "=" + element.getAsInt()))
+                    .read();
+        }
+
+        // The outer visitor gets the whole subtree first, then the inner visitors are called on it in document order
+        assertEquals(List.of("devices[2]", "devices.0", "devices.0.cores=4", "devices.1", "devices.1.cores=8"),
+                visited);
+    }
+
+    @Test
+    @Order(3)
+    void testTyped() throws IOException {
+        List<Device> devices = new ArrayList<>();
+        List<Integer> versions = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(JSON))) {
+            reader.visit("devices.*", Device.class, devices::add)
+                    .visit("version", Integer.class, versions::add)
+                    .visit("devices.*.name", String.class, names::add)
+                    .read();
+        }
+
+        assertEquals(2, devices.size());
+        assertEquals("a", devices.get(0).name);
+        assertEquals(8, devices.get(1).cores);
+        assertEquals(List.of(3), versions);
+        assertEquals(List.of("a", "b"), names);
+    }
+
+    @Test
+    @Order(4)
+    void testSkipping() throws IOException {
+        // Unmatched values with the same keys are skipped, and matches after them are still found
+        String json = "{\"ignored\":[{\"name\":\"nested\"},[1,[2,[3]]]],\"other\":{\"name\":\"wrong\"}," +
+                "\"name\":\"right\"}";
+
+        List<JsonElement> names;
+        List<JsonElement> missing;
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(json))) {
+            names = reader.extract("name");
+            missing = reader.extract("other.missing");
+            reader.read();
+        }
+
+        assertEquals(1, names.size());
+        assertEquals("right", names.get(0).getAsString());
+        assertTrue(missing.isEmpty());
+    }
+
+    @Test
+    @Order(5)
+    void testEmptySegment() throws IOException {
+        try (JsonStreamReader reader = new JsonStreamReader(new StringReader(JSON))) {
+            // Like a compiled path, a dotted path with an empty segment is rejected instead of matching wrong keys
+            assertThrows(IllegalArgumentException.class, () -> reader.extract("devices..name"));
+            assertThrows(IllegalArgumentException.class, () -> reader.extract("devices."));
+            assertThrows(IllegalArgumentException.class, () -> reader.extract(".version"));
+            assertThrows(IllegalArgumentException.class, () -> reader.visit("groups..size", (path, element) -> {
+            }));
+        }
+    }
+
+    private static class Device {
+
+        private String name;
+        private int cores;
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package me.cnm.test.shared.utility;
+
+import com.google.gson.JsonArray;
+import me.cnm.shared.utility.json.JsonDocument;
+import me.cnm.shared.utility.json.JsonPath;
+import me.cnm.shared.utility.json.JsonStreamWriter;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonStreamWriterTest {
+
+    @Test
+    @Order(1)
+    void testRoundTrip() throws IOException {
+        StringWriter output = new StringWriter();
+
+        // Not a collection, so the elements are only known while iterating
+        Iterable<String> devices = () -> IntStream.range(0, 3).mapToObj(i -> "device-" + i).iterator();
+
+        try (JsonStreamWriter writer = JsonDocument.streamWriter(output)) {
+            writer.beginObject()
+                    .entry("server", new Server("main", 25565, List.of("a", "b")))
+                    .name("devices").array(devices)
+                    .entry("settings", new JsonDocument().append("debug", true))
+                    .name("name").value("cnm")
+                    .name("cores").value(8L)
+                    .name("ratio").value(0.5)
+                    .name("enabled").value(false)
+                    .name("missing").value((String) null)
+                    .name("matrix").beginArray()
+                    .beginArray().value(1L).value(2L).endArray()
+                    .beginArray().endArray()
+                    .endArray()
+                    .endObject();
+        }
+
+        JsonDocument document = new JsonDocument(output.toString());
+        assertEquals("main", JsonPath.compile("server.name").getString(document));
+        assertEquals(25565, JsonPath.compile("server.port").getInt(document, 0));
+        assertEquals("b", JsonPath.compile("server.tags.1").getString(document));
+        assertEquals(3, JsonPath.compile("devices").getArray(document).size());
+        assertEquals("device-2", JsonPath.compile("devices.2").getString(document));
+        assertTrue(JsonPath.compile("settings.debug").getBoolean(document, false));
+        assertEquals("cnm", document.getString("name"));
+        assertEquals(8, document.getInt("cores"));
+        assertEquals(0.5, JsonPath.compile("ratio").getDouble(document, 0));
+        assertFalse(JsonPath.compile("enabled").getBoolean(document, true));
+        assertTrue(JsonPath.compile("missing").contains(document));
+
+        JsonArray matrix = JsonPath.compile("matrix").getArray(document);
+        assertNotNull(matrix);
+        assertEquals(2, matrix.get(0).getAsJsonArray().get(1).getAsInt());
+        assertEquals(0, matrix.get(1).getAsJsonArray().size());
+
+        // The pojo is written like the document would convert it
+        assertEquals(JsonDocument.getGson().toJsonTree(new Server("main", 25565, List.of("a", "b"))),
+                JsonPath.compile("server").get(document));
+    }
+
+    @Test
+    @Order(2)
+    void testInvalid() throws IOException {
+        JsonStreamWriter writer = JsonDocument.streamWriter(new StringWriter());
+        writer.beginObject();
+        assertThrows(IllegalStateException.class, writer::endArray);
+        assertThrows(IllegalArgumentException.class, () -> writer.name("nan").value(Double.NaN));
+
+        // The object is never ended
+        assertThrows(IOException.class, writer::close);
+    }
+
+    private static class Server {
+
+        private final String name;
+        private final int port;
+        private final List<String> tags;
+
+        private Server(String name, int port, List<String> tags) {
+            this.name = name;
+            this.port = port;
+            this.tags = tags;
+        }
+
+    }
+
+}
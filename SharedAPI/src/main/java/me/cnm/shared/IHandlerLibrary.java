@@ -2,9 +2,12 @@ package me.cnm.shared;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+
 /**
  * The {@code HandlerLibrary} is a library, that contains all handlers that are required for the system<br>
- * Each module can add individual handlers
+ * Each module can add individual handlers<br>
+ * Handlers can be registered and read from any thread, reading a handler never blocks
  */
 public interface IHandlerLibrary {
 
@@ -19,6 +22,14 @@ public interface IHandlerLibrary {
      */
     <T> void registerHandler(@NotNull Class<T> type, @NotNull T instance);
 
+    /**
+     * Unregister handlers, for example when the module, witch registered them, stops<br>
+     * Each handler is only removed, if it's still the registered instance of its type
+     *
+     * @param handlers The handlers to unregister by their type
+     */
+    void unregisterHandlers(@NotNull Map<Class<?>, Object> handlers);
+
     /**
      * Get a handler by its type
      *
@@ -30,4 +41,25 @@ public interface IHandlerLibrary {
     @NotNull
     <T> T getHandler(@NotNull Class<T> type);
 
+    /**
+     * Add a listener, witch is notified every time a handler of the type is registered, replaced or unregistered<br>
+     * The changes of a type are delivered in the order they were registered. A change might be delivered by another
+     * thread than the one, witch registered it, if another registration of the type is delivered at the same time
+     *
+     * @param type     The class of type of the handler
+     * @param listener The listener to add
+     * @param <T>      The type of the handler
+     * @see IHandlerListener
+     */
+    <T> void addListener(@NotNull Class<T> type, @NotNull IHandlerListener<? super T> listener);
+
+    /**
+     * Remove a listener previously added by {@link #addListener(Class, IHandlerListener)}
+     *
+     * @param type     The class of type of the handler
+     * @param listener The listener to remove
+     * @param <T>      The type of the handler
+     */
+    <T> void removeListener(@NotNull Class<T> type, @NotNull IHandlerListener<? super T> listener);
+
 }
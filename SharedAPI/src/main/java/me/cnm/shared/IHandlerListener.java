@@ -0,0 +1,26 @@
+package me.cnm.shared;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code HandlerListener} is notified, when a handler of a type is registered, replaced or unregistered<br>
+ * It can be used to cache a handler and update the cached instance, when it's replaced<br>
+ * The changes of a type are delivered one after another in the order they were registered, even if they are
+ * registered concurrently. So the last change a listener received is always the current handler, but it might be
+ * delivered by another thread than the one, witch registered it
+ *
+ * @param <T> The type of the handler
+ * @see IHandlerLibrary#addListener(Class, IHandlerListener)
+ */
+@FunctionalInterface
+public interface IHandlerListener<T> {
+
+    /**
+     * Called after a handler was registered or unregistered
+     *
+     * @param previous The handler, witch was registered before, or null if there was none
+     * @param current  The handler, witch is registered now, or null if the handler was unregistered
+     */
+    void handlerChanged(@Nullable T previous, @Nullable T current);
+
+}
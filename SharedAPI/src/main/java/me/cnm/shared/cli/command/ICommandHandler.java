@@ -3,6 +3,7 @@ package me.cnm.shared.cli.command;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,6 +35,14 @@ public interface ICommandHandler {
      */
     void remove(@NotNull String command);
 
+    /**
+     * Remove multiple commands at once<br>
+     * Commands, witch are not registered, are ignored
+     *
+     * @param commands The commands to be removed
+     */
+    void removeAll(@NotNull Collection<Command> commands);
+
     /**
      * Get a command by its name or alias, if no command with that name or alias exists, null is returned
      *
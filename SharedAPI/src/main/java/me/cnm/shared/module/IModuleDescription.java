@@ -56,6 +56,34 @@ public interface IModuleDescription {
     @NotNull
     List<String> getAuthors();
 
+    /**
+     * Libraries are jar files in the shared "libraries" folder, witch are loaded once and can be used by all modules
+     * referencing them<br>
+     * The names should contain the version, for example "gson-2.9.1.jar"
+     *
+     * @return The libraries of the module
+     */
+    @NotNull
+    List<String> getLibraries();
+
+    /**
+     * Command triggers are names of commands provided by the module<br>
+     * A module with triggers isn't loaded on startup, but the first time one of its triggers is used
+     *
+     * @return The names of the commands, witch activate the module
+     */
+    @NotNull
+    List<String> getCommandTriggers();
+
+    /**
+     * Handler triggers are the types of handlers registered by the module<br>
+     * A module with triggers isn't loaded on startup, but the first time one of its triggers is used
+     *
+     * @return The fully qualified class names of the handler types, witch activate the module
+     */
+    @NotNull
+    List<String> getHandlerTriggers();
+
     /**
      * The additional part is used to specify information required by a language<br>
      * For example the main class for java modules
@@ -86,6 +86,28 @@ public interface IModuleHandler {
     @NotNull
     List<IModule> getAll();
 
+    /**
+     * Get the resources used by the threads of a module<br>
+     * Threads are attributed to a module by their context class loader, their class or the classes on their stack, so
+     * threads created with {@link me.cnm.shared.module.java.JavaModule#getThreadFactory()} are always attributed
+     * correctly<br>
+     * If the module isn't loaded or wasn't sampled yet, null is returned
+     *
+     * @param name The name of the module
+     * @return The resource usage of the module or null
+     * @see ModuleResourceUsage
+     */
+    @Nullable
+    ModuleResourceUsage getResourceUsage(@NotNull String name);
+
+    /**
+     * Get the resources used by the threads of all loaded modules
+     *
+     * @return List of resource usages of the modules
+     */
+    @NotNull
+    List<ModuleResourceUsage> getResourceUsages();
+
     /**
      * Register an module interpreter to handle a language of modules
      *
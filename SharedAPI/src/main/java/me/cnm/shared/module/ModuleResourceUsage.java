@@ -0,0 +1,51 @@
+package me.cnm.shared.module;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@code ModuleResourceUsage} contains the cpu time and allocations of the threads attributed to a module<br>
+ * Totals are summed up since the module was first loaded, rates are measured between the last two samples
+ */
+@Getter
+@RequiredArgsConstructor
+public class ModuleResourceUsage {
+
+    /**
+     * The name of the module
+     */
+    @NotNull
+    private final String module;
+
+    /**
+     * The number of live threads attributed to the module
+     */
+    private final int threads;
+
+    /**
+     * The cpu time used by the threads of the module in nanoseconds
+     */
+    private final long cpuTime;
+
+    /**
+     * The bytes allocated by the threads of the module, or -1 if the jvm doesn't support measuring allocations
+     */
+    private final long allocatedBytes;
+
+    /**
+     * The share of a single cpu core used by the module, e.g. 1.5 for one and a half cores
+     */
+    private final double cpuLoad;
+
+    /**
+     * The bytes allocated by the module per second, or -1 if the jvm doesn't support measuring allocations
+     */
+    private final long allocationRate;
+
+    /**
+     * The time in milliseconds of the sample, these values were measured at
+     */
+    private final long time;
+
+}
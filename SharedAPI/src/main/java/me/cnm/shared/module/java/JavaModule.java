@@ -4,9 +4,12 @@ import me.cnm.shared.IHandlerLibrary;
 import me.cnm.shared.module.IModuleDescription;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code java module} is used as base class for all modules coded in java
@@ -31,6 +34,18 @@ public abstract class JavaModule {
     @ApiStatus.Internal
     private final File dataFolder;
 
+    /**
+     * The counter for the names of the threads created by the thread factory
+     */
+    @ApiStatus.Internal
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * The thread pools of the module, automatically set before the module is started
+     */
+    @ApiStatus.Internal
+    private volatile ModuleExecutors executors;
+
     /**
      * Super constructor, witch should be called to set all attributes<br>
      * Nothing on the passed attributes should be changed, nor should the constructor of any module to something<br>
@@ -47,6 +62,9 @@ public abstract class JavaModule {
     }
 
     /**
+     * Handlers, handler listeners and commands registered through this handler library belong to the module and are
+     * removed automatically when the module stops
+     *
      * @return The handler library
      */
     @NotNull
@@ -75,6 +93,47 @@ public abstract class JavaModule {
         return Objects.requireNonNull(this.dataFolder);
     }
 
+    /**
+     * The thread factory should be used for all threads of the module<br>
+     * Its threads are named after the module and use the class loader of the module as context class loader, so their
+     * cpu time and allocations are attributed to the module
+     *
+     * @return A thread factory creating threads of the module
+     */
+    @NotNull
+    @ApiStatus.NonExtendable
+    public final ThreadFactory getThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, this.getModuleDescription().getName() + "-" +
+                    this.threadCounter.incrementAndGet());
+            thread.setContextClassLoader(this.getClass().getClassLoader());
+            return thread;
+        };
+    }
+
+    /**
+     * The executors should be used for all asynchronous work of the module, instead of own thread pools<br>
+     * They are available from {@link #start()} on and are shut down automatically after {@link #stop()}
+     *
+     * @return The thread pools of the module
+     * @see ModuleExecutors
+     */
+    @NotNull
+    @ApiStatus.NonExtendable
+    public final ModuleExecutors getExecutors() {
+        return Objects.requireNonNull(this.executors);
+    }
+
+    /**
+     * Set the thread pools of the module, witch is done by the interpreter before the module is started
+     *
+     * @param executors The thread pools of the module
+     */
+    @ApiStatus.Internal
+    public final void setExecutors(ModuleExecutors executors) {
+        this.executors = executors;
+    }
+
     /**
      * Method called when the module should start
      */
@@ -84,6 +143,31 @@ public abstract class JavaModule {
 
     }
 
+    /**
+     * Method called when the module should start, with the snapshot taken by the previous instance of the module<br>
+     * By default the snapshot is ignored and {@link #start()} is called
+     *
+     * @param snapshot The snapshot of the previous instance, or null if there is none
+     * @see #snapshot()
+     */
+    @ApiStatus.OverrideOnly
+    public void start(@Nullable ModuleSnapshot snapshot) {
+        this.start();
+    }
+
+    /**
+     * Method called before the module is stopped for a restart or reload<br>
+     * The returned state is handed to {@link #start(ModuleSnapshot)} of the next instance, so caches don't have to be
+     * built again. It isn't called, when the whole system shuts down
+     *
+     * @return The state of the module, or null if nothing should be kept
+     */
+    @Nullable
+    @ApiStatus.OverrideOnly
+    public ModuleSnapshot snapshot() {
+        return null;
+    }
+
     /**
      * Method called when the module should stop<br>
      * All resources should be released in here
@@ -0,0 +1,57 @@
+package me.cnm.shared.module.java;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ModuleExecutors} are the thread pools of a single {@link JavaModule}<br>
+ * The number of threads of each pool is limited, so a module can't starve the other modules. All pools are shut down
+ * automatically when the module stops, tasks still running after the stop deadline are interrupted<br>
+ * The pools must not be shut down by the module itself
+ */
+public interface ModuleExecutors {
+
+    /**
+     * The executor for blocking tasks, e.g. file or network I/O<br>
+     * It has more threads than the cpu executor, idle threads are stopped after a while
+     *
+     * @return The executor for blocking tasks
+     */
+    @NotNull
+    ExecutorService getIoExecutor();
+
+    /**
+     * The executor for cpu bound tasks, limited to the number of available processors by default
+     *
+     * @return The executor for cpu bound tasks
+     */
+    @NotNull
+    ExecutorService getCpuExecutor();
+
+    /**
+     * The scheduler for delayed and periodic tasks<br>
+     * Scheduled tasks should be short or hand over their work to one of the other executors
+     *
+     * @return The scheduler of the module
+     */
+    @NotNull
+    ScheduledExecutorService getScheduler();
+
+    /**
+     * Submit a blocking task to the I/O executor, witch is cancelled (interrupted) if it doesn't finish in time
+     *
+     * @param task    The task to run
+     * @param timeout The time the task may take
+     * @param unit    The unit of the timeout
+     * @param <T>     The type of the result
+     * @return The future of the task
+     */
+    @NotNull
+    <T> Future<T> submit(@NotNull Callable<T> task, long timeout, @NotNull TimeUnit unit);
+
+}
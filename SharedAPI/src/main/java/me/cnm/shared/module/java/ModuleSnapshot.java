@@ -0,0 +1,85 @@
+package me.cnm.shared.module.java;
+
+import lombok.NonNull;
+import me.cnm.shared.utility.json.JsonDocument;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code ModuleSnapshot} contains the state of a {@link JavaModule}, witch is handed over to the next instance of
+ * the module, when it's restarted or reloaded<br>
+ * The state is kept off-heap, so it doesn't count against the heap while the module is reloaded<br>
+ * Only plain data (bytes or json) is stored, because the next instance may be loaded by another class loader
+ *
+ * @see JavaModule#snapshot()
+ * @see JavaModule#start(ModuleSnapshot)
+ */
+public final class ModuleSnapshot {
+
+    private final ByteBuffer buffer;
+
+    private ModuleSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Create a snapshot of binary data
+     *
+     * @param bytes The state of the module
+     * @return The snapshot
+     */
+    @NotNull
+    public static ModuleSnapshot of(byte @NonNull [] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return new ModuleSnapshot(buffer);
+    }
+
+    /**
+     * Create a snapshot of a json document
+     *
+     * @param document The state of the module
+     * @return The snapshot
+     */
+    @NotNull
+    public static ModuleSnapshot of(@NonNull JsonDocument document) {
+        return of(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The size of the snapshot in bytes
+     */
+    public int size() {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * @return A read-only view of the data of the snapshot
+     */
+    @NotNull
+    public ByteBuffer asByteBuffer() {
+        return this.buffer.duplicate();
+    }
+
+    /**
+     * @return A copy of the data of the snapshot
+     */
+    public byte @NotNull [] toByteArray() {
+        byte[] bytes = new byte[this.buffer.remaining()];
+        this.buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read the snapshot as json document, witch only works for snapshots created by {@link #of(JsonDocument)}
+     *
+     * @return The state of the module
+     */
+    @NotNull
+    public JsonDocument toJsonDocument() {
+        return new JsonDocument(new String(this.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -35,4 +35,15 @@ public interface IModule {
      * @param running Whether the module is running
      */
     void setRunning(boolean running);
+
+    /**
+     * @return Whether the module failed to start, for example because it didn't start within its deadline
+     */
+    boolean isFailed();
+
+    /**
+     * Set whether the module failed to start
+     * @param failed Whether the module failed to start
+     */
+    void setFailed(boolean failed);
 }
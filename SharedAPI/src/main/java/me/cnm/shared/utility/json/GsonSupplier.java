@@ -2,58 +2,109 @@ package me.cnm.shared.utility.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import lombok.NonNull;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class is used to supply the {@link JsonDocument} with a {@link Gson} object.
  * It is also capable of registering custom type adapters
+ * <br>
+ * The {@link Gson} objects of all profiles are built together with the type adapters and published as one immutable
+ * state, so concurrent callers always get fully built objects of the same version
  */
 public class GsonSupplier {
 
     /**
-     * A map with all custom registered type adapters
+     * The output formats of the supplied {@link Gson} objects
      */
-    private final Map<Class<?>, Object> typeAdapters = new HashMap<>();
+    public enum Profile {
+
+        /**
+         * Without line breaks and indentation, for json witch is read by machines
+         */
+        COMPACT,
+
+        /**
+         * With line breaks and indentation, for json witch is read by humans
+         */
+        PRETTY
+
+    }
 
     /**
-     * The current instance of the {@link Gson} object
+     * The current state with all registered type adapters and the {@link Gson} objects built from them
      */
-    private Gson gson;
+    private final AtomicReference<State> state = new AtomicReference<>(State.create(0,
+            new LinkedHashMap<>()));
 
     /**
-     * Creates a {@link Gson} object with all registered type adapters if the object isn't created yet
-     * or a new type adapter was registered since the last call
-     * <br>
-     * If none of the above is the case, then the gson object will be cached
+     * Get the pretty printing {@link Gson} object with all registered type adapters
      *
      * @return the {@link Gson} object with all registered type adapters
+     * @see #getGson(Profile)
      * @see #registerTypeAdapter(Class, Object)
      */
     public Gson getGson() {
-        if (gson == null) {
-            GsonBuilder gsonBuilder = new GsonBuilder()
-                    .serializeNulls()
-                    .disableHtmlEscaping()
-                    .setPrettyPrinting();
-
-            typeAdapters.forEach(gsonBuilder::registerTypeAdapter);
+        return this.getGson(Profile.PRETTY);
+    }
 
-            gson = gsonBuilder.create();
-        }
+    /**
+     * Get the {@link Gson} object of a profile with all registered type adapters
+     *
+     * @param profile the output format of the {@link Gson} object
+     * @return the {@link Gson} object with all registered type adapters
+     */
+    public Gson getGson(@NonNull Profile profile) {
+        State current = this.state.get();
+        return profile == Profile.COMPACT ? current.compact() : current.pretty();
+    }
 
-        return gson;
+    /**
+     * @return the version of the type adapters, witch is increased by every registration
+     */
+    public long getVersion() {
+        return this.state.get().version();
     }
 
     /**
      * Register a new custom type adapter
+     * <br>
+     * The type adapters are copied on write and the {@link Gson} objects are rebuilt before they are published, so
+     * the {@link Gson} objects in use aren't changed
+     *
      * @param clazz the {@link Class} for witch the type adapter should trigger
      * @param typeAdapter the type adapter, witch should be triggered
      */
-    public void registerTypeAdapter(Class<?> clazz, Object typeAdapter) {
-        typeAdapters.put(clazz, typeAdapter);
-        gson = null;
+    public void registerTypeAdapter(@NonNull Class<?> clazz, @NonNull Object typeAdapter) {
+        State current;
+        State next;
+        do {
+            current = this.state.get();
+
+            Map<Class<?>, Object> typeAdapters = new LinkedHashMap<>(current.typeAdapters());
+            typeAdapters.put(clazz, typeAdapter);
+            next = State.create(current.version() + 1, typeAdapters);
+        } while (!this.state.compareAndSet(current, next));
+    }
+
+    private record State(long version, Map<Class<?>, Object> typeAdapters, Gson compact, Gson pretty) {
+
+        private static State create(long version, Map<Class<?>, Object> typeAdapters) {
+            GsonBuilder gsonBuilder = new GsonBuilder()
+                    .serializeNulls()
+                    .disableHtmlEscaping();
+
+            typeAdapters.forEach(gsonBuilder::registerTypeAdapter);
+
+            Gson compact = gsonBuilder.create();
+            Gson pretty = gsonBuilder.setPrettyPrinting().create();
+            return new State(version, Collections.unmodifiableMap(typeAdapters), compact, pretty);
+        }
+
     }
 
 }
@@ -0,0 +1,366 @@
+package me.cnm.shared.utility.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A compact binary form of {@link JsonDocument}s, witch round trips every document without loss<br>
+ * Every value starts with a tag byte. Integers are written as zigzag varints, doubles and floats with their bits,
+ * strings as UTF-8 with a varint length. Keys are written once per message and referenced by their index afterwards,
+ * so repeated keys (for example in arrays of objects) cost one or two bytes<br>
+ * Numbers, witch can't be represented exactly by a long or double, are written and restored as their json text
+ */
+public final class JsonBinaryCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte NUMBER = 6;
+    private static final byte STRING = 7;
+    private static final byte OBJECT = 8;
+    private static final byte ARRAY = 9;
+
+    private JsonBinaryCodec() {
+    }
+
+    /**
+     * Encode a document into a new buffer
+     *
+     * @param document The document to encode
+     * @return A heap buffer, witch contains the encoded document between its position and limit
+     */
+    @NotNull
+    public static ByteBuffer encode(@NonNull JsonDocument document) {
+        Encoder encoder = new Encoder(ByteBuffer.allocate(256), true);
+        encoder.encode(document.toJsonObject());
+        return encoder.buffer.flip();
+    }
+
+    /**
+     * Encode a document into an existing buffer, for example a direct buffer, witch is written to a channel
+     *
+     * @param document The document to encode
+     * @param buffer   The buffer, the document is written at its position
+     * @return The number of written bytes
+     * @throws BufferOverflowException If the buffer has not enough space left, the position is reset in this case
+     */
+    public static int encode(@NonNull JsonDocument document, @NonNull ByteBuffer buffer) {
+        int position = buffer.position();
+        try {
+            new Encoder(buffer, false).encode(document.toJsonObject());
+        } catch (BufferOverflowException e) {
+            buffer.position(position);
+            throw e;
+        }
+
+        return buffer.position() - position;
+    }
+
+    /**
+     * Decode a document, witch starts at the position of a buffer<br>
+     * The position is moved behind the document, so multiple documents can be read from one buffer
+     *
+     * @param buffer The buffer to read from
+     * @return The decoded document
+     * @throws IllegalArgumentException If the buffer doesn't contain a valid encoded document
+     */
+    @NotNull
+    public static JsonDocument decode(@NonNull ByteBuffer buffer) {
+        try {
+            return new JsonDocument(new Decoder(buffer).decode());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The encoded document is incomplete or corrupted", e);
+        }
+    }
+
+    private static final class Encoder {
+
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final boolean growable;
+        private ByteBuffer buffer;
+
+        private Encoder(ByteBuffer buffer, boolean growable) {
+            this.buffer = buffer;
+            this.growable = growable;
+        }
+
+        private void encode(JsonObject jsonObject) {
+            this.ensure(1);
+            this.buffer.put(VERSION);
+            this.writeValue(jsonObject);
+        }
+
+        private void writeValue(JsonElement element) {
+            if (element == null || element.isJsonNull()) {
+                this.writeTag(NULL);
+            } else if (element.isJsonObject()) {
+                JsonObject jsonObject = element.getAsJsonObject();
+                this.writeTag(OBJECT);
+                this.writeVarInt(jsonObject.size());
+                for (Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+                    this.writeKey(entry.getKey());
+                    this.writeValue(entry.getValue());
+                }
+            } else if (element.isJsonArray()) {
+                JsonArray jsonArray = element.getAsJsonArray();
+                this.writeTag(ARRAY);
+                this.writeVarInt(jsonArray.size());
+                for (JsonElement child : jsonArray) this.writeValue(child);
+            } else {
+                this.writePrimitive(element.getAsJsonPrimitive());
+            }
+        }
+
+        private void writePrimitive(JsonPrimitive primitive) {
+            if (primitive.isBoolean()) {
+                this.writeTag(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else if (primitive.isString()) {
+                this.writeTag(STRING);
+                this.writeString(primitive.getAsString());
+            } else {
+                this.writeNumber(primitive.getAsNumber());
+            }
+        }
+
+        private void writeNumber(Number number) {
+            if (number instanceof Long || number instanceof Integer || number instanceof Short ||
+                    number instanceof Byte) {
+                this.writeTag(INTEGER);
+                this.writeVarLong(number.longValue());
+            } else if (number instanceof Double) {
+                this.writeTag(DOUBLE);
+                this.ensure(8);
+                this.buffer.putDouble(number.doubleValue());
+            } else if (number instanceof Float) {
+                this.writeTag(FLOAT);
+                this.ensure(4);
+                this.buffer.putFloat(number.floatValue());
+            } else {
+                this.writeText(number);
+            }
+        }
+
+        private void writeText(Number number) {
+            String text = number.toString();
+
+            // Parsed numbers are kept as text by gson, most of them fit exactly into a long or double
+            if (number instanceof LazilyParsedNumber) {
+                // Only if the text is restored exactly, so for example -0 stays -0
+                try {
+                    long value = Long.parseLong(text);
+                    if (Long.toString(value).equals(text)) {
+                        this.writeTag(INTEGER);
+                        this.writeVarLong(value);
+                        return;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // Not an integer in the range of a long
+                }
+
+                try {
+                    double value = Double.parseDouble(text);
+                    if (Double.toString(value).equals(text)) {
+                        this.writeTag(DOUBLE);
+                        this.ensure(8);
+                        this.buffer.putDouble(value);
+                        return;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // Written as text below
+                }
+            }
+
+            this.writeTag(NUMBER);
+            this.writeString(text);
+        }
+
+        private void writeKey(String key) {
+            // 0 introduces a new key, witch gets the next index, otherwise the index of the key + 1 is written
+            Integer index = this.keys.get(key);
+            if (index != null) {
+                this.writeVarInt(index + 1);
+                return;
+            }
+
+            this.keys.put(key, this.keys.size());
+            this.writeVarInt(0);
+            this.writeString(key);
+        }
+
+        private void writeString(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            this.writeVarInt(bytes.length);
+            this.ensure(bytes.length);
+            this.buffer.put(bytes);
+        }
+
+        private void writeTag(byte tag) {
+            this.ensure(1);
+            this.buffer.put(tag);
+        }
+
+        private void writeVarInt(int value) {
+            this.ensure(varLength(Integer.toUnsignedLong(value)));
+            while ((value & ~0x7F) != 0) {
+                this.buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            this.buffer.put((byte) value);
+        }
+
+        private void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            this.ensure(varLength(zigzag));
+            while ((zigzag & ~0x7FL) != 0) {
+                this.buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            this.buffer.put((byte) zigzag);
+        }
+
+        // Only the actual length is reserved, so a buffer of the exact size of the encoded document is enough
+        private static int varLength(long value) {
+            return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7);
+        }
+
+        private void ensure(int bytes) {
+            if (this.buffer.remaining() >= bytes) return;
+            if (!this.growable) throw new BufferOverflowException();
+
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2,
+                    this.buffer.position() + bytes));
+            this.buffer = grown.put(this.buffer.flip());
+        }
+
+    }
+
+    private static final class Decoder {
+
+        private final List<String> keys = new ArrayList<>();
+        private final ByteBuffer buffer;
+
+        private Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private JsonElement decode() {
+            byte version = this.buffer.get();
+            if (version != VERSION)
+                throw new IllegalArgumentException("The encoded document has the unsupported version " + version);
+
+            JsonElement element = this.readValue();
+            if (!element.isJsonObject())
+                throw new IllegalArgumentException("The encoded document doesn't contain an object");
+            return element;
+        }
+
+        private JsonElement readValue() {
+            byte tag = this.buffer.get();
+            switch (tag) {
+                case NULL:
+                    return JsonNull.INSTANCE;
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case INTEGER:
+                    return new JsonPrimitive(this.readVarLong());
+                case DOUBLE:
+                    return new JsonPrimitive(this.buffer.getDouble());
+                case FLOAT:
+                    return new JsonPrimitive(this.buffer.getFloat());
+                case NUMBER:
+                    return new JsonPrimitive(new LazilyParsedNumber(this.readString()));
+                case STRING:
+                    return new JsonPrimitive(this.readString());
+                case OBJECT: {
+                    int size = this.readVarInt();
+                    JsonObject jsonObject = new JsonObject();
+                    for (int i = 0; i < size; i++) {
+                        String key = this.readKey();
+                        jsonObject.add(key, this.readValue());
+                    }
+                    return jsonObject;
+                }
+                case ARRAY: {
+                    int size = this.readVarInt();
+                    JsonArray jsonArray = new JsonArray(Math.min(size, this.buffer.remaining()));
+                    for (int i = 0; i < size; i++) jsonArray.add(this.readValue());
+                    return jsonArray;
+                }
+                default:
+                    throw new IllegalArgumentException("The encoded document contains the unknown tag " + tag);
+            }
+        }
+
+        private String readKey() {
+            int index = this.readVarInt();
+            if (index != 0) return this.keys.get(index - 1);
+
+            String key = this.readString();
+            this.keys.add(key);
+            return key;
+        }
+
+        private String readString() {
+            int length = this.readVarInt();
+            if (length < 0 || length > this.buffer.remaining()) throw new BufferUnderflowException();
+
+            if (this.buffer.hasArray()) {
+                String string = new String(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(),
+                        length, StandardCharsets.UTF_8);
+                this.buffer.position(this.buffer.position() + length);
+                return string;
+            }
+
+            byte[] bytes = new byte[length];
+            this.buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = this.buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+
+            throw new IllegalArgumentException("The encoded document contains a malformed varint");
+        }
+
+        private long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                byte b = this.buffer.get();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+
+            throw new IllegalArgumentException("The encoded document contains a malformed varint");
+        }
+
+    }
+
+}
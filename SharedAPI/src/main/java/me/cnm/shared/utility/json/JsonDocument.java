@@ -11,6 +11,9 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -37,6 +40,17 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
         return GSON_SUPPLIER.getGson();
     }
 
+    /**
+     * Get the {@link Gson} object of a profile
+     *
+     * @param profile The output format of the {@link Gson} object
+     * @return the {@link Gson} object
+     * @see GsonSupplier#getGson(GsonSupplier.Profile)
+     */
+    public static Gson getGson(@NonNull GsonSupplier.Profile profile) {
+        return GSON_SUPPLIER.getGson(profile);
+    }
+
     /**
      * Register a new custom type adapter
      *
@@ -48,6 +62,107 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
         GSON_SUPPLIER.registerTypeAdapter(clazz, typeAdapter);
     }
 
+    /**
+     * Create a {@link JsonStreamReader} to read large json without building the whole document in memory
+     *
+     * @param reader The {@link Reader} to read the json from
+     * @return The {@link JsonStreamReader}, witch has to be closed after it was read
+     * @throws NullPointerException If {@code reader} is null
+     */
+    @NotNull
+    public static JsonStreamReader stream(@NonNull Reader reader) {
+        return new JsonStreamReader(reader);
+    }
+
+    /**
+     * Create a {@link JsonStreamReader} to read large json without building the whole document in memory
+     *
+     * @param inputStream The {@link InputStream} to read the json from
+     * @return The {@link JsonStreamReader}, witch has to be closed after it was read
+     * @throws NullPointerException If {@code inputStream} is null
+     */
+    @NotNull
+    public static JsonStreamReader stream(@NonNull InputStream inputStream) {
+        return stream(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a {@link JsonStreamReader} to read a large json {@link File} without building the whole document in
+     * memory
+     *
+     * @param file The {@link File} to read the json from
+     * @return The {@link JsonStreamReader}, witch has to be closed after it was read
+     * @throws NullPointerException  If {@code file} is null
+     * @throws FileNotFoundException If the file doesn't exist
+     */
+    @NotNull
+    public static JsonStreamReader stream(@NonNull File file) throws FileNotFoundException {
+        return stream(new FileInputStream(file));
+    }
+
+    /**
+     * Create a {@link JsonStreamWriter} to write large json without building a document in memory
+     *
+     * @param writer The {@link Writer} to write the json to
+     * @return The {@link JsonStreamWriter}, witch has to be closed after everything was written
+     * @throws NullPointerException If {@code writer} is null
+     */
+    @NotNull
+    public static JsonStreamWriter streamWriter(@NonNull Writer writer) {
+        return new JsonStreamWriter(writer);
+    }
+
+    /**
+     * Create a {@link JsonStreamWriter} to write large json without building a document in memory
+     *
+     * @param outputStream The {@link OutputStream} to write the json to
+     * @return The {@link JsonStreamWriter}, witch has to be closed after everything was written
+     * @throws NullPointerException If {@code outputStream} is null
+     */
+    @NotNull
+    public static JsonStreamWriter streamWriter(@NonNull OutputStream outputStream) {
+        return streamWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a {@link JsonStreamWriter} to write large json to a channel without building a document in memory
+     *
+     * @param channel The {@link WritableByteChannel} to write the json to
+     * @return The {@link JsonStreamWriter}, witch has to be closed after everything was written
+     * @throws NullPointerException If {@code channel} is null
+     */
+    @NotNull
+    public static JsonStreamWriter streamWriter(@NonNull WritableByteChannel channel) {
+        return streamWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(),
+                JsonStreamWriter.BUFFER_SIZE));
+    }
+
+    /**
+     * Create a {@link JsonStreamWriter} to write a large json {@link File} without building a document in memory
+     *
+     * @param file The {@link File} to write the json to
+     * @return The {@link JsonStreamWriter}, witch has to be closed after everything was written
+     * @throws NullPointerException If {@code file} is null
+     * @throws IOException          If the file can't be opened
+     */
+    @NotNull
+    public static JsonStreamWriter streamWriter(@NonNull File file) throws IOException {
+        return streamWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a new {@code Document} from its binary form, witch starts at the position of a {@link ByteBuffer}
+     *
+     * @param buffer The {@link ByteBuffer} to read from, its position is moved behind the document
+     * @return The decoded {@code Document}
+     * @throws IllegalArgumentException If the buffer doesn't contain a valid binary document
+     * @see JsonBinaryCodec
+     */
+    @NotNull
+    public static JsonDocument fromBinary(@NonNull ByteBuffer buffer) {
+        return JsonBinaryCodec.decode(buffer);
+    }
+
     /**
      * The {@link JsonObject} in which all values are stored internally
      */
@@ -153,8 +268,21 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
      */
     @Contract("_ -> this")
     public JsonDocument write(@NonNull OutputStream outputStream) {
+        return this.write(outputStream, GsonSupplier.Profile.PRETTY);
+    }
+
+    /**
+     * Writes the content of the class to an {@link OutputStream} in the format of a profile
+     *
+     * @param outputStream The {@link OutputStream} to write the content to
+     * @param profile      The output format
+     * @return This instance
+     * @throws NullPointerException If {@code outputStream} or {@code profile} is null
+     */
+    @Contract("_, _ -> this")
+    public JsonDocument write(@NonNull OutputStream outputStream, @NonNull GsonSupplier.Profile profile) {
         try (OutputStreamWriter outputStreamWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
-            return this.write(outputStreamWriter);
+            return this.write(outputStreamWriter, profile);
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
@@ -169,7 +297,20 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
      */
     @Contract("_ -> this")
     public JsonDocument write(@NonNull Writer writer) {
-        getGson().toJson(this.jsonObject, writer);
+        return this.write(writer, GsonSupplier.Profile.PRETTY);
+    }
+
+    /**
+     * Writes the content of the class to an {@link Writer} in the format of a profile
+     *
+     * @param writer  The {@link Writer} to write the content to
+     * @param profile The output format
+     * @return This instance
+     * @throws NullPointerException If {@code writer} or {@code profile} is null
+     */
+    @Contract("_, _ -> this")
+    public JsonDocument write(@NonNull Writer writer, @NonNull GsonSupplier.Profile profile) {
+        getGson(profile).toJson(this.jsonObject, writer);
         return this;
     }
 
@@ -183,8 +324,22 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
      */
     @Contract("_ -> this")
     public JsonDocument write(@NonNull File file) throws IOException {
+        return this.write(file, GsonSupplier.Profile.PRETTY);
+    }
+
+    /**
+     * Writes the content of the class to an {@link File} in the format of a profile
+     *
+     * @param file    The {@link File} to write the content to
+     * @param profile The output format
+     * @return This instance
+     * @throws NullPointerException If {@code file} or {@code profile} is null
+     * @throws IOException          If the something goes wrong with the writing of the {@link File}
+     */
+    @Contract("_, _ -> this")
+    public JsonDocument write(@NonNull File file, @NonNull GsonSupplier.Profile profile) throws IOException {
         @Cleanup FileWriter fileWriter = new FileWriter(file);
-        return this.write(fileWriter);
+        return this.write(fileWriter, profile);
     }
 
     /**
@@ -266,7 +421,7 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
     @NotNull
     @Contract(pure = true)
     public String toPrettyJson() {
-        return getGson().toJson(this.jsonObject);
+        return this.toJson(GsonSupplier.Profile.PRETTY);
     }
 
     /**
@@ -277,7 +432,31 @@ public class JsonDocument extends JsonDocumentGetDef<JsonDocument> {
     @NotNull
     @Contract(pure = true)
     public String toJson() {
-        return this.jsonObject.toString();
+        return this.toJson(GsonSupplier.Profile.COMPACT);
+    }
+
+    /**
+     * Converts the content of the {@code Document} to {@code Json} in the format of a profile
+     *
+     * @param profile The output format
+     * @return The {@code Document} converted to {@code Json} syntax
+     */
+    @NotNull
+    @Contract(pure = true)
+    public String toJson(@NonNull GsonSupplier.Profile profile) {
+        return getGson(profile).toJson(this.jsonObject);
+    }
+
+    /**
+     * Converts the content of the {@code Document} to its compact binary form
+     *
+     * @return A {@link ByteBuffer}, witch contains the binary form between its position and limit
+     * @see JsonBinaryCodec
+     */
+    @NotNull
+    @Contract(pure = true)
+    public ByteBuffer toBinary() {
+        return JsonBinaryCodec.encode(this);
     }
 
     @Override
@@ -0,0 +1,265 @@
+package me.cnm.shared.utility.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A path to a nested value of a {@link JsonDocument}, witch is compiled once and can be applied to any document<br>
+ * The path walks the underlying {@link JsonObject}s and {@link JsonArray}s directly, so unlike chained calls of
+ * {@link JsonDocument#getDocument(String)} no wrappers are created, and the typed getters return primitives<br>
+ * Paths are either dotted like {@code file.pattern} or JSON pointers like {@code /file/pattern}, where {@code ~1}
+ * stands for {@code /} and {@code ~0} for {@code ~}. Numeric segments are used as index in arrays<br>
+ * Instances are immutable and can be shared between threads, so they are usually stored in constants
+ */
+public final class JsonPath {
+
+    private static final JsonPath ROOT = new JsonPath("", new String[0]);
+
+    @Getter
+    private final String expression;
+
+    private final String[] keys;
+    private final int[] indices;
+
+    private JsonPath(String expression, String[] keys) {
+        this.expression = expression;
+        this.keys = keys;
+        this.indices = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i++) this.indices[i] = index(keys[i]);
+    }
+
+    /**
+     * Compile a dotted path or a JSON pointer
+     *
+     * @param expression The path, an empty path points to the document itself, while {@code /} points to the empty
+     *                   key like in a JSON pointer
+     * @return The compiled path
+     * @throws IllegalArgumentException If a segment of a dotted path is empty or a pointer contains an invalid escape
+     */
+    @NotNull
+    public static JsonPath compile(@NonNull String expression) {
+        if (expression.isEmpty()) return ROOT;
+        if (expression.charAt(0) == '/') return new JsonPath(expression, pointer(expression));
+
+        String[] keys = expression.split("\\.", -1);
+        for (String key : keys) {
+            if (key.isEmpty()) throw new IllegalArgumentException("The path '" + expression + "' has an empty segment");
+        }
+
+        return new JsonPath(expression, keys);
+    }
+
+    private static String[] pointer(String expression) {
+        String[] keys = expression.substring(1).split("/", -1);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key.indexOf('~') == -1) continue;
+
+            StringBuilder builder = new StringBuilder(key.length());
+            for (int j = 0; j < key.length(); j++) {
+                char c = key.charAt(j);
+                if (c != '~') {
+                    builder.append(c);
+                    continue;
+                }
+
+                char escaped = j + 1 < key.length() ? key.charAt(++j) : ' ';
+                if (escaped == '0') builder.append('~');
+                else if (escaped == '1') builder.append('/');
+                else throw new IllegalArgumentException("The pointer '" + expression + "' has an invalid escape");
+            }
+            keys[i] = builder.toString();
+        }
+
+        return keys;
+    }
+
+    private static int index(String key) {
+        if (key.isEmpty() || key.length() > 9 || (key.length() > 1 && key.charAt(0) == '0')) return -1;
+
+        int index = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            index = index * 10 + (c - '0');
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the value at this path
+     *
+     * @param document The document to read from
+     * @return The value, or null if the path doesn't exist
+     */
+    @Nullable
+    @Contract(pure = true)
+    public JsonElement get(@NonNull JsonDocument document) {
+        return this.get(document.toJsonObject());
+    }
+
+    /**
+     * Get the value at this path
+     *
+     * @param element The element to read from
+     * @return The value, or null if the path doesn't exist
+     */
+    @Nullable
+    @Contract(pure = true)
+    public JsonElement get(@NonNull JsonElement element) {
+        JsonElement current = element;
+        for (int i = 0; i < this.keys.length; i++) {
+            if (current instanceof JsonObject jsonObject) {
+                current = jsonObject.get(this.keys[i]);
+            } else if (current instanceof JsonArray jsonArray) {
+                int index = this.indices[i];
+                current = index >= 0 && index < jsonArray.size() ? jsonArray.get(index) : null;
+            } else return null;
+
+            if (current == null) return null;
+        }
+
+        return current;
+    }
+
+    /**
+     * Check if the document has a value at this path
+     *
+     * @param document The document to check
+     * @return Whether the value exists or not, a json null counts as existing
+     */
+    @Contract(pure = true)
+    public boolean contains(@NonNull JsonDocument document) {
+        return this.get(document) != null;
+    }
+
+    /**
+     * Get the {@link JsonObject} at this path
+     *
+     * @param document The document to read from
+     * @return The {@link JsonObject}, or null if the path doesn't exist or isn't an object
+     */
+    @Nullable
+    @Contract(pure = true)
+    public JsonObject getObject(@NonNull JsonDocument document) {
+        return this.get(document) instanceof JsonObject jsonObject ? jsonObject : null;
+    }
+
+    /**
+     * Get the {@link JsonArray} at this path
+     *
+     * @param document The document to read from
+     * @return The {@link JsonArray}, or null if the path doesn't exist or isn't an array
+     */
+    @Nullable
+    @Contract(pure = true)
+    public JsonArray getArray(@NonNull JsonDocument document) {
+        return this.get(document) instanceof JsonArray jsonArray ? jsonArray : null;
+    }
+
+    /**
+     * Get the {@link String} at this path
+     *
+     * @param document The document to read from
+     * @return The {@link String}, or null if the path doesn't exist or isn't a string
+     */
+    @Nullable
+    @Contract(pure = true)
+    public String getString(@NonNull JsonDocument document) {
+        return this.getString(document, null);
+    }
+
+    /**
+     * Get the {@link String} at this path
+     *
+     * @param document The document to read from
+     * @param def      The value to be returned, if the path doesn't exist or isn't a string
+     * @return The {@link String}, or the default value
+     */
+    @Contract(pure = true)
+    public String getString(@NonNull JsonDocument document, String def) {
+        return this.get(document) instanceof JsonPrimitive primitive && primitive.isString() ?
+                primitive.getAsString() : def;
+    }
+
+    /**
+     * Get the int at this path
+     *
+     * @param document The document to read from
+     * @param def      The value to be returned, if the path doesn't exist or isn't a number
+     * @return The int, or the default value
+     */
+    @Contract(pure = true)
+    public int getInt(@NonNull JsonDocument document, int def) {
+        return this.get(document) instanceof JsonPrimitive primitive && primitive.isNumber() ?
+                primitive.getAsInt() : def;
+    }
+
+    /**
+     * Get the long at this path
+     *
+     * @param document The document to read from
+     * @param def      The value to be returned, if the path doesn't exist or isn't a number
+     * @return The long, or the default value
+     */
+    @Contract(pure = true)
+    public long getLong(@NonNull JsonDocument document, long def) {
+        return this.get(document) instanceof JsonPrimitive primitive && primitive.isNumber() ?
+                primitive.getAsLong() : def;
+    }
+
+    /**
+     * Get the double at this path
+     *
+     * @param document The document to read from
+     * @param def      The value to be returned, if the path doesn't exist or isn't a number
+     * @return The double, or the default value
+     */
+    @Contract(pure = true)
+    public double getDouble(@NonNull JsonDocument document, double def) {
+        return this.get(document) instanceof JsonPrimitive primitive && primitive.isNumber() ?
+                primitive.getAsDouble() : def;
+    }
+
+    /**
+     * Get the boolean at this path
+     *
+     * @param document The document to read from
+     * @param def      The value to be returned, if the path doesn't exist or isn't a boolean
+     * @return The boolean, or the default value
+     */
+    @Contract(pure = true)
+    public boolean getBoolean(@NonNull JsonDocument document, boolean def) {
+        return this.get(document) instanceof JsonPrimitive primitive && primitive.isBoolean() ?
+                primitive.getAsBoolean() : def;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof JsonPath jsonPath)) return false;
+        return Arrays.equals(this.keys, jsonPath.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.keys);
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+
+}
@@ -0,0 +1,256 @@
+package me.cnm.shared.utility.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import lombok.NonNull;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads json with a pull parser, without building the whole document in memory<br>
+ * Visitors are registered for dotted paths like {@code devices.*.name}, where {@code *} matches every key or array
+ * index. Only the values of matched paths are read into memory, everything else is skipped while parsing, so the
+ * memory usage doesn't depend on the size of the input<br>
+ * If the paths of visitors are nested, the value of the outer path is read into memory and the inner visitors are
+ * called on it
+ *
+ * @see JsonDocument#stream(Reader)
+ */
+public class JsonStreamReader implements Closeable {
+
+    private static final String WILDCARD = "*";
+
+    private final JsonReader jsonReader;
+    private final List<Visitor> visitors = new ArrayList<>();
+
+    // The keys and indices of the current value
+    private String[] path = new String[8];
+
+    /**
+     * Create a reader, witch reads the json from a {@link Reader}
+     *
+     * @param reader The {@link Reader} to read the json from
+     */
+    public JsonStreamReader(@NonNull Reader reader) {
+        this.jsonReader = new JsonReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+    }
+
+    /**
+     * Register a visitor for all values at a path
+     *
+     * @param path    The dotted path of the values, an empty path matches the whole document
+     * @param visitor The visitor, witch is called with the path and the value of every match
+     * @return This instance
+     * @throws IllegalArgumentException If a segment of the path is empty
+     */
+    @Contract("_, _ -> this")
+    public JsonStreamReader visit(@NonNull String path, @NonNull JsonVisitor visitor) {
+        this.visitors.add(new Visitor(this.compile(path), visitor, null, null));
+        return this;
+    }
+
+    /**
+     * Register a visitor for all values at a path, witch are converted to a type<br>
+     * The values are converted directly from the stream by the type adapter of the type, without a tree in between
+     *
+     * @param path     The dotted path of the values, an empty path matches the whole document
+     * @param type     The type to convert the values to
+     * @param consumer The consumer, witch is called with every converted value
+     * @param <V>      The type of the values
+     * @return This instance
+     * @throws IllegalArgumentException If a segment of the path is empty
+     */
+    @Contract("_, _, _ -> this")
+    public <V> JsonStreamReader visit(@NonNull String path, @NonNull Class<V> type, @NonNull Consumer<V> consumer) {
+        TypeAdapter<V> typeAdapter = JsonDocument.getGson().getAdapter(type);
+        //noinspection unchecked
+        this.visitors.add(new Visitor(this.compile(path), null, (TypeAdapter<Object>) typeAdapter,
+                (Consumer<Object>) consumer));
+        return this;
+    }
+
+    /**
+     * Read all values at a path into a list
+     *
+     * @param path The dotted path of the values
+     * @return The list, witch is filled while the json is read
+     * @throws IllegalArgumentException If a segment of the path is empty
+     * @see #visit(String, JsonVisitor)
+     */
+    @NotNull
+    public List<JsonElement> extract(@NonNull String path) {
+        List<JsonElement> elements = new ArrayList<>();
+        this.visit(path, (match, element) -> elements.add(element));
+        return elements;
+    }
+
+    /**
+     * Read the whole json once and call the visitors of all matched paths
+     *
+     * @throws IOException If the json can't be read or is malformed
+     */
+    public void read() throws IOException {
+        this.walk(0);
+    }
+
+    private void walk(int depth) throws IOException {
+        List<Visitor> matches = null;
+        boolean descend = false;
+
+        for (Visitor visitor : this.visitors) {
+            if (!visitor.matches(this.path, depth)) continue;
+
+            if (visitor.path().length == depth) {
+                if (matches == null) matches = new ArrayList<>(1);
+                matches.add(visitor);
+            } else descend = true;
+        }
+
+        if (matches != null) {
+            this.accept(matches, depth, descend);
+            return;
+        }
+
+        if (!descend) {
+            this.jsonReader.skipValue();
+            return;
+        }
+
+        switch (this.jsonReader.peek()) {
+            case BEGIN_OBJECT -> {
+                this.jsonReader.beginObject();
+                while (this.jsonReader.hasNext()) {
+                    this.setSegment(depth, this.jsonReader.nextName());
+                    this.walk(depth + 1);
+                }
+                this.jsonReader.endObject();
+            }
+            case BEGIN_ARRAY -> {
+                this.jsonReader.beginArray();
+                for (int index = 0; this.jsonReader.hasNext(); index++) {
+                    this.setSegment(depth, Integer.toString(index));
+                    this.walk(depth + 1);
+                }
+                this.jsonReader.endArray();
+            }
+            default -> this.jsonReader.skipValue();
+        }
+    }
+
+    private void accept(List<Visitor> matches, int depth, boolean descend) throws IOException {
+        // A single typed visitor reads the value directly from the stream
+        if (matches.size() == 1 && !descend && matches.get(0).typeAdapter() != null) {
+            Visitor visitor = matches.get(0);
+            visitor.consumer().accept(visitor.typeAdapter().read(this.jsonReader));
+            return;
+        }
+
+        JsonElement element = JsonParser.parseReader(this.jsonReader);
+        for (Visitor visitor : matches) this.dispatch(visitor, depth, element);
+
+        // The value is already in memory, so the visitors of paths inside of it are called on the tree
+        if (descend) this.walkTree(element, depth);
+    }
+
+    private void walkTree(JsonElement element, int depth) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                this.setSegment(depth, entry.getKey());
+                this.visitTree(entry.getValue(), depth + 1);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            for (int index = 0; index < array.size(); index++) {
+                this.setSegment(depth, Integer.toString(index));
+                this.visitTree(array.get(index), depth + 1);
+            }
+        }
+    }
+
+    private void visitTree(JsonElement element, int depth) {
+        boolean descend = false;
+        for (Visitor visitor : this.visitors) {
+            if (!visitor.matches(this.path, depth)) continue;
+
+            if (visitor.path().length == depth) this.dispatch(visitor, depth, element);
+            else descend = true;
+        }
+
+        if (descend) this.walkTree(element, depth);
+    }
+
+    private void dispatch(Visitor visitor, int depth, JsonElement element) {
+        if (visitor.visitor() != null)
+            visitor.visitor().visit(String.join(".", Arrays.asList(this.path).subList(0, depth)), element);
+        else visitor.consumer().accept(visitor.typeAdapter().fromJsonTree(element));
+    }
+
+    private void setSegment(int depth, String segment) {
+        if (depth == this.path.length) this.path = Arrays.copyOf(this.path, this.path.length * 2);
+        this.path[depth] = segment;
+    }
+
+    private String[] compile(String path) {
+        if (path.isEmpty()) return new String[0];
+
+        String[] segments = path.split("\\.", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty()) throw new IllegalArgumentException("The path '" + path + "' has an empty segment");
+        }
+
+        return segments;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.jsonReader.close();
+    }
+
+    /**
+     * A visitor of the values at a path
+     */
+    @FunctionalInterface
+    public interface JsonVisitor {
+
+        /**
+         * Visit a value
+         *
+         * @param path    The path of the value, with the actual keys and indices instead of wildcards
+         * @param element The value
+         */
+        void visit(@NotNull String path, @NotNull JsonElement element);
+
+    }
+
+    private record Visitor(String[] path, JsonVisitor visitor, TypeAdapter<Object> typeAdapter,
+                           Consumer<Object> consumer) {
+
+        /**
+         * Check whether the current path is the path of the visitor or a parent of it
+         */
+        private boolean matches(String[] current, int depth) {
+            if (depth > this.path.length) return false;
+
+            for (int i = 0; i < depth; i++) {
+                if (!this.path[i].equals(WILDCARD) && !this.path[i].equals(current[i])) return false;
+            }
+
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,289 @@
+package me.cnm.shared.utility.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+/**
+ * Writes json directly to a buffered output, without building a document or tree in between<br>
+ * Keys and values are written in the order they are passed, objects are converted by the type adapters registered at
+ * the {@link JsonDocument}, so the memory usage doesn't depend on the size of the output
+ *
+ * @see JsonDocument#streamWriter(Writer)
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+
+    /**
+     * The size of the buffer in chars, before the output is written to the underlying writer
+     */
+    public static final int BUFFER_SIZE = 8192;
+
+    private final JsonWriter jsonWriter;
+    private final Gson gson = JsonDocument.getGson(GsonSupplier.Profile.COMPACT);
+
+    /**
+     * Create a writer, witch writes the json to a {@link Writer}
+     *
+     * @param writer The {@link Writer} to write the json to
+     */
+    public JsonStreamWriter(@NonNull Writer writer) {
+        this.jsonWriter = new JsonWriter(writer instanceof BufferedWriter ? writer :
+                new BufferedWriter(writer, BUFFER_SIZE));
+        this.jsonWriter.setSerializeNulls(true);
+        this.jsonWriter.setHtmlSafe(false);
+    }
+
+    /**
+     * Render the output with line breaks and indentation
+     *
+     * @return This instance
+     */
+    @Contract("-> this")
+    public JsonStreamWriter pretty() {
+        this.jsonWriter.setIndent("  ");
+        return this;
+    }
+
+    /**
+     * Begin a new object, as value of the current object or array or as the document itself
+     *
+     * @return This instance
+     * @throws IOException           If the output can't be written
+     * @throws IllegalStateException If a value isn't allowed at this position, for example a second document
+     */
+    @Contract("-> this")
+    public JsonStreamWriter beginObject() throws IOException {
+        this.jsonWriter.beginObject();
+        return this;
+    }
+
+    /**
+     * End the current object
+     *
+     * @return This instance
+     * @throws IOException           If the output can't be written
+     * @throws IllegalStateException If the current value isn't an object or a key is missing its value
+     */
+    @Contract("-> this")
+    public JsonStreamWriter endObject() throws IOException {
+        this.jsonWriter.endObject();
+        return this;
+    }
+
+    /**
+     * Begin a new array, as value of the current object or array or as the document itself
+     *
+     * @return This instance
+     * @throws IOException           If the output can't be written
+     * @throws IllegalStateException If a value isn't allowed at this position
+     */
+    @Contract("-> this")
+    public JsonStreamWriter beginArray() throws IOException {
+        this.jsonWriter.beginArray();
+        return this;
+    }
+
+    /**
+     * End the current array
+     *
+     * @return This instance
+     * @throws IOException           If the output can't be written
+     * @throws IllegalStateException If the current value isn't an array
+     */
+    @Contract("-> this")
+    public JsonStreamWriter endArray() throws IOException {
+        this.jsonWriter.endArray();
+        return this;
+    }
+
+    /**
+     * Write the key of the next value of the current object
+     *
+     * @param key The key
+     * @return This instance
+     * @throws IOException           If the output can't be written
+     * @throws IllegalStateException If the current value isn't an object or the previous key has no value yet
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter name(@NonNull String key) throws IOException {
+        this.jsonWriter.name(key);
+        return this;
+    }
+
+    /**
+     * Write a string as value, escaped as needed
+     *
+     * @param value The string, or null to write a json null
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(@Nullable String value) throws IOException {
+        this.jsonWriter.value(value);
+        return this;
+    }
+
+    /**
+     * Write an integer as value
+     *
+     * @param value The integer
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(long value) throws IOException {
+        this.jsonWriter.value(value);
+        return this;
+    }
+
+    /**
+     * Write a floating point number as value
+     *
+     * @param value The number
+     * @return This instance
+     * @throws IOException              If the output can't be written
+     * @throws IllegalArgumentException If the number is NaN or infinite, witch json can't represent
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(double value) throws IOException {
+        this.jsonWriter.value(value);
+        return this;
+    }
+
+    /**
+     * Write a boolean as value
+     *
+     * @param value The boolean
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(boolean value) throws IOException {
+        this.jsonWriter.value(value);
+        return this;
+    }
+
+    /**
+     * Write a number as value, as it's formatted by its {@link Number#toString()}
+     *
+     * @param value The number, or null to write a json null
+     * @return This instance
+     * @throws IOException              If the output can't be written
+     * @throws IllegalArgumentException If the number is NaN or infinite, witch json can't represent
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(@Nullable Number value) throws IOException {
+        this.jsonWriter.value(value);
+        return this;
+    }
+
+    /**
+     * Write a {@link JsonDocument} as value
+     *
+     * @param document The document, or null to write a json null
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(@Nullable JsonDocument document) throws IOException {
+        return this.value(document == null ? null : document.toJsonObject(), JsonElement.class);
+    }
+
+    /**
+     * Write any object as value, converted by the type adapter of its class<br>
+     * {@link JsonDocument}s are written as their content
+     *
+     * @param value The object, or null to write a json null
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter value(@Nullable Object value) throws IOException {
+        if (value == null) {
+            this.jsonWriter.nullValue();
+            return this;
+        }
+
+        if (value instanceof JsonDocument document) return this.value(document);
+        return this.value(value, value.getClass());
+    }
+
+    /**
+     * Write any object as value, converted by the type adapter of a type<br>
+     * Needed for generic types, whose type arguments aren't known from the class of the object
+     *
+     * @param value The object, or null to write a json null
+     * @param type  The type of the object
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_, _ -> this")
+    public JsonStreamWriter value(@Nullable Object value, @NonNull Type type) throws IOException {
+        //noinspection unchecked
+        TypeAdapter<Object> typeAdapter = (TypeAdapter<Object>) this.gson.getAdapter(TypeToken.get(type));
+        typeAdapter.write(this.jsonWriter, value);
+        return this;
+    }
+
+    /**
+     * Write an entry of the current object
+     *
+     * @param key   The key of the entry
+     * @param value The value of the entry, converted like {@link #value(Object)}
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_, _ -> this")
+    public JsonStreamWriter entry(@NonNull String key, @Nullable Object value) throws IOException {
+        this.jsonWriter.name(key);
+        return this.value(value);
+    }
+
+    /**
+     * Write all elements of an {@link Iterable} as array, one after another
+     *
+     * @param values The elements, for example a lazily loaded result set
+     * @return This instance
+     * @throws IOException If the output can't be written
+     */
+    @Contract("_ -> this")
+    public JsonStreamWriter array(@NonNull Iterable<?> values) throws IOException {
+        this.jsonWriter.beginArray();
+        for (Object value : values) this.value(value);
+        this.jsonWriter.endArray();
+        return this;
+    }
+
+    /**
+     * Write the buffered output to the underlying writer and flush it
+     *
+     * @throws IOException If the output can't be written
+     */
+    @Override
+    public void flush() throws IOException {
+        this.jsonWriter.flush();
+    }
+
+    /**
+     * Flush and close the underlying output
+     *
+     * @throws IOException If the json is incomplete or the output can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.jsonWriter.close();
+    }
+
+}